@@ -18,4 +18,22 @@ dependencies {
 
     // Gson for JSON parsing (bundled in .modl file)
     modlImplementation("com.google.code.gson:gson:2.9.0")
+
+    // The UDT backend benchmark runs against the SDK classes directly
+    testImplementation("com.inductiveautomation.ignitionsdk:ignition-common:${rootProject.extra["sdk_version"]}")
+    testImplementation("com.inductiveautomation.ignitionsdk:gateway-api:${rootProject.extra["sdk_version"]}")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+    useJUnitPlatform()
+}
+
+tasks.register<JavaExec>("benchmarkUdtBackends") {
+    description = "Compares the JSON import and tag configuration UDT sync backends on a fake tag provider."
+    group = "verification"
+    classpath = sourceSets["test"].runtimeClasspath
+    mainClass.set("com.theoremsystems.ignition.schematagprovider.gateway.udt.UdtImportBackendBenchmark")
 }
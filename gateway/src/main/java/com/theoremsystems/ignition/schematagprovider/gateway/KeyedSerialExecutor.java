@@ -0,0 +1,122 @@
+package com.theoremsystems.ignition.schematagprovider.gateway;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs work keyed by schema name on a fixed number of serial lanes.
+ * <p>
+ * Each key hashes onto one lane. Work on a lane starts only after the previous work on that lane, including its
+ * asynchronous completion, has finished, so everything for one schema happens in submission order. Different lanes
+ * run in parallel.
+ */
+public class KeyedSerialExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyedSerialExecutor.class);
+
+    private final ExecutorService executor;
+    private final CompletableFuture<?>[] tails;
+
+    public KeyedSerialExecutor(String name, int laneCount) {
+        int lanes = Math.max(1, laneCount);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(lanes, r -> {
+            Thread thread = new Thread(r, name + "-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.tails = new CompletableFuture<?>[lanes];
+        for (int i = 0; i < lanes; i++) {
+            tails[i] = CompletableFuture.completedFuture(null);
+        }
+        logger.debug("Created keyed executor '{}' with {} lanes", name, lanes);
+    }
+
+    /**
+     * Run a task on the lane for a key, after all previously submitted work for that lane.
+     * The lane stays busy until the future returned by the task completes.
+     */
+    public <T> CompletableFuture<T> submit(String key, Supplier<CompletableFuture<T>> task) {
+        return submit(Collections.singleton(key), task);
+    }
+
+    /**
+     * Run a task that touches several keys. It starts once every involved lane is idle and holds all of them
+     * until it completes, so it stays ordered with respect to each key.
+     */
+    public <T> CompletableFuture<T> submit(Collection<String> keys, Supplier<CompletableFuture<T>> task) {
+        TreeSet<Integer> lanes = new TreeSet<>();
+        for (String key : keys) {
+            lanes.add(laneFor(key));
+        }
+        if (lanes.isEmpty()) {
+            return CompletableFuture.supplyAsync(task, executor).thenCompose(f -> f);
+        }
+
+        synchronized (tails) {
+            CompletableFuture<?>[] previous = new CompletableFuture<?>[lanes.size()];
+            int i = 0;
+            for (int lane : lanes) {
+                previous[i++] = tails[lane];
+            }
+
+            // Failures of earlier work must not block the lane
+            CompletableFuture<T> result = CompletableFuture.allOf(previous)
+                    .handle((ignored, error) -> null)
+                    .thenComposeAsync(ignored -> task.get(), executor);
+
+            CompletableFuture<?> tail = result.handle((ignored, error) -> null);
+            for (int lane : lanes) {
+                tails[lane] = tail;
+            }
+            return result;
+        }
+    }
+
+    public int getLaneCount() {
+        return tails.length;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Wait for the work already submitted, including its asynchronous completion, then stop the lane threads.
+     *
+     * @return true if all work finished before the timeout
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) {
+        CompletableFuture<?> submitted;
+        synchronized (tails) {
+            submitted = CompletableFuture.allOf(tails.clone());
+        }
+        boolean drained = false;
+        try {
+            submitted.get(timeout, unit);
+            drained = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Tails never fail, so only a timeout gets here
+        }
+        executor.shutdownNow();
+        return drained;
+    }
+
+    private int laneFor(String key) {
+        return Math.floorMod(key.hashCode(), tails.length);
+    }
+}
@@ -0,0 +1,185 @@
+package com.theoremsystems.ignition.schematagprovider.gateway;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces bursts of updates to the same schema.
+ * <p>
+ * The first update for a schema opens a window; any updates or deletes that arrive before the window closes replace
+ * the pending one. When the window closes only the newest operation is passed on, so a schema republished several
+ * times in quick succession is parsed, persisted and imported once. Operations still pending at shutdown are passed
+ * on right away rather than dropped.
+ * <p>
+ * With a limit on outstanding operations, submitting blocks while that many are pending or still being processed by
+ * the listener, so a backlog pushes back on the caller instead of growing without bound.
+ */
+public class SchemaUpdateCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaUpdateCoalescer.class);
+
+    /**
+     * Receives the operations that survive coalescing.
+     */
+    public interface Listener {
+        /**
+         * @return Future completed once the update has been processed
+         */
+        CompletableFuture<?> onCoalescedUpdate(String schemaName, String jsonSchemaContent);
+
+        /**
+         * @return Future completed once the deletion has been processed
+         */
+        CompletableFuture<?> onCoalescedDelete(String schemaName);
+    }
+
+    private final long windowMillis;
+    private final Listener listener;
+    private final Map<String, PendingOperation> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Semaphore outstanding;    // null when unbounded
+
+    private final AtomicLong supersededCount = new AtomicLong();
+    private final AtomicLong deliveredCount = new AtomicLong();
+
+    private volatile boolean stopped = false;
+
+    public SchemaUpdateCoalescer(long windowMillis, Listener listener) {
+        this(windowMillis, 0, listener);
+    }
+
+    /**
+     * @param maxOutstanding Maximum number of operations pending or being processed before submitting blocks, or 0
+     *                       for no limit
+     */
+    public SchemaUpdateCoalescer(long windowMillis, int maxOutstanding, Listener listener) {
+        this.windowMillis = windowMillis;
+        this.listener = listener;
+        this.outstanding = maxOutstanding > 0 ? new Semaphore(maxOutstanding) : null;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "schema-update-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void submitUpdate(String schemaName, String jsonSchemaContent) {
+        submit(schemaName, jsonSchemaContent);
+    }
+
+    public void submitDelete(String schemaName) {
+        submit(schemaName, null);
+    }
+
+    private void submit(String schemaName, String content) {
+        acquire(schemaName);
+        if (windowMillis <= 0 || stopped) {
+            deliver(schemaName, content);
+            return;
+        }
+
+        pending.compute(schemaName, (name, existing) -> {
+            if (existing != null) {
+                long superseded = supersededCount.incrementAndGet();
+                logger.debug("Superseded pending {} for schema {} ({} superseded in total)",
+                        existing.isDelete() ? "delete" : "update", name, superseded);
+                existing.content = content;
+                // The pending operation already holds a slot
+                release();
+                return existing;
+            }
+            scheduler.schedule(() -> flush(name), windowMillis, TimeUnit.MILLISECONDS);
+            return new PendingOperation(content);
+        });
+    }
+
+    private void flush(String schemaName) {
+        PendingOperation operation = pending.remove(schemaName);
+        if (operation != null) {
+            deliver(schemaName, operation.content);
+        }
+    }
+
+    private void deliver(String schemaName, String content) {
+        deliveredCount.incrementAndGet();
+        CompletableFuture<?> processed = null;
+        try {
+            processed = content == null
+                    ? listener.onCoalescedDelete(schemaName)
+                    : listener.onCoalescedUpdate(schemaName, content);
+        } catch (Exception e) {
+            logger.error("Error delivering coalesced schema operation: " + schemaName, e);
+        }
+        if (processed != null) {
+            processed.whenComplete((ignored, error) -> release());
+        } else {
+            release();
+        }
+    }
+
+    private void acquire(String schemaName) {
+        if (outstanding != null && !outstanding.tryAcquire()) {
+            logger.debug("Too many schema operations outstanding, waiting to submit: {}", schemaName);
+            outstanding.acquireUninterruptibly();
+        }
+    }
+
+    private void release() {
+        if (outstanding != null) {
+            outstanding.release();
+        }
+    }
+
+    /**
+     * Stop the scheduler and pass on every pending operation without waiting for its window to close. Operations
+     * submitted afterwards are passed on immediately.
+     */
+    public void shutdown() {
+        stopped = true;
+        scheduler.shutdownNow();
+        int flushed = 0;
+        for (String schemaName : new ArrayList<>(pending.keySet())) {
+            PendingOperation operation = pending.remove(schemaName);
+            if (operation != null) {
+                deliver(schemaName, operation.content);
+                flushed++;
+            }
+        }
+        logger.info("Stopped schema update coalescer: {} delivered, {} superseded, {} flushed on shutdown",
+                deliveredCount.get(), supersededCount.get(), flushed);
+    }
+
+    public long getSupersededCount() {
+        return supersededCount.get();
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private static class PendingOperation {
+        private String content;    // null for a delete; only modified under the map's compute lock
+
+        PendingOperation(String content) {
+            this.content = content;
+        }
+
+        boolean isDelete() {
+            return content == null;
+        }
+    }
+}
@@ -4,10 +4,24 @@ import com.inductiveautomation.ignition.gateway.model.GatewayContext;
 import com.theoremsystems.ignition.schematagprovider.gateway.config.ModuleSettings;
 import com.theoremsystems.ignition.schematagprovider.gateway.mqtt.MqttConnectionConfig;
 import com.theoremsystems.ignition.schematagprovider.gateway.mqtt.MqttSchemaListener;
+import com.theoremsystems.ignition.schematagprovider.gateway.mqtt.SchemaIngestQueue;
 import com.theoremsystems.ignition.schematagprovider.gateway.mqtt.SchemaMessageHandler;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.CacheChangeSet;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.CacheDirectoryWatcher;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.DirectorySchemaStore;
 import com.theoremsystems.ignition.schematagprovider.gateway.schema.JsonSchemaParser;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.PropertyDefinitionPool;
 import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaCacheManager;
 import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaSnapshotStore;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaStore;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SegmentSchemaStore;
+import com.theoremsystems.ignition.schematagprovider.gateway.udt.SyncJournal;
+import com.theoremsystems.ignition.schematagprovider.gateway.udt.UdtDefinitionBuilder;
+import com.theoremsystems.ignition.schematagprovider.gateway.udt.UdtDriftReconciler;
+import com.theoremsystems.ignition.schematagprovider.gateway.udt.UdtFanOut;
+import com.theoremsystems.ignition.schematagprovider.gateway.udt.UdtRetryQueue;
+import com.theoremsystems.ignition.schematagprovider.gateway.udt.SyncReport;
 import com.theoremsystems.ignition.schematagprovider.gateway.udt.UdtSynchronizer;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.slf4j.Logger;
@@ -16,7 +30,13 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -24,16 +44,27 @@ import java.util.concurrent.TimeUnit;
  * Central coordinator for the Tag Provider module.
  * Manages the lifecycle of cache, UDT synchronizer, and MQTT listener.
  */
-public class TagProviderManager implements SchemaMessageHandler {
+public class TagProviderManager implements SchemaMessageHandler, CacheDirectoryWatcher.Listener,
+        SchemaUpdateCoalescer.Listener {
 
     private static final Logger logger = LoggerFactory.getLogger(TagProviderManager.class);
+    private static final String MODULE_DATA_DIR = "modules/schema-tag-provider";
+    // How long shutdown waits for schema updates already handed to the lanes
+    private static final long LANE_DRAIN_SECONDS = 30;
 
     private final GatewayContext context;
     private final ModuleSettings settings;
 
     private SchemaCacheManager cacheManager;
-    private UdtSynchronizer synchronizer;
+    private UdtFanOut synchronizer;
+    private SyncJournal syncJournal;
+    private final List<UdtRetryQueue> retryQueues = new ArrayList<>();
+    private final List<UdtDriftReconciler> driftReconcilers = new ArrayList<>();
     private MqttSchemaListener mqttListener;
+    private SchemaIngestQueue ingestQueue;
+    private KeyedSerialExecutor schemaLanes;
+    private SchemaUpdateCoalescer updateCoalescer;
+    private CacheDirectoryWatcher cacheWatcher;
     private ScheduledFuture<?> scanTask;
 
     private volatile boolean running = false;
@@ -54,10 +85,33 @@ public class TagProviderManager implements SchemaMessageHandler {
             // 1. Initialize the schema cache
             initializeCache();
 
-            // 2. Create UDT synchronizer
-            synchronizer = new UdtSynchronizer(context, settings.getTagProviderName());
+            // Work for one schema is serialized; different schemas are processed in parallel
+            schemaLanes = new KeyedSerialExecutor("schema-lane", settings.getSchemaProcessingLanes());
+            // Bounds the work waiting in the coalescer and the lanes, so a backlog fills the MQTT ingest queue
+            updateCoalescer = new SchemaUpdateCoalescer(settings.getUpdateCoalesceMillis(),
+                    settings.getSchemaProcessingMaxPending(), this);
+
+            // 2. Create one UDT synchronizer per target provider
+            List<UdtSynchronizer> providerSynchronizers = new ArrayList<>();
+            for (String providerName : settings.getTagProviderNames()) {
+                UdtSynchronizer providerSynchronizer = new UdtSynchronizer(context, providerName,
+                        settings.getImportBatchSize(), settings.getMaxInFlightImports(), settings.getUdtSyncBackend());
+                providerSynchronizer.setMemberPatchEnabled(settings.isMemberPatchEnabled());
+                startRetryQueue(providerSynchronizer);
+                providerSynchronizers.add(providerSynchronizer);
+            }
+            synchronizer = new UdtFanOut(providerSynchronizers);
+            if (providerSynchronizers.size() > 1) {
+                logger.info("Syncing UDT definitions to {} tag providers: {}", providerSynchronizers.size(),
+                        settings.getTagProviderNames());
+            }
 
-            // 3. Start MQTT listener if enabled (do this before sync so we don't miss updates)
+            // 3. Sync all cached schemas to UDT definitions, holding the lane of every schema. Updates received
+            // from here on queue behind it, so the snapshot never overwrites a newer update. The module is
+            // considered started even if UDT sync fails (tag provider might not be ready yet)
+            startInitialSync();
+
+            // 4. Start MQTT listener if enabled (after the initial sync is queued, so its updates run after it)
             if (settings.isMqttEnabled()) {
                 startMqttListener();
             } else {
@@ -66,17 +120,10 @@ public class TagProviderManager implements SchemaMessageHandler {
 
             running = true;
 
-            // 4. Sync all cached schemas to UDT definitions
-            // This is done after setting running=true so the module is considered started
-            // even if UDT sync fails (tag provider might not be ready yet)
-            try {
-                syncAllSchemas();
-            } catch (Exception e) {
-                logger.warn("Failed to sync schemas on startup. Will retry when schemas are received via MQTT. Error: {}", e.getMessage());
-            }
-
-            // 5. Start periodic cache scan
+            // 5. Start watching the cache directory and the periodic cache scan
+            startCacheWatcher();
             startCacheScanTask();
+            startDriftReconciler();
 
             logger.info("TagProviderManager started successfully");
 
@@ -93,6 +140,17 @@ public class TagProviderManager implements SchemaMessageHandler {
      */
     public void shutdown() {
         logger.info("Shutting down TagProviderManager");
+
+        // Stop receiving MQTT messages, then hand the ones already received and acknowledged on to processing
+        if (mqttListener != null) {
+            mqttListener.disconnect();
+            mqttListener = null;
+        }
+        if (ingestQueue != null) {
+            ingestQueue.stop();
+            ingestQueue = null;
+        }
+
         running = false;
 
         // Stop periodic scan task
@@ -101,10 +159,49 @@ public class TagProviderManager implements SchemaMessageHandler {
             scanTask = null;
         }
 
-        // Stop MQTT listener
-        if (mqttListener != null) {
-            mqttListener.disconnect();
-            mqttListener = null;
+        for (UdtDriftReconciler driftReconciler : driftReconcilers) {
+            driftReconciler.stop();
+        }
+        driftReconcilers.clear();
+
+        // Stop cache directory watcher
+        if (cacheWatcher != null) {
+            cacheWatcher.stop();
+            cacheWatcher = null;
+        }
+
+        // Pending updates are flushed into the lanes, which are drained below while the cache is still open
+        if (updateCoalescer != null) {
+            updateCoalescer.shutdown();
+            updateCoalescer = null;
+        }
+
+        for (UdtRetryQueue retryQueue : retryQueues) {
+            retryQueue.stop();
+        }
+        retryQueues.clear();
+
+        if (schemaLanes != null) {
+            if (!schemaLanes.shutdown(LANE_DRAIN_SECONDS, TimeUnit.SECONDS)) {
+                logger.warn("Schema processing did not finish within {} seconds, stopping it", LANE_DRAIN_SECONDS);
+            }
+            schemaLanes = null;
+        }
+
+        // Stop UDT sync workers
+        if (synchronizer != null) {
+            synchronizer.shutdown();
+        }
+
+        if (syncJournal != null) {
+            syncJournal.close();
+            syncJournal = null;
+        }
+
+        // Persist parsed schemas so the next startup can skip re-parsing
+        if (cacheManager != null) {
+            cacheManager.saveSnapshot();
+            cacheManager.close();
         }
 
         logger.info("TagProviderManager shutdown complete");
@@ -115,24 +212,193 @@ public class TagProviderManager implements SchemaMessageHandler {
         Path cachePath = resolvePath(settings.getSchemaCachePath());
         logger.info("Initializing schema cache at: {}", cachePath);
 
-        cacheManager = new SchemaCacheManager(cachePath);
+        SchemaSnapshotStore snapshotStore = settings.isCacheSnapshotEnabled()
+                ? SchemaSnapshotStore.forCacheDirectory(cachePath)
+                : null;
+        cacheManager = new SchemaCacheManager(cachePath, createSchemaStore(cachePath),
+                settings.getCacheLoadThreads(), snapshotStore,
+                settings.getCacheMemoryBudgetMb() * 1024L * 1024L, settings.isCacheCompressEnabled());
         cacheManager.initialize();
 
         logger.info("Schema cache initialized with {} schemas", cacheManager.getSchemaCount());
     }
 
-    private void syncAllSchemas() {
+    private SchemaStore createSchemaStore(Path cachePath) {
+        String storeName = settings.getCacheStore();
+        long commitDelayMillis = settings.getCacheCommitMaxDelayMillis();
+        if (SegmentSchemaStore.NAME.equals(storeName)) {
+            return new SegmentSchemaStore(cachePath, true, commitDelayMillis);
+        }
+        if (!DirectorySchemaStore.NAME.equals(storeName)) {
+            logger.warn("Unknown schema cache store '{}', using {}", storeName, DirectorySchemaStore.NAME);
+        }
+        return new DirectorySchemaStore(cachePath, commitDelayMillis);
+    }
+
+    /**
+     * Start retrying failed UDT syncs to one provider. Retries run in the lanes of their schemas, so they never
+     * overtake a newer update of the same schema.
+     */
+    private void startRetryQueue(UdtSynchronizer target) {
+        UdtRetryQueue retryQueue = new UdtRetryQueue(
+                resolvePath(MODULE_DATA_DIR).resolve(UdtRetryQueue.fileName(target.getProviderName())),
+                settings.getRetryInitialBackoffSeconds() * 1000L, settings.getRetryMaxBackoffSeconds() * 1000L,
+                target::isTagProviderAvailable, schemaNames -> resyncSchemas(target, schemaNames));
+        target.setRetryQueue(retryQueue);
+        retryQueue.start();
+        retryQueues.add(retryQueue);
+    }
+
+    /**
+     * Sync the current version of the given UDT types to one provider in the lanes of their schemas, e.g. to retry
+     * or repair them.
+     */
+    private CompletableFuture<?> resyncSchemas(UdtSynchronizer target, Set<String> typeNames) {
+        // Types are named by schema title when there is one, while lanes and the cache use the schema name
+        Map<String, String> schemaNames = new LinkedHashMap<>();
+        for (String typeName : typeNames) {
+            String schemaName = cacheManager.getSchemaNameForType(typeName);
+            if (schemaName != null) {
+                schemaNames.put(schemaName, typeName);
+            } else {
+                logger.debug("No cached schema defines UDT {}, dropping it from the retry queue", typeName);
+                target.getRetryQueue().remove(typeName);
+            }
+        }
+        if (schemaNames.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return schemaLanes.submit(schemaNames.keySet(), () -> {
+            // Looked up inside the lanes, so a newer update of the same schema is never overwritten
+            List<SchemaModel> schemas = new ArrayList<>();
+            for (Map.Entry<String, String> entry : schemaNames.entrySet()) {
+                SchemaModel schema = cacheManager.getSchema(entry.getKey());
+                if (schema != null) {
+                    schemas.add(schema);
+                }
+                if (schema == null || !schema.getName().equals(entry.getValue())) {
+                    // Deleted or renamed in the meantime, nothing left to sync under this type name
+                    target.getRetryQueue().remove(entry.getValue());
+                }
+            }
+            if (schemas.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            return target.syncAllUdtDefinitions(schemas);
+        });
+    }
+
+    /**
+     * Start the low-priority reconcile of each provider's UDT definitions against the cached schemas.
+     */
+    private void startDriftReconciler() {
+        long intervalSeconds = settings.getDriftReconcileIntervalSeconds();
+        if (intervalSeconds <= 0) {
+            logger.info("UDT drift reconcile disabled (interval: {} seconds)", intervalSeconds);
+            return;
+        }
+        for (UdtSynchronizer target : synchronizer.getSynchronizers()) {
+            // Schemas are loaded one at a time, so evicted models are not all parsed again on each pass
+            UdtDriftReconciler driftReconciler = new UdtDriftReconciler(target, schemaLanes::submit,
+                    cacheManager::getSchemaNames, cacheManager::getSchema,
+                    schemaNames -> resyncSchemas(target, schemaNames),
+                    settings.isAllowDelete() ? typeNames -> removeStaleUdts(target, typeNames) : null,
+                    settings.getImportBatchSize());
+            driftReconciler.start(intervalSeconds);
+            driftReconcilers.add(driftReconciler);
+        }
+    }
+
+    /**
+     * Remove UDTs from one provider whose schemas no longer exist, skipping any schema that was re-added in the
+     * meantime.
+     */
+    private CompletableFuture<?> removeStaleUdts(UdtSynchronizer target, Set<String> typeNames) {
+        // Lock the lanes of the schemas that define the types, like updates and deletions do. A type no schema
+        // defines uses its own name, which is the schema name of an untitled schema that would define it
+        Set<String> laneKeys = new LinkedHashSet<>();
+        for (String typeName : typeNames) {
+            String schemaName = cacheManager.getSchemaNameForType(typeName);
+            laneKeys.add(schemaName != null ? schemaName : typeName);
+        }
+
+        return schemaLanes.submit(laneKeys, () -> {
+            List<String> stale = new ArrayList<>();
+            for (String typeName : typeNames) {
+                // Type names are schema titles where set, so check whether any schema still defines the type
+                if (cacheManager.getSchemaNameForType(typeName) == null) {
+                    stale.add(typeName);
+                }
+            }
+            return target.removeUdtDefinitions(stale).thenApply(report -> {
+                // A titled schema in another lane may have defined one of the types while it was being removed.
+                // Sync those again once these lanes are released, so the newer definition wins
+                Set<String> redefined = new LinkedHashSet<>();
+                for (String typeName : stale) {
+                    if (cacheManager.getSchemaNameForType(typeName) != null) {
+                        redefined.add(typeName);
+                    }
+                }
+                if (!redefined.isEmpty()) {
+                    logger.info("UDTs {} were redefined while being removed, syncing them again", redefined);
+                    resyncSchemas(target, redefined);
+                }
+                return report;
+            });
+        });
+    }
+
+    private void startInitialSync() {
+        schemaLanes.submit(cacheManager.getSchemaNames(),
+                        // Types recorded in the sync journal are only re-imported if they changed
+                        () -> restoreSyncJournal().thenCompose(restored -> syncAllSchemas()))
+                .whenComplete((report, error) -> {
+                    if (error != null) {
+                        logger.warn("Failed to sync schemas on startup. Failed schemas will be retried. Error: {}",
+                                error.getMessage());
+                    }
+                });
+    }
+
+    private CompletableFuture<Integer> restoreSyncJournal() {
+        if (!settings.isSyncJournalEnabled()) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        syncJournal = new SyncJournal(resolvePath(MODULE_DATA_DIR).resolve(SyncJournal.FILE_NAME));
+        try {
+            syncJournal.open();
+        } catch (IOException e) {
+            logger.warn("Could not open sync journal {}, all schemas will be synced: {}",
+                    syncJournal.getFile(), e.getMessage());
+            syncJournal = null;
+            return CompletableFuture.completedFuture(0);
+        }
+        return synchronizer.restoreFromJournal(syncJournal);
+    }
+
+    private CompletableFuture<SyncReport> syncAllSchemas() {
         logger.info("Syncing {} cached schemas to UDT definitions", cacheManager.getSchemaCount());
 
-        int synced = synchronizer.syncAllUdtDefinitions(cacheManager.getAllSchemas());
-        logger.info("Successfully synced {} UDT definitions", synced);
+        return synchronizer.syncAllUdtDefinitions(cacheManager.getAllSchemas())
+                .whenComplete((report, error) -> {
+                    if (report != null) {
+                        logger.info("Successfully synced {} of {} UDT definitions", report.getSucceeded(), report.getTotal());
+                    }
+                });
     }
 
     private void startMqttListener() {
         logger.info("Starting MQTT listener");
 
+        // Messages are handed off to worker threads so the MQTT callback thread is never blocked by a sync
+        ingestQueue = new SchemaIngestQueue(this, settings.getMqttIngestQueueCapacity(),
+                settings.getMqttIngestWorkers(), parseOverflowPolicy(settings.getMqttIngestOverflowPolicy()));
+        ingestQueue.start();
+
         MqttConnectionConfig mqttConfig = MqttConnectionConfig.fromSettings(settings);
-        mqttListener = new MqttSchemaListener(mqttConfig, this);
+        mqttListener = new MqttSchemaListener(mqttConfig, ingestQueue);
 
         try {
             mqttListener.connect();
@@ -144,6 +410,31 @@ public class TagProviderManager implements SchemaMessageHandler {
         }
     }
 
+    private SchemaIngestQueue.OverflowPolicy parseOverflowPolicy(String policy) {
+        try {
+            return SchemaIngestQueue.OverflowPolicy.valueOf(policy);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.warn("Invalid MQTT ingest overflow policy '{}', using BLOCK", policy);
+            return SchemaIngestQueue.OverflowPolicy.BLOCK;
+        }
+    }
+
+    private void startCacheWatcher() {
+        if (!settings.isCacheWatchEnabled()) {
+            logger.info("Cache directory watcher disabled by configuration");
+            return;
+        }
+
+        cacheWatcher = new CacheDirectoryWatcher(cacheManager.getCacheDirectory(),
+                settings.getCacheWatchDebounceMillis(), this);
+        try {
+            cacheWatcher.start();
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("Could not watch cache directory, falling back to periodic scanning: {}", e.getMessage());
+            cacheWatcher = null;
+        }
+    }
+
     private void startCacheScanTask() {
         int intervalSeconds = settings.getCacheScanIntervalSeconds();
         if (intervalSeconds <= 0) {
@@ -151,7 +442,17 @@ public class TagProviderManager implements SchemaMessageHandler {
             return;
         }
 
-        logger.info("Starting periodic cache scan task (interval: {} seconds)", intervalSeconds);
+        // While the watcher is active, the scan is only a slow safety net for missed events
+        if (cacheWatcher != null) {
+            intervalSeconds = settings.getCacheReconcileIntervalSeconds();
+            if (intervalSeconds <= 0) {
+                logger.info("Cache reconcile disabled (interval: {} seconds)", intervalSeconds);
+                return;
+            }
+            logger.info("Starting periodic cache reconcile task (interval: {} seconds)", intervalSeconds);
+        } else {
+            logger.info("Starting periodic cache scan task (interval: {} seconds)", intervalSeconds);
+        }
 
         scanTask = context.getExecutionManager().scheduleWithFixedDelay(
                 this::scanAndSyncCache,
@@ -162,8 +463,8 @@ public class TagProviderManager implements SchemaMessageHandler {
     }
 
     /**
-     * Scan the cache directory for new/updated schemas and sync them.
-     * Also removes UDTs for schemas that were deleted from the cache.
+     * Scan the cache directory for added, modified and deleted schemas and sync exactly those.
+     * Removes UDTs for schemas that were deleted from the cache.
      */
     private void scanAndSyncCache() {
         if (!running) {
@@ -171,33 +472,93 @@ public class TagProviderManager implements SchemaMessageHandler {
         }
 
         try {
-            int previousCount = cacheManager.getSchemaCount();
-            Set<String> deletedSchemas = cacheManager.reload();
-            int newCount = cacheManager.getSchemaCount();
-
-            // Remove UDTs for deleted schemas (if allowed)
-            if (settings.isAllowDelete()) {
-                for (String schemaName : deletedSchemas) {
-                    logger.info("Removing UDT for deleted schema: {}", schemaName);
-                    synchronizer.removeUdtDefinition(schemaName);
-                }
-            } else if (!deletedSchemas.isEmpty()) {
-                logger.info("Skipping UDT removal for {} deleted schemas (allowDelete=false)", deletedSchemas.size());
+            CacheChangeSet changes = cacheManager.reload();
+            if (changes.isEmpty()) {
+                logger.debug("Cache scan complete, no changes detected ({} schemas)", cacheManager.getSchemaCount());
+                return;
             }
 
-            // Sync remaining schemas if count changed (new schemas added)
-            if (newCount != previousCount || !deletedSchemas.isEmpty()) {
-                logger.info("Cache scan detected changes ({} -> {} schemas, {} deleted), syncing UDTs",
-                        previousCount, newCount, deletedSchemas.size());
-                syncAllSchemas();
-            } else {
-                logger.debug("Cache scan complete, no changes detected ({} schemas)", newCount);
-            }
+            logger.info("Cache scan detected {} changes (+{} added, ~{} modified, -{} deleted, ={} unchanged), syncing UDTs",
+                    changes.size(), changes.getAdded().size(), changes.getModified().size(),
+                    changes.getDeleted().size(), changes.getUnchangedCount());
+            applyCacheChanges(changes);
         } catch (Exception e) {
             logger.error("Error during cache scan", e);
         }
     }
 
+    /**
+     * Apply a targeted set of cache changes: remove UDTs for deleted schemas and sync added/modified ones.
+     */
+    private void applyCacheChanges(CacheChangeSet changes) {
+        removeDeletedSchemas(changes);
+
+        Set<String> changedNames = changes.getChanged();
+        if (!changedNames.isEmpty()) {
+            // Synced as one dependency-ordered unit, holding the lanes of every changed schema
+            schemaLanes.submit(changedNames, () -> {
+                // Looked up inside the lanes, so an update that lands while this task is queued is not overwritten
+                List<SchemaModel> changed = new ArrayList<>();
+                for (String schemaName : changedNames) {
+                    SchemaModel schema = cacheManager.getSchema(schemaName);
+                    if (schema != null) {
+                        changed.add(schema);
+                    }
+                }
+                if (changed.isEmpty()) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                return synchronizer.syncChangedUdtDefinitions(changed, cacheManager.getTypeReferences(),
+                        cacheManager::getSchemaForType);
+            });
+        }
+    }
+
+    /**
+     * Remove the UDTs, including nested types, of deleted schemas in batched calls, if deletion is allowed.
+     */
+    private void removeDeletedSchemas(CacheChangeSet changes) {
+        Set<String> deletedSchemas = changes.getDeleted();
+        if (deletedSchemas.isEmpty()) {
+            return;
+        }
+        if (!settings.isAllowDelete()) {
+            logger.info("Skipping UDT removal for {} deleted schemas (allowDelete=false)", deletedSchemas.size());
+            return;
+        }
+
+        logger.info("Removing UDTs for {} deleted schemas", deletedSchemas.size());
+        List<String> names = new ArrayList<>(deletedSchemas);
+        schemaLanes.submit(names, () -> {
+            List<String> typeNames = new ArrayList<>();
+            for (String schemaName : names) {
+                typeNames.addAll(typeNamesOf(schemaName, changes.getDeletedModel(schemaName)));
+            }
+            return synchronizer.removeUdtDefinitions(typeNames);
+        });
+    }
+
+    /**
+     * Get the UDT types a deleted schema defined that no cached schema defines now.
+     *
+     * @param lastModel The schema's model before it was deleted, or null if unknown
+     */
+    private List<String> typeNamesOf(String schemaName, SchemaModel lastModel) {
+        if (lastModel == null) {
+            // Without a model only an untitled schema's own type can be named
+            logger.info("No cached model of deleted schema {}, removing only UDT {}", schemaName, schemaName);
+            return cacheManager.getSchemaNameForType(schemaName) == null ? List.of(schemaName) : List.of();
+        }
+        String owner = cacheManager.getSchemaNameForType(lastModel.getName());
+        if (owner != null && !owner.equals(schemaName)) {
+            // Another schema with the same title defines these types, including the nested ones
+            logger.info("UDT {} of deleted schema {} is still defined by schema {}, keeping it",
+                    lastModel.getName(), schemaName, owner);
+            return List.of();
+        }
+        return UdtDefinitionBuilder.typeNames(lastModel);
+    }
+
     private Path resolvePath(String pathString) {
         Path path = Paths.get(pathString);
         if (path.isAbsolute()) {
@@ -213,6 +574,30 @@ public class TagProviderManager implements SchemaMessageHandler {
         }
     }
 
+    // CacheDirectoryWatcher.Listener implementation
+
+    @Override
+    public void onSchemaFilesChanged(Set<String> schemaNames) {
+        if (!running) {
+            return;
+        }
+
+        CacheChangeSet changes = cacheManager.reload(schemaNames);
+        if (changes.isEmpty()) {
+            logger.debug("Cache directory events for {} schemas produced no changes", schemaNames.size());
+            return;
+        }
+
+        logger.info("Cache watcher detected changes ({} added, {} modified, {} deleted), syncing UDTs",
+                changes.getAdded().size(), changes.getModified().size(), changes.getDeleted().size());
+        applyCacheChanges(changes);
+    }
+
+    @Override
+    public void onOverflow() {
+        scanAndSyncCache();
+    }
+
     // SchemaMessageHandler implementation
 
     @Override
@@ -222,41 +607,70 @@ public class TagProviderManager implements SchemaMessageHandler {
             return;
         }
 
+        updateCoalescer.submitUpdate(schemaName, jsonSchemaContent);
+    }
+
+    @Override
+    public void onSchemaDeleted(String schemaName) {
+        if (!running) {
+            return;
+        }
+
+        updateCoalescer.submitDelete(schemaName);
+    }
+
+    // SchemaUpdateCoalescer.Listener implementation
+
+    @Override
+    public CompletableFuture<?> onCoalescedUpdate(String schemaName, String jsonSchemaContent) {
+        return schemaLanes.submit(schemaName, () -> processSchemaUpdate(schemaName, jsonSchemaContent));
+    }
+
+    @Override
+    public CompletableFuture<?> onCoalescedDelete(String schemaName) {
+        return schemaLanes.submit(schemaName, () -> processSchemaDeletion(schemaName));
+    }
+
+    private CompletableFuture<Void> processSchemaUpdate(String schemaName, String jsonSchemaContent) {
         logger.info("Processing received schema: {}", schemaName);
 
         try {
             // Save to cache (this also parses and validates)
             SchemaModel schema = cacheManager.saveSchema(schemaName, jsonSchemaContent);
 
-            // Sync to UDT definition
-            boolean success = synchronizer.syncUdtDefinition(schema);
-
-            if (success) {
-                logger.info("Successfully processed schema: {}", schemaName);
-            } else {
-                logger.error("Failed to sync schema to UDT: {}", schemaName);
-            }
+            // Sync to UDT definition, along with any types that depend on it
+            return synchronizer.syncChangedUdtDefinitions(List.of(schema), cacheManager.getTypeReferences(),
+                            cacheManager::getSchemaForType)
+                    .thenAccept(report -> {
+                        if (report.isSuccessful()) {
+                            logger.info("Successfully processed schema: {}", schemaName);
+                        } else {
+                            logger.error("Failed to sync schema to UDT: {}", schemaName);
+                        }
+                    });
 
         } catch (IOException e) {
             logger.error("Failed to save schema to cache: " + schemaName, e);
         } catch (JsonSchemaParser.JsonSchemaParseException e) {
             logger.error("Invalid JSON Schema received: " + schemaName, e);
         }
+        return CompletableFuture.completedFuture(null);
     }
 
-    @Override
-    public void onSchemaDeleted(String schemaName) {
-        if (!running) {
-            return;
-        }
-
+    private CompletableFuture<Void> processSchemaDeletion(String schemaName) {
         logger.info("Processing schema deletion: {}", schemaName);
 
+        CompletableFuture<Void> removal = CompletableFuture.completedFuture(null);
         try {
-            // Remove from UDT definitions (if allowed)
+            // Remove from UDT definitions (if allowed). Types are named by schema title and include nested types,
+            // so they are resolved while the schema is still cached
             if (settings.isAllowDelete()) {
-                synchronizer.removeUdtDefinition(schemaName);
-                logger.info("Removed UDT for schema: {}", schemaName);
+                List<String> typeNames = typeNamesOf(schemaName, cacheManager.getSchema(schemaName));
+                removal = synchronizer.removeUdtDefinitions(typeNames).thenAccept(report -> {
+                    if (report.isSuccessful()) {
+                        logger.info("Removed UDTs {} for schema: {}", typeNames, schemaName);
+                    }
+                });
             } else {
                 logger.info("Skipping UDT removal for schema: {} (allowDelete=false)", schemaName);
             }
@@ -269,6 +683,7 @@ public class TagProviderManager implements SchemaMessageHandler {
         } catch (IOException e) {
             logger.error("Failed to delete schema from cache: " + schemaName, e);
         }
+        return removal;
     }
 
     @Override
@@ -291,11 +706,95 @@ public class TagProviderManager implements SchemaMessageHandler {
         return mqttListener != null && mqttListener.isConnected();
     }
 
+    public long getSupersededUpdateCount() {
+        return updateCoalescer != null ? updateCoalescer.getSupersededCount() : 0;
+    }
+
+    public long getPatchedUdtCount() {
+        return synchronizer != null ? synchronizer.getPatchedCount() : 0;
+    }
+
+    public int getIngestQueueDepth() {
+        return ingestQueue != null ? ingestQueue.getQueueDepth() : 0;
+    }
+
+    public long getIngestMaxWaitMillis() {
+        return ingestQueue != null ? ingestQueue.getMaxWaitMillis() : 0;
+    }
+
+    public double getSchemaWriteAverageMillis() {
+        return cacheManager != null ? cacheManager.getAverageWriteMillis() : 0;
+    }
+
+    public long getSchemaWriteMaxMillis() {
+        return cacheManager != null ? cacheManager.getMaxWriteMillis() : 0;
+    }
+
+    public double getSchemaWriteBatchSize() {
+        return cacheManager != null ? cacheManager.getStore().getCommitter().getAverageBatchSize() : 0;
+    }
+
+    /**
+     * Reports of the last UDT drift reconcile of each provider, including their cost. Providers that have not been
+     * reconciled yet are omitted.
+     */
+    public Map<String, UdtDriftReconciler.DriftReport> getLastDriftReports() {
+        Map<String, UdtDriftReconciler.DriftReport> reports = new LinkedHashMap<>();
+        for (UdtDriftReconciler driftReconciler : driftReconcilers) {
+            if (driftReconciler.getLastReport() != null) {
+                reports.put(driftReconciler.getProviderName(), driftReconciler.getLastReport());
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Sync status of each target tag provider, including its retry queue.
+     */
+    public Map<String, UdtFanOut.ProviderStatus> getProviderStatus() {
+        return synchronizer != null ? synchronizer.getStatus() : Map.of();
+    }
+
+    public int getRetryQueueSize() {
+        int size = 0;
+        for (UdtRetryQueue retryQueue : retryQueues) {
+            size += retryQueue.size();
+        }
+        return size;
+    }
+
+    public long getOldestRetryAgeMillis() {
+        long oldest = 0;
+        for (UdtRetryQueue retryQueue : retryQueues) {
+            oldest = Math.max(oldest, retryQueue.getOldestAgeMillis());
+        }
+        return oldest;
+    }
+
     public int getCachedSchemaCount() {
         return cacheManager != null ? cacheManager.getSchemaCount() : 0;
     }
 
     public int getRegisteredUdtCount() {
-        return synchronizer != null ? synchronizer.getRegisteredTypes().size() : 0;
+        return synchronizer != null ? synchronizer.getRegisteredTypeCount() : 0;
+    }
+
+    public long getImportedUdtCount() {
+        return synchronizer != null ? synchronizer.getImportedCount() : 0;
+    }
+
+    /**
+     * Fraction of parsed property definitions that reuse an identical existing subtree.
+     */
+    public double getPropertyDedupeRatio() {
+        return PropertyDefinitionPool.getDedupeRatio();
+    }
+
+    public long getSkippedUdtCount() {
+        return synchronizer != null ? synchronizer.getSkippedCount() : 0;
+    }
+
+    public int getInFlightUdtImports() {
+        return synchronizer != null ? synchronizer.getInFlightImports() : 0;
     }
 }
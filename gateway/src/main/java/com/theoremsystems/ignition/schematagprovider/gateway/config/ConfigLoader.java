@@ -27,10 +27,33 @@ public class ConfigLoader {
     private static final String MQTT_PASSWORD = "mqtt.password";
     private static final String MQTT_QOS = "mqtt.qos";
     private static final String MQTT_ENABLED = "mqtt.enabled";
+    private static final String MQTT_INGEST_QUEUE_CAPACITY = "mqtt.ingest.queue.capacity";
+    private static final String MQTT_INGEST_WORKERS = "mqtt.ingest.workers";
+    private static final String MQTT_INGEST_OVERFLOW_POLICY = "mqtt.ingest.overflow.policy";
+    private static final String SCHEMA_PROCESSING_LANES = "schema.processing.lanes";
+    private static final String SCHEMA_PROCESSING_MAX_PENDING = "schema.processing.max.pending";
+    private static final String SCHEMA_UPDATE_COALESCE_MS = "schema.update.coalesce.ms";
+    private static final String TAG_PROVIDER_SYNC_BACKEND = "tag.provider.sync.backend";
+    private static final String TAG_PROVIDER_MEMBER_PATCH_ENABLED = "tag.provider.member.patch.enabled";
+    private static final String TAG_PROVIDER_SYNC_JOURNAL_ENABLED = "tag.provider.sync.journal.enabled";
+    private static final String TAG_PROVIDER_RETRY_INITIAL_BACKOFF = "tag.provider.retry.initial.backoff.seconds";
+    private static final String TAG_PROVIDER_RETRY_MAX_BACKOFF = "tag.provider.retry.max.backoff.seconds";
+    private static final String TAG_PROVIDER_DRIFT_RECONCILE_INTERVAL = "tag.provider.drift.reconcile.interval.seconds";
     private static final String SCHEMA_CACHE_PATH = "schema.cache.path";
     private static final String CACHE_SCAN_INTERVAL = "schema.cache.scan.interval.seconds";
+    private static final String CACHE_WATCH_ENABLED = "schema.cache.watch.enabled";
+    private static final String CACHE_WATCH_DEBOUNCE = "schema.cache.watch.debounce.ms";
+    private static final String CACHE_RECONCILE_INTERVAL = "schema.cache.reconcile.interval.seconds";
+    private static final String CACHE_LOAD_THREADS = "schema.cache.load.threads";
+    private static final String CACHE_SNAPSHOT_ENABLED = "schema.cache.snapshot.enabled";
+    private static final String CACHE_MEMORY_BUDGET_MB = "schema.cache.memory.budget.mb";
+    private static final String CACHE_COMPRESS_ENABLED = "schema.cache.compress.enabled";
+    private static final String CACHE_STORE = "schema.cache.store";
+    private static final String CACHE_COMMIT_MAX_DELAY_MS = "schema.cache.commit.max.delay.ms";
     private static final String TAG_PROVIDER_NAME = "tag.provider.name";
     private static final String ALLOW_DELETE = "tag.provider.allowdelete";
+    private static final String IMPORT_BATCH_SIZE = "tag.provider.import.batch.size";
+    private static final String IMPORT_MAX_INFLIGHT = "tag.provider.import.max.inflight";
 
     private final Path configDirectory;
 
@@ -81,10 +104,34 @@ public class ConfigLoader {
             props.setProperty(MQTT_PASSWORD, settings.getMqttPassword());
             props.setProperty(MQTT_QOS, String.valueOf(settings.getMqttQos()));
             props.setProperty(MQTT_ENABLED, String.valueOf(settings.isMqttEnabled()));
+            props.setProperty(MQTT_INGEST_QUEUE_CAPACITY, String.valueOf(settings.getMqttIngestQueueCapacity()));
+            props.setProperty(MQTT_INGEST_WORKERS, String.valueOf(settings.getMqttIngestWorkers()));
+            props.setProperty(MQTT_INGEST_OVERFLOW_POLICY, settings.getMqttIngestOverflowPolicy());
+            props.setProperty(SCHEMA_PROCESSING_LANES, String.valueOf(settings.getSchemaProcessingLanes()));
+            props.setProperty(SCHEMA_PROCESSING_MAX_PENDING, String.valueOf(settings.getSchemaProcessingMaxPending()));
+            props.setProperty(SCHEMA_UPDATE_COALESCE_MS, String.valueOf(settings.getUpdateCoalesceMillis()));
+            props.setProperty(TAG_PROVIDER_SYNC_BACKEND, settings.getUdtSyncBackend());
+            props.setProperty(TAG_PROVIDER_MEMBER_PATCH_ENABLED, String.valueOf(settings.isMemberPatchEnabled()));
+            props.setProperty(TAG_PROVIDER_SYNC_JOURNAL_ENABLED, String.valueOf(settings.isSyncJournalEnabled()));
+            props.setProperty(TAG_PROVIDER_RETRY_INITIAL_BACKOFF, String.valueOf(settings.getRetryInitialBackoffSeconds()));
+            props.setProperty(TAG_PROVIDER_RETRY_MAX_BACKOFF, String.valueOf(settings.getRetryMaxBackoffSeconds()));
+            props.setProperty(TAG_PROVIDER_DRIFT_RECONCILE_INTERVAL,
+                    String.valueOf(settings.getDriftReconcileIntervalSeconds()));
             props.setProperty(SCHEMA_CACHE_PATH, settings.getSchemaCachePath());
             props.setProperty(CACHE_SCAN_INTERVAL, String.valueOf(settings.getCacheScanIntervalSeconds()));
+            props.setProperty(CACHE_WATCH_ENABLED, String.valueOf(settings.isCacheWatchEnabled()));
+            props.setProperty(CACHE_WATCH_DEBOUNCE, String.valueOf(settings.getCacheWatchDebounceMillis()));
+            props.setProperty(CACHE_RECONCILE_INTERVAL, String.valueOf(settings.getCacheReconcileIntervalSeconds()));
+            props.setProperty(CACHE_LOAD_THREADS, String.valueOf(settings.getCacheLoadThreads()));
+            props.setProperty(CACHE_SNAPSHOT_ENABLED, String.valueOf(settings.isCacheSnapshotEnabled()));
+            props.setProperty(CACHE_MEMORY_BUDGET_MB, String.valueOf(settings.getCacheMemoryBudgetMb()));
+            props.setProperty(CACHE_COMPRESS_ENABLED, String.valueOf(settings.isCacheCompressEnabled()));
+            props.setProperty(CACHE_STORE, settings.getCacheStore());
+            props.setProperty(CACHE_COMMIT_MAX_DELAY_MS, String.valueOf(settings.getCacheCommitMaxDelayMillis()));
             props.setProperty(TAG_PROVIDER_NAME, settings.getTagProviderName());
             props.setProperty(ALLOW_DELETE, String.valueOf(settings.isAllowDelete()));
+            props.setProperty(IMPORT_BATCH_SIZE, String.valueOf(settings.getImportBatchSize()));
+            props.setProperty(IMPORT_MAX_INFLIGHT, String.valueOf(settings.getMaxInFlightImports()));
 
             try (OutputStream os = Files.newOutputStream(configFile)) {
                 props.store(os, "Schema Tag Provider Module Configuration");
@@ -122,6 +169,76 @@ public class ConfigLoader {
         if (props.containsKey(MQTT_ENABLED)) {
             settings.setMqttEnabled(Boolean.parseBoolean(props.getProperty(MQTT_ENABLED)));
         }
+        if (props.containsKey(MQTT_INGEST_QUEUE_CAPACITY)) {
+            try {
+                settings.setMqttIngestQueueCapacity(Integer.parseInt(props.getProperty(MQTT_INGEST_QUEUE_CAPACITY)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", MQTT_INGEST_QUEUE_CAPACITY);
+            }
+        }
+        if (props.containsKey(MQTT_INGEST_WORKERS)) {
+            try {
+                settings.setMqttIngestWorkers(Integer.parseInt(props.getProperty(MQTT_INGEST_WORKERS)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", MQTT_INGEST_WORKERS);
+            }
+        }
+        if (props.containsKey(MQTT_INGEST_OVERFLOW_POLICY)) {
+            settings.setMqttIngestOverflowPolicy(props.getProperty(MQTT_INGEST_OVERFLOW_POLICY).trim().toUpperCase());
+        }
+        if (props.containsKey(SCHEMA_PROCESSING_LANES)) {
+            try {
+                settings.setSchemaProcessingLanes(Integer.parseInt(props.getProperty(SCHEMA_PROCESSING_LANES)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", SCHEMA_PROCESSING_LANES);
+            }
+        }
+        if (props.containsKey(SCHEMA_PROCESSING_MAX_PENDING)) {
+            try {
+                settings.setSchemaProcessingMaxPending(
+                        Integer.parseInt(props.getProperty(SCHEMA_PROCESSING_MAX_PENDING)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", SCHEMA_PROCESSING_MAX_PENDING);
+            }
+        }
+        if (props.containsKey(SCHEMA_UPDATE_COALESCE_MS)) {
+            try {
+                settings.setUpdateCoalesceMillis(Long.parseLong(props.getProperty(SCHEMA_UPDATE_COALESCE_MS)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", SCHEMA_UPDATE_COALESCE_MS);
+            }
+        }
+        if (props.containsKey(TAG_PROVIDER_SYNC_BACKEND)) {
+            settings.setUdtSyncBackend(props.getProperty(TAG_PROVIDER_SYNC_BACKEND).trim().toLowerCase());
+        }
+        if (props.containsKey(TAG_PROVIDER_MEMBER_PATCH_ENABLED)) {
+            settings.setMemberPatchEnabled(Boolean.parseBoolean(props.getProperty(TAG_PROVIDER_MEMBER_PATCH_ENABLED)));
+        }
+        if (props.containsKey(TAG_PROVIDER_SYNC_JOURNAL_ENABLED)) {
+            settings.setSyncJournalEnabled(Boolean.parseBoolean(props.getProperty(TAG_PROVIDER_SYNC_JOURNAL_ENABLED)));
+        }
+        if (props.containsKey(TAG_PROVIDER_RETRY_INITIAL_BACKOFF)) {
+            try {
+                settings.setRetryInitialBackoffSeconds(Integer.parseInt(props.getProperty(TAG_PROVIDER_RETRY_INITIAL_BACKOFF)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", TAG_PROVIDER_RETRY_INITIAL_BACKOFF);
+            }
+        }
+        if (props.containsKey(TAG_PROVIDER_RETRY_MAX_BACKOFF)) {
+            try {
+                settings.setRetryMaxBackoffSeconds(Integer.parseInt(props.getProperty(TAG_PROVIDER_RETRY_MAX_BACKOFF)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", TAG_PROVIDER_RETRY_MAX_BACKOFF);
+            }
+        }
+        if (props.containsKey(TAG_PROVIDER_DRIFT_RECONCILE_INTERVAL)) {
+            try {
+                settings.setDriftReconcileIntervalSeconds(
+                        Integer.parseInt(props.getProperty(TAG_PROVIDER_DRIFT_RECONCILE_INTERVAL)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", TAG_PROVIDER_DRIFT_RECONCILE_INTERVAL);
+            }
+        }
         if (props.containsKey(SCHEMA_CACHE_PATH)) {
             settings.setSchemaCachePath(props.getProperty(SCHEMA_CACHE_PATH));
         }
@@ -132,11 +249,72 @@ public class ConfigLoader {
                 logger.warn("Invalid {} value, using default", CACHE_SCAN_INTERVAL);
             }
         }
+        if (props.containsKey(CACHE_WATCH_ENABLED)) {
+            settings.setCacheWatchEnabled(Boolean.parseBoolean(props.getProperty(CACHE_WATCH_ENABLED)));
+        }
+        if (props.containsKey(CACHE_WATCH_DEBOUNCE)) {
+            try {
+                settings.setCacheWatchDebounceMillis(Integer.parseInt(props.getProperty(CACHE_WATCH_DEBOUNCE)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", CACHE_WATCH_DEBOUNCE);
+            }
+        }
+        if (props.containsKey(CACHE_RECONCILE_INTERVAL)) {
+            try {
+                settings.setCacheReconcileIntervalSeconds(Integer.parseInt(props.getProperty(CACHE_RECONCILE_INTERVAL)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", CACHE_RECONCILE_INTERVAL);
+            }
+        }
+        if (props.containsKey(CACHE_LOAD_THREADS)) {
+            try {
+                settings.setCacheLoadThreads(Integer.parseInt(props.getProperty(CACHE_LOAD_THREADS)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", CACHE_LOAD_THREADS);
+            }
+        }
+        if (props.containsKey(CACHE_SNAPSHOT_ENABLED)) {
+            settings.setCacheSnapshotEnabled(Boolean.parseBoolean(props.getProperty(CACHE_SNAPSHOT_ENABLED)));
+        }
+        if (props.containsKey(CACHE_MEMORY_BUDGET_MB)) {
+            try {
+                settings.setCacheMemoryBudgetMb(Integer.parseInt(props.getProperty(CACHE_MEMORY_BUDGET_MB)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", CACHE_MEMORY_BUDGET_MB);
+            }
+        }
+        if (props.containsKey(CACHE_COMPRESS_ENABLED)) {
+            settings.setCacheCompressEnabled(Boolean.parseBoolean(props.getProperty(CACHE_COMPRESS_ENABLED)));
+        }
+        if (props.containsKey(CACHE_STORE)) {
+            settings.setCacheStore(props.getProperty(CACHE_STORE).trim().toLowerCase());
+        }
+        if (props.containsKey(CACHE_COMMIT_MAX_DELAY_MS)) {
+            try {
+                settings.setCacheCommitMaxDelayMillis(Integer.parseInt(props.getProperty(CACHE_COMMIT_MAX_DELAY_MS)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", CACHE_COMMIT_MAX_DELAY_MS);
+            }
+        }
         if (props.containsKey(TAG_PROVIDER_NAME)) {
             settings.setTagProviderName(props.getProperty(TAG_PROVIDER_NAME));
         }
         if (props.containsKey(ALLOW_DELETE)) {
             settings.setAllowDelete(Boolean.parseBoolean(props.getProperty(ALLOW_DELETE)));
         }
+        if (props.containsKey(IMPORT_BATCH_SIZE)) {
+            try {
+                settings.setImportBatchSize(Integer.parseInt(props.getProperty(IMPORT_BATCH_SIZE)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", IMPORT_BATCH_SIZE);
+            }
+        }
+        if (props.containsKey(IMPORT_MAX_INFLIGHT)) {
+            try {
+                settings.setMaxInFlightImports(Integer.parseInt(props.getProperty(IMPORT_MAX_INFLIGHT)));
+            } catch (NumberFormatException e) {
+                logger.warn("Invalid {} value, using default", IMPORT_MAX_INFLIGHT);
+            }
+        }
     }
 }
@@ -1,5 +1,8 @@
 package com.theoremsystems.ignition.schematagprovider.gateway.config;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Configuration settings for the Tag Provider module.
  * Loaded from a properties file at startup.
@@ -14,14 +17,37 @@ public class ModuleSettings {
     private String mqttPassword = "";
     private int mqttQos = 1;
     private boolean mqttEnabled = true;
+    private int mqttIngestQueueCapacity = 1000;
+    private int mqttIngestWorkers = 1;
+    private int schemaProcessingLanes = Runtime.getRuntime().availableProcessors();
+    private long updateCoalesceMillis = 500;
+    private int schemaProcessingMaxPending = 1000;      // Schema operations waiting or in progress before ingest blocks
+    private String udtSyncBackend = "json";            // json (tag import) or config (tag configuration save)
+    private boolean memberPatchEnabled = true;
+    private String mqttIngestOverflowPolicy = "BLOCK";   // BLOCK, DROP_OLDEST or DROP_NEWEST
 
     // Cache Configuration (relative to Ignition data directory)
     private String schemaCachePath = "modules/schema-tag-provider/schemas";
     private int cacheScanIntervalSeconds = 30;
+    private boolean cacheWatchEnabled = true;
+    private int cacheWatchDebounceMillis = 500;
+    private int cacheReconcileIntervalSeconds = 300;   // Full scan interval while the watcher is active
+    private int cacheLoadThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private boolean cacheSnapshotEnabled = true;
+    private int cacheMemoryBudgetMb = 0;                // 0 keeps every parsed schema in memory
+    private boolean cacheCompressEnabled = false;
+    private String cacheStore = "directory";            // directory (one file per schema) or segment
+    private int cacheCommitMaxDelayMillis = 5;          // How long a write waits to share a durability flush
 
     // Tag Provider Configuration
-    private String tagProviderName = "default";
+    private String tagProviderName = "default";         // One provider, or a comma-separated list
     private boolean allowDelete = true;
+    private int importBatchSize = 100;
+    private int maxInFlightImports = 4;
+    private boolean syncJournalEnabled = true;
+    private int retryInitialBackoffSeconds = 2;         // Delay before the first retry of a failed UDT sync
+    private int retryMaxBackoffSeconds = 300;           // Upper bound on the delay between retries
+    private int driftReconcileIntervalSeconds = 3600;   // Compare provider UDTs with schemas (0 disables)
 
     public String getMqttBrokerUrl() {
         return mqttBrokerUrl;
@@ -79,6 +105,70 @@ public class ModuleSettings {
         this.mqttEnabled = mqttEnabled;
     }
 
+    public int getMqttIngestQueueCapacity() {
+        return mqttIngestQueueCapacity;
+    }
+
+    public void setMqttIngestQueueCapacity(int mqttIngestQueueCapacity) {
+        this.mqttIngestQueueCapacity = mqttIngestQueueCapacity;
+    }
+
+    public int getMqttIngestWorkers() {
+        return mqttIngestWorkers;
+    }
+
+    public void setMqttIngestWorkers(int mqttIngestWorkers) {
+        this.mqttIngestWorkers = mqttIngestWorkers;
+    }
+
+    public String getMqttIngestOverflowPolicy() {
+        return mqttIngestOverflowPolicy;
+    }
+
+    public void setMqttIngestOverflowPolicy(String mqttIngestOverflowPolicy) {
+        this.mqttIngestOverflowPolicy = mqttIngestOverflowPolicy;
+    }
+
+    public int getSchemaProcessingLanes() {
+        return schemaProcessingLanes;
+    }
+
+    public void setSchemaProcessingLanes(int schemaProcessingLanes) {
+        this.schemaProcessingLanes = schemaProcessingLanes;
+    }
+
+    public int getSchemaProcessingMaxPending() {
+        return schemaProcessingMaxPending;
+    }
+
+    public void setSchemaProcessingMaxPending(int schemaProcessingMaxPending) {
+        this.schemaProcessingMaxPending = schemaProcessingMaxPending;
+    }
+
+    public long getUpdateCoalesceMillis() {
+        return updateCoalesceMillis;
+    }
+
+    public void setUpdateCoalesceMillis(long updateCoalesceMillis) {
+        this.updateCoalesceMillis = updateCoalesceMillis;
+    }
+
+    public String getUdtSyncBackend() {
+        return udtSyncBackend;
+    }
+
+    public void setUdtSyncBackend(String udtSyncBackend) {
+        this.udtSyncBackend = udtSyncBackend;
+    }
+
+    public boolean isMemberPatchEnabled() {
+        return memberPatchEnabled;
+    }
+
+    public void setMemberPatchEnabled(boolean memberPatchEnabled) {
+        this.memberPatchEnabled = memberPatchEnabled;
+    }
+
     public String getSchemaCachePath() {
         return schemaCachePath;
     }
@@ -95,6 +185,78 @@ public class ModuleSettings {
         this.cacheScanIntervalSeconds = cacheScanIntervalSeconds;
     }
 
+    public boolean isCacheWatchEnabled() {
+        return cacheWatchEnabled;
+    }
+
+    public void setCacheWatchEnabled(boolean cacheWatchEnabled) {
+        this.cacheWatchEnabled = cacheWatchEnabled;
+    }
+
+    public int getCacheWatchDebounceMillis() {
+        return cacheWatchDebounceMillis;
+    }
+
+    public void setCacheWatchDebounceMillis(int cacheWatchDebounceMillis) {
+        this.cacheWatchDebounceMillis = cacheWatchDebounceMillis;
+    }
+
+    public int getCacheReconcileIntervalSeconds() {
+        return cacheReconcileIntervalSeconds;
+    }
+
+    public void setCacheReconcileIntervalSeconds(int cacheReconcileIntervalSeconds) {
+        this.cacheReconcileIntervalSeconds = cacheReconcileIntervalSeconds;
+    }
+
+    public int getCacheLoadThreads() {
+        return cacheLoadThreads;
+    }
+
+    public void setCacheLoadThreads(int cacheLoadThreads) {
+        this.cacheLoadThreads = cacheLoadThreads;
+    }
+
+    public boolean isCacheSnapshotEnabled() {
+        return cacheSnapshotEnabled;
+    }
+
+    public void setCacheSnapshotEnabled(boolean cacheSnapshotEnabled) {
+        this.cacheSnapshotEnabled = cacheSnapshotEnabled;
+    }
+
+    public int getCacheMemoryBudgetMb() {
+        return cacheMemoryBudgetMb;
+    }
+
+    public void setCacheMemoryBudgetMb(int cacheMemoryBudgetMb) {
+        this.cacheMemoryBudgetMb = cacheMemoryBudgetMb;
+    }
+
+    public boolean isCacheCompressEnabled() {
+        return cacheCompressEnabled;
+    }
+
+    public void setCacheCompressEnabled(boolean cacheCompressEnabled) {
+        this.cacheCompressEnabled = cacheCompressEnabled;
+    }
+
+    public String getCacheStore() {
+        return cacheStore;
+    }
+
+    public void setCacheStore(String cacheStore) {
+        this.cacheStore = cacheStore;
+    }
+
+    public int getCacheCommitMaxDelayMillis() {
+        return cacheCommitMaxDelayMillis;
+    }
+
+    public void setCacheCommitMaxDelayMillis(int cacheCommitMaxDelayMillis) {
+        this.cacheCommitMaxDelayMillis = cacheCommitMaxDelayMillis;
+    }
+
     public String getTagProviderName() {
         return tagProviderName;
     }
@@ -103,6 +265,26 @@ public class ModuleSettings {
         this.tagProviderName = tagProviderName;
     }
 
+    /**
+     * Get the target tag providers: the comma-separated entries of the provider name, trimmed and without
+     * duplicates. Falls back to "default" if none are configured.
+     */
+    public List<String> getTagProviderNames() {
+        List<String> names = new ArrayList<>();
+        if (tagProviderName != null) {
+            for (String name : tagProviderName.split(",")) {
+                String trimmed = name.trim();
+                if (!trimmed.isEmpty() && !names.contains(trimmed)) {
+                    names.add(trimmed);
+                }
+            }
+        }
+        if (names.isEmpty()) {
+            names.add("default");
+        }
+        return names;
+    }
+
     public boolean isAllowDelete() {
         return allowDelete;
     }
@@ -111,6 +293,54 @@ public class ModuleSettings {
         this.allowDelete = allowDelete;
     }
 
+    public int getImportBatchSize() {
+        return importBatchSize;
+    }
+
+    public void setImportBatchSize(int importBatchSize) {
+        this.importBatchSize = importBatchSize;
+    }
+
+    public int getMaxInFlightImports() {
+        return maxInFlightImports;
+    }
+
+    public void setMaxInFlightImports(int maxInFlightImports) {
+        this.maxInFlightImports = maxInFlightImports;
+    }
+
+    public boolean isSyncJournalEnabled() {
+        return syncJournalEnabled;
+    }
+
+    public void setSyncJournalEnabled(boolean syncJournalEnabled) {
+        this.syncJournalEnabled = syncJournalEnabled;
+    }
+
+    public int getRetryInitialBackoffSeconds() {
+        return retryInitialBackoffSeconds;
+    }
+
+    public void setRetryInitialBackoffSeconds(int retryInitialBackoffSeconds) {
+        this.retryInitialBackoffSeconds = retryInitialBackoffSeconds;
+    }
+
+    public int getRetryMaxBackoffSeconds() {
+        return retryMaxBackoffSeconds;
+    }
+
+    public void setRetryMaxBackoffSeconds(int retryMaxBackoffSeconds) {
+        this.retryMaxBackoffSeconds = retryMaxBackoffSeconds;
+    }
+
+    public int getDriftReconcileIntervalSeconds() {
+        return driftReconcileIntervalSeconds;
+    }
+
+    public void setDriftReconcileIntervalSeconds(int driftReconcileIntervalSeconds) {
+        this.driftReconcileIntervalSeconds = driftReconcileIntervalSeconds;
+    }
+
     @Override
     public String toString() {
         return "ModuleSettings{" +
@@ -118,10 +348,33 @@ public class ModuleSettings {
                 ", mqttClientId='" + mqttClientId + '\'' +
                 ", mqttTopic='" + mqttTopic + '\'' +
                 ", mqttEnabled=" + mqttEnabled +
+                ", mqttIngestQueueCapacity=" + mqttIngestQueueCapacity +
+                ", mqttIngestWorkers=" + mqttIngestWorkers +
+                ", mqttIngestOverflowPolicy='" + mqttIngestOverflowPolicy + '\'' +
+                ", schemaProcessingLanes=" + schemaProcessingLanes +
+                ", schemaProcessingMaxPending=" + schemaProcessingMaxPending +
+                ", updateCoalesceMillis=" + updateCoalesceMillis +
+                ", udtSyncBackend='" + udtSyncBackend + '\'' +
+                ", memberPatchEnabled=" + memberPatchEnabled +
                 ", schemaCachePath='" + schemaCachePath + '\'' +
                 ", cacheScanIntervalSeconds=" + cacheScanIntervalSeconds +
+                ", cacheWatchEnabled=" + cacheWatchEnabled +
+                ", cacheWatchDebounceMillis=" + cacheWatchDebounceMillis +
+                ", cacheReconcileIntervalSeconds=" + cacheReconcileIntervalSeconds +
+                ", cacheLoadThreads=" + cacheLoadThreads +
+                ", cacheSnapshotEnabled=" + cacheSnapshotEnabled +
+                ", cacheMemoryBudgetMb=" + cacheMemoryBudgetMb +
+                ", cacheCompressEnabled=" + cacheCompressEnabled +
+                ", cacheStore='" + cacheStore + '\'' +
+                ", cacheCommitMaxDelayMillis=" + cacheCommitMaxDelayMillis +
                 ", tagProviderName='" + tagProviderName + '\'' +
                 ", allowDelete=" + allowDelete +
+                ", importBatchSize=" + importBatchSize +
+                ", maxInFlightImports=" + maxInFlightImports +
+                ", syncJournalEnabled=" + syncJournalEnabled +
+                ", retryInitialBackoffSeconds=" + retryInitialBackoffSeconds +
+                ", retryMaxBackoffSeconds=" + retryMaxBackoffSeconds +
+                ", driftReconcileIntervalSeconds=" + driftReconcileIntervalSeconds +
                 '}';
     }
 }
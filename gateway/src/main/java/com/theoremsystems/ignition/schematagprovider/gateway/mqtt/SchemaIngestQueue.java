@@ -0,0 +1,282 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.mqtt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded work queue between the MQTT client and the schema handler.
+ * <p>
+ * Messages are queued on the MQTT callback thread and handed to the handler by worker threads, so parsing, disk
+ * writes and UDT imports never delay the client's keepalives. The handler blocks the workers once too much work is
+ * outstanding, so a backlog fills this queue. When the queue is full the configured {@link OverflowPolicy} decides
+ * whether the callback thread waits or a message is dropped. Messages still queued on {@link #stop()} are handed
+ * to the handler before the workers exit, since the broker has already been told they were received.
+ * <p>
+ * Each worker owns its own partition of the queue and messages are routed to a partition by schema name, so
+ * updates and deletions of one schema are always handed to the handler in arrival order.
+ */
+public class SchemaIngestQueue implements SchemaMessageHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIngestQueue.class);
+
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    // Queued behind every message on stop; the worker exits when it takes it
+    private static final IngestTask STOP = new IngestTask("", null);
+
+    private final SchemaMessageHandler handler;
+    private final List<BlockingQueue<IngestTask>> partitions = new ArrayList<>();
+    private final int workerCount;
+    private final OverflowPolicy overflowPolicy;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running = false;
+
+    // Metrics
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final AtomicLong processedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public SchemaIngestQueue(SchemaMessageHandler handler, int capacity, int workerCount, OverflowPolicy overflowPolicy) {
+        this.handler = handler;
+        this.workerCount = Math.max(1, workerCount);
+        this.overflowPolicy = overflowPolicy;
+
+        int partitionCapacity = Math.max(1, (capacity + this.workerCount - 1) / this.workerCount);
+        for (int i = 0; i < this.workerCount; i++) {
+            partitions.add(new ArrayBlockingQueue<>(partitionCapacity));
+        }
+    }
+
+    /**
+     * Start the worker threads.
+     */
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            BlockingQueue<IngestTask> partition = partitions.get(i);
+            Thread worker = new Thread(() -> workLoop(partition), "schema-ingest-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        logger.info("Started schema ingest queue (capacity: {}, workers: {}, overflow: {})",
+                getCapacity(), workerCount, overflowPolicy);
+    }
+
+    /**
+     * Stop accepting messages and wait for the workers to hand the queued ones to the handler. Messages still queued
+     * when the wait times out are discarded.
+     */
+    public void stop() {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STOP_TIMEOUT_SECONDS);
+        try {
+            for (BlockingQueue<IngestTask> partition : partitions) {
+                partition.offer(STOP, remainingNanos(deadline), TimeUnit.NANOSECONDS);
+            }
+            for (Thread worker : workers) {
+                TimeUnit.NANOSECONDS.timedJoin(worker, remainingNanos(deadline));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        workers.clear();
+
+        int discarded = 0;
+        for (BlockingQueue<IngestTask> partition : partitions) {
+            partition.remove(STOP);
+            discarded += partition.size();
+            partition.clear();
+        }
+        if (discarded > 0) {
+            logger.warn("Schema ingest queue did not drain within {} seconds, discarded {} messages",
+                    STOP_TIMEOUT_SECONDS, discarded);
+        }
+        logger.info("Stopped schema ingest queue: {} processed, {} dropped, {} discarded, max depth {}, "
+                        + "avg wait {} ms, max wait {} ms",
+                processedCount.get(), droppedCount.get(), discarded, maxDepth.get(),
+                getAverageWaitMillis(), getMaxWaitMillis());
+    }
+
+    // SchemaMessageHandler implementation
+
+    @Override
+    public void onSchemaReceived(String schemaName, String jsonSchemaContent) {
+        enqueue(new IngestTask(schemaName, jsonSchemaContent));
+    }
+
+    @Override
+    public void onSchemaDeleted(String schemaName) {
+        enqueue(new IngestTask(schemaName, null));
+    }
+
+    @Override
+    public void onConnected() {
+        handler.onConnected();
+    }
+
+    @Override
+    public void onDisconnected(Throwable cause) {
+        handler.onDisconnected(cause);
+    }
+
+    private static long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    private void enqueue(IngestTask task) {
+        if (!running) {
+            drop(task);
+            return;
+        }
+        BlockingQueue<IngestTask> queue = partitionFor(task.schemaName);
+        switch (overflowPolicy) {
+            case BLOCK:
+                try {
+                    queue.put(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    drop(task);
+                }
+                break;
+            case DROP_OLDEST:
+                while (!queue.offer(task)) {
+                    IngestTask oldest = queue.poll();
+                    if (oldest != null) {
+                        drop(oldest);
+                    }
+                }
+                break;
+            case DROP_NEWEST:
+            default:
+                if (!queue.offer(task)) {
+                    drop(task);
+                }
+                break;
+        }
+
+        maxDepth.accumulateAndGet(getQueueDepth(), Math::max);
+    }
+
+    private BlockingQueue<IngestTask> partitionFor(String schemaName) {
+        return partitions.get(Math.floorMod(schemaName.hashCode(), partitions.size()));
+    }
+
+    private void drop(IngestTask task) {
+        droppedCount.incrementAndGet();
+        logger.warn("Schema ingest queue {}, dropped {} for schema: {}", running ? "full" : "stopped",
+                task.isDelete() ? "delete" : "update", task.schemaName);
+    }
+
+    private void workLoop(BlockingQueue<IngestTask> queue) {
+        while (true) {
+            IngestTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (task == STOP) {
+                break;
+            }
+
+            long waitNanos = System.nanoTime() - task.enqueuedNanos;
+            totalWaitNanos.addAndGet(waitNanos);
+            maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            logger.debug("Processing {} for schema {} after {} ms in queue",
+                    task.isDelete() ? "delete" : "update", task.schemaName, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+
+            try {
+                if (task.isDelete()) {
+                    handler.onSchemaDeleted(task.schemaName);
+                } else {
+                    handler.onSchemaReceived(task.schemaName, task.content);
+                }
+            } catch (Exception e) {
+                logger.error("Error processing queued schema message: " + task.schemaName, e);
+            } finally {
+                processedCount.incrementAndGet();
+            }
+        }
+    }
+
+    // Metrics
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (BlockingQueue<IngestTask> partition : partitions) {
+            depth += partition.size();
+        }
+        return depth;
+    }
+
+    private int getCapacity() {
+        int capacity = 0;
+        for (BlockingQueue<IngestTask> partition : partitions) {
+            capacity += partition.size() + partition.remainingCapacity();
+        }
+        return capacity;
+    }
+
+    public int getMaxQueueDepth() {
+        return maxDepth.get();
+    }
+
+    public long getProcessedCount() {
+        return processedCount.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public long getAverageWaitMillis() {
+        long processed = processedCount.get();
+        return processed == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / processed);
+    }
+
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    /**
+     * What to do with a message when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait on the MQTT callback thread until space is available. */
+        BLOCK,
+        /** Drop the oldest queued message to make room. */
+        DROP_OLDEST,
+        /** Drop the incoming message. */
+        DROP_NEWEST
+    }
+
+    private static class IngestTask {
+        private final String schemaName;
+        private final String content;    // null for a delete
+        private final long enqueuedNanos = System.nanoTime();
+
+        IngestTask(String schemaName, String content) {
+            this.schemaName = schemaName;
+            this.content = content;
+        }
+
+        boolean isDelete() {
+            return content == null;
+        }
+    }
+}
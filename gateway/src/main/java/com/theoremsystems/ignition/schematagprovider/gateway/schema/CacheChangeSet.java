@@ -0,0 +1,92 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set of schema names that were added, modified or deleted during a cache reload. Deleted schemas keep their last
+ * model, so the UDT types they defined can still be found.
+ */
+public class CacheChangeSet {
+
+    private final Set<String> added = new HashSet<>();
+    private final Set<String> modified = new HashSet<>();
+    private final Set<String> deleted = new HashSet<>();
+    private final Map<String, SchemaModel> deletedModels = new HashMap<>();
+    private int unchanged;
+
+    public void addAdded(String schemaName) {
+        added.add(schemaName);
+    }
+
+    public void addModified(String schemaName) {
+        modified.add(schemaName);
+    }
+
+    /**
+     * @param lastModel The model the schema had before it was deleted, or null if it could not be read
+     */
+    public void addDeleted(String schemaName, SchemaModel lastModel) {
+        deleted.add(schemaName);
+        if (lastModel != null) {
+            deletedModels.put(schemaName, lastModel);
+        }
+    }
+
+    public void incrementUnchanged() {
+        unchanged++;
+    }
+
+    public Set<String> getAdded() {
+        return Collections.unmodifiableSet(added);
+    }
+
+    public Set<String> getModified() {
+        return Collections.unmodifiableSet(modified);
+    }
+
+    public Set<String> getDeleted() {
+        return Collections.unmodifiableSet(deleted);
+    }
+
+    /**
+     * Get the last model of a deleted schema, or null if it could not be read.
+     */
+    public SchemaModel getDeletedModel(String schemaName) {
+        return deletedModels.get(schemaName);
+    }
+
+    /**
+     * Get the names of all schemas that were added or modified.
+     */
+    public Set<String> getChanged() {
+        Set<String> changed = new HashSet<>(added);
+        changed.addAll(modified);
+        return changed;
+    }
+
+    public int getUnchangedCount() {
+        return unchanged;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && modified.isEmpty() && deleted.isEmpty();
+    }
+
+    public int size() {
+        return added.size() + modified.size() + deleted.size();
+    }
+
+    @Override
+    public String toString() {
+        return "CacheChangeSet{" +
+                "added=" + added +
+                ", modified=" + modified +
+                ", deleted=" + deleted +
+                ", unchanged=" + unchanged +
+                '}';
+    }
+}
@@ -0,0 +1,165 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the schema cache directory for file changes using a {@link WatchService}.
+ * <p>
+ * Events are coalesced by schema name and debounced: the listener is notified once the directory has been quiet
+ * for the debounce interval, so a burst of writes to the same file results in a single notification.
+ */
+public class CacheDirectoryWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheDirectoryWatcher.class);
+
+    // Upper bound on how long a continuous stream of events can delay a notification
+    private static final int MAX_DEBOUNCE_MULTIPLIER = 10;
+
+    private final Path directory;
+    private final long debounceMillis;
+    private final Listener listener;
+
+    private WatchService watchService;
+    private Thread watchThread;
+    private volatile boolean running = false;
+
+    public CacheDirectoryWatcher(Path directory, long debounceMillis, Listener listener) {
+        this.directory = directory;
+        this.debounceMillis = Math.max(debounceMillis, 1);
+        this.listener = listener;
+    }
+
+    /**
+     * Register the watch on the cache directory and start the watcher thread.
+     *
+     * @throws IOException if the file system does not support watching the directory
+     */
+    public void start() throws IOException {
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+
+        running = true;
+        watchThread = new Thread(this::watchLoop, "schema-cache-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+
+        logger.info("Watching schema cache directory: {} (debounce: {} ms)", directory, debounceMillis);
+    }
+
+    /**
+     * Stop watching the cache directory.
+     */
+    public void stop() {
+        running = false;
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn("Error closing cache directory watch service", e);
+            }
+        }
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void watchLoop() {
+        try {
+            while (running) {
+                // Block until the first event of a burst arrives
+                WatchKey key = watchService.take();
+                Set<String> changed = new HashSet<>();
+                boolean overflow = drainEvents(key, changed);
+
+                // Keep collecting until the directory is quiet for the debounce interval
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceMillis * MAX_DEBOUNCE_MULTIPLIER);
+                while (running && System.nanoTime() < deadline) {
+                    WatchKey next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    overflow |= drainEvents(next, changed);
+                }
+
+                dispatch(changed, overflow);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopping
+        } catch (Exception e) {
+            logger.error("Cache directory watcher stopped unexpectedly", e);
+        } finally {
+            running = false;
+        }
+    }
+
+    private boolean drainEvents(WatchKey key, Set<String> changed) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            Path file = (Path) event.context();
+            String filename = file.getFileName().toString();
+            // Ignore hidden and temporary files
+            if (filename.endsWith(".json") && !filename.startsWith(".")) {
+                changed.add(filename.substring(0, filename.length() - ".json".length()));
+            }
+        }
+        if (!key.reset()) {
+            logger.warn("Cache directory watch key is no longer valid: {}", directory);
+            overflow = true;
+        }
+        return overflow;
+    }
+
+    private void dispatch(Set<String> changed, boolean overflow) {
+        try {
+            if (overflow) {
+                logger.info("Cache directory watch overflowed, requesting full reconcile");
+                listener.onOverflow();
+            } else if (!changed.isEmpty()) {
+                logger.debug("Cache directory changes detected: {}", changed);
+                listener.onSchemaFilesChanged(changed);
+            }
+        } catch (Exception e) {
+            logger.error("Error handling cache directory changes", e);
+        }
+    }
+
+    /**
+     * Callback interface for cache directory changes.
+     */
+    public interface Listener {
+
+        /**
+         * Called with the names of schemas whose files were created, modified or deleted.
+         */
+        void onSchemaFilesChanged(Set<String> schemaNames);
+
+        /**
+         * Called when events were lost and a full rescan of the directory is required.
+         */
+        void onOverflow();
+    }
+}
@@ -0,0 +1,212 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schema store that keeps each schema as a {@code <name>.json} file in a directory.
+ * This is the original cache layout; files can be added, edited or removed by hand.
+ * <p>
+ * Writes are crash-safe: content goes to a hidden {@code .<name>.json.tmp} file that is synced and then renamed
+ * over the schema file, so a crash leaves either the old or the new content. Renames from concurrent writes are
+ * group-committed with a single directory sync.
+ */
+public class DirectorySchemaStore implements SchemaStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectorySchemaStore.class);
+
+    public static final String NAME = "directory";
+
+    static final String FILE_EXTENSION = ".json";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final GroupCommitter<PendingFile> committer;
+    private volatile boolean directorySyncSupported = true;
+
+    public DirectorySchemaStore(Path directory) {
+        this(directory, 0);
+    }
+
+    /**
+     * @param commitDelayMillis How long a write waits for concurrent writes to share its directory sync
+     */
+    public DirectorySchemaStore(Path directory, long commitDelayMillis) {
+        this.directory = directory;
+        this.committer = new GroupCommitter<>(commitDelayMillis, this::commitBatch);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+
+        // Temporary files left by a crash never replaced their schema file
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                ".*" + FILE_EXTENSION + TEMP_FILE_SUFFIX)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+                logger.info("Removed incomplete schema write: {}", file);
+            }
+        }
+    }
+
+    @Override
+    public Map<String, SchemaFileInfo> list() throws IOException {
+        Map<String, SchemaFileInfo> entries = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+            for (Path file : stream) {
+                String schemaName = toSchemaName(file);
+                entries.put(schemaName, statFile(schemaName, file, null));
+            }
+        }
+        return entries;
+    }
+
+    @Override
+    public SchemaFileInfo stat(String schemaName) throws IOException {
+        Path file = resolve(schemaName);
+        try {
+            return statFile(schemaName, file, null);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public byte[] read(String schemaName) throws IOException {
+        return Files.readAllBytes(resolve(schemaName));
+    }
+
+    @Override
+    public SchemaFileInfo write(String schemaName, byte[] content) throws IOException {
+        Path file = resolve(schemaName);
+        Path tempFile = directory.resolve("." + schemaName + FILE_EXTENSION + TEMP_FILE_SUFFIX);
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        PendingFile pending = new PendingFile(tempFile, file);
+        try {
+            committer.commit(pending);
+        } finally {
+            if (pending.error != null || !pending.renamed) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        if (pending.error != null) {
+            throw pending.error;
+        }
+        return statFile(schemaName, file, ContentHash.sha256(content));
+    }
+
+    @Override
+    public boolean delete(String schemaName) throws IOException {
+        return Files.deleteIfExists(resolve(schemaName));
+    }
+
+    @Override
+    public boolean storesSchemaFiles() {
+        return true;
+    }
+
+    @Override
+    public GroupCommitter<?> getCommitter() {
+        return committer;
+    }
+
+    @Override
+    public void close() {
+        // Nothing held open
+    }
+
+    /**
+     * Get the file a schema is stored in.
+     */
+    public Path resolve(String schemaName) {
+        return directory.resolve(schemaName + FILE_EXTENSION);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    static String toSchemaName(Path file) {
+        String filename = file.getFileName().toString();
+        return filename.substring(0, filename.lastIndexOf('.'));
+    }
+
+    /**
+     * Rename each synced temporary file into place, then sync the directory once so the renames are durable.
+     */
+    private void commitBatch(List<PendingFile> batch) throws IOException {
+        for (PendingFile pending : batch) {
+            try {
+                try {
+                    Files.move(pending.tempFile, pending.target,
+                            StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(pending.tempFile, pending.target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                pending.renamed = true;
+            } catch (IOException e) {
+                pending.error = e;
+            }
+        }
+        syncDirectory();
+    }
+
+    private void syncDirectory() {
+        if (!directorySyncSupported) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms (e.g. Windows) cannot open a directory; renames there are journaled by the file system
+            directorySyncSupported = false;
+            logger.debug("Directory sync not supported for {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private SchemaFileInfo statFile(String schemaName, Path file, String contentHash) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new SchemaFileInfo(schemaName, attributes.lastModifiedTime().toMillis(), attributes.size(), contentHash);
+    }
+
+    private static final class PendingFile {
+        final Path tempFile;
+        final Path target;
+        boolean renamed;
+        IOException error;
+
+        PendingFile(Path tempFile, Path target) {
+            this.tempFile = tempFile;
+            this.target = target;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coalesces durability flushes from concurrent writers into group commits.
+ * <p>
+ * Each writer hands its item to {@link #commit(Object)} and blocks until the item has been committed. The first
+ * writer to arrive becomes the leader: it waits up to the maximum delay for others to join, then commits everything
+ * queued in a single {@link BatchAction} call. Writers that arrive while a commit is running are picked up by the
+ * next one, so bursts are batched even with no delay.
+ *
+ * @param <T> The item committed for each write
+ */
+public class GroupCommitter<T> {
+
+    /**
+     * Makes a batch of writes durable. A failure fails every write in the batch.
+     */
+    @FunctionalInterface
+    public interface BatchAction<T> {
+        void commit(List<T> batch) throws IOException;
+    }
+
+    private final BatchAction<T> action;
+    private final long maxDelayNanos;
+    private final Object lock = new Object();
+    private List<Pending<T>> pending = new ArrayList<>();
+    private boolean committing = false;
+
+    private final AtomicLong batchCount = new AtomicLong();
+    private final AtomicLong committedCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * @param maxDelayMillis How long a commit waits for more writes to join it (0 commits immediately)
+     * @param action         Makes a batch durable
+     */
+    public GroupCommitter(long maxDelayMillis, BatchAction<T> action) {
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMillis));
+        this.action = action;
+    }
+
+    /**
+     * Queue an item and wait until it has been committed.
+     *
+     * @throws IOException if the batch containing the item failed to commit
+     */
+    public void commit(T item) throws IOException {
+        long startNanos = System.nanoTime();
+        Pending<T> entry = new Pending<>(item);
+        synchronized (lock) {
+            pending.add(entry);
+        }
+
+        while (true) {
+            List<Pending<T>> batch;
+            synchronized (lock) {
+                while (!entry.done && committing) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted waiting for group commit");
+                    }
+                }
+                if (entry.done) {
+                    break;
+                }
+                committing = true;
+            }
+
+            // This writer leads the next commit; give a burst the chance to join it
+            if (maxDelayNanos > 0) {
+                LockSupport.parkNanos(maxDelayNanos);
+            }
+            synchronized (lock) {
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+
+            IOException error = null;
+            try {
+                List<T> items = new ArrayList<>(batch.size());
+                for (Pending<T> queued : batch) {
+                    items.add(queued.item);
+                }
+                action.commit(items);
+            } catch (IOException e) {
+                error = e;
+            } catch (RuntimeException e) {
+                error = new IOException(e);
+            }
+            batchCount.incrementAndGet();
+            committedCount.addAndGet(batch.size());
+
+            synchronized (lock) {
+                for (Pending<T> queued : batch) {
+                    queued.error = error;
+                    queued.done = true;
+                }
+                committing = false;
+                lock.notifyAll();
+            }
+        }
+
+        long latencyNanos = System.nanoTime() - startNanos;
+        totalLatencyNanos.addAndGet(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+
+        if (entry.error != null) {
+            throw new IOException("Group commit failed: " + entry.error.getMessage(), entry.error);
+        }
+    }
+
+    /**
+     * Get the number of commits performed.
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    /**
+     * Get the number of writes committed.
+     */
+    public long getCommittedCount() {
+        return committedCount.get();
+    }
+
+    /**
+     * Get the average number of writes per commit.
+     */
+    public double getAverageBatchSize() {
+        long batches = batchCount.get();
+        return batches == 0 ? 0 : (double) committedCount.get() / batches;
+    }
+
+    /**
+     * Get the average time a writer waited for its commit, in milliseconds.
+     */
+    public double getAverageLatencyMillis() {
+        long committed = committedCount.get();
+        return committed == 0 ? 0 : totalLatencyNanos.get() / 1_000_000.0 / committed;
+    }
+
+    /**
+     * Get the longest time a writer waited for its commit, in milliseconds.
+     */
+    public long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    private static final class Pending<T> {
+        final T item;
+        boolean done;
+        IOException error;
+
+        Pending(T item) {
+            this.item = item;
+        }
+    }
+}
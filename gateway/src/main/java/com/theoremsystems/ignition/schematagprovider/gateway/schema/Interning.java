@@ -0,0 +1,40 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Canonical instances of the short strings that repeat across schemas: types, formats, property and type names.
+ * <p>
+ * Uses a module-owned pool rather than {@link String#intern()} so the strings are released with the module.
+ * Entries are weakly held and disappear once no schema uses them.
+ */
+final class Interning {
+
+    private static final Map<String, WeakReference<String>> POOL = new WeakHashMap<>();
+
+    private Interning() {
+    }
+
+    static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        synchronized (POOL) {
+            WeakReference<String> ref = POOL.get(value);
+            String existing = ref != null ? ref.get() : null;
+            if (existing != null) {
+                return existing;
+            }
+            POOL.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+
+    static int size() {
+        synchronized (POOL) {
+            return POOL.size();
+        }
+    }
+}
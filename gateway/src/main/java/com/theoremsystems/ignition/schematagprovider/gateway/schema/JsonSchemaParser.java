@@ -36,23 +36,23 @@ public class JsonSchemaParser {
     }
 
     private SchemaModel parseSchema(String defaultName, JsonObject root) {
-        SchemaModel schema = new SchemaModel();
+        SchemaModel.Builder schema = SchemaModel.builder();
 
         // Get name from title or use default
         if (root.has("title")) {
-            schema.setName(root.get("title").getAsString());
+            schema.name(root.get("title").getAsString());
         } else {
-            schema.setName(defaultName);
+            schema.name(defaultName);
         }
 
         // Get $id if present
         if (root.has("$id")) {
-            schema.setId(root.get("$id").getAsString());
+            schema.id(root.get("$id").getAsString());
         }
 
         // Get description
         if (root.has("description")) {
-            schema.setDescription(root.get("description").getAsString());
+            schema.description(root.get("description").getAsString());
         }
 
         // Parse required fields
@@ -79,42 +79,39 @@ public class JsonSchemaParser {
             parseAllOf(schema, root.getAsJsonArray("allOf"));
         }
 
-        logger.debug("Parsed schema: {}", schema);
-        return schema;
+        SchemaModel model = schema.build();
+        logger.debug("Parsed schema: {}", model);
+        return model;
     }
 
     private PropertyDefinition parseProperty(String name, JsonObject propDef) {
-        PropertyDefinition property = new PropertyDefinition();
-        property.setName(name);
+        PropertyDefinition.Builder property = PropertyDefinition.builder(name);
 
         // Handle $ref
         if (propDef.has("$ref")) {
             String ref = propDef.get("$ref").getAsString();
-            property.setRefType(extractRefName(ref));
-            property.setType("object"); // References are treated as objects
-            return property;
+            property.refType(extractRefName(ref));
+            property.type("object"); // References are treated as objects
+            return property.build();
         }
 
         // Get type
-        if (propDef.has("type")) {
-            property.setType(propDef.get("type").getAsString());
-        } else {
-            property.setType("string"); // Default to string
-        }
+        String type = propDef.has("type") ? propDef.get("type").getAsString() : "string"; // Default to string
+        property.type(type);
 
         // Get format
         if (propDef.has("format")) {
-            property.setFormat(propDef.get("format").getAsString());
+            property.format(propDef.get("format").getAsString());
         }
 
         // Get description
         if (propDef.has("description")) {
-            property.setDescription(propDef.get("description").getAsString());
+            property.description(propDef.get("description").getAsString());
         }
 
         // Get default value
         if (propDef.has("default")) {
-            property.setDefaultValue(extractDefaultValue(propDef.get("default")));
+            property.defaultValue(extractDefaultValue(propDef.get("default")));
         }
 
         // Handle enum
@@ -123,11 +120,11 @@ public class JsonSchemaParser {
             for (JsonElement e : propDef.getAsJsonArray("enum")) {
                 enumValues.add(e.getAsString());
             }
-            property.setEnumValues(enumValues);
+            property.enumValues(enumValues);
         }
 
         // Handle nested object
-        if ("object".equals(property.getType()) && propDef.has("properties")) {
+        if ("object".equals(type) && propDef.has("properties")) {
             JsonObject nestedProps = propDef.getAsJsonObject("properties");
             for (Map.Entry<String, JsonElement> entry : nestedProps.entrySet()) {
                 PropertyDefinition nestedProp = parseProperty(entry.getKey(), entry.getValue().getAsJsonObject());
@@ -136,23 +133,23 @@ public class JsonSchemaParser {
         }
 
         // Handle array items
-        if ("array".equals(property.getType()) && propDef.has("items")) {
+        if ("array".equals(type) && propDef.has("items")) {
             JsonObject items = propDef.getAsJsonObject("items");
             PropertyDefinition itemsDef = parseProperty("items", items);
-            property.setItemsDefinition(itemsDef);
+            property.itemsDefinition(itemsDef);
         }
 
-        return property;
+        return property.build();
     }
 
-    private void parseAllOf(SchemaModel schema, JsonArray allOf) {
+    private void parseAllOf(SchemaModel.Builder schema, JsonArray allOf) {
         for (JsonElement element : allOf) {
             JsonObject obj = element.getAsJsonObject();
 
             // Handle $ref for parent type
             if (obj.has("$ref")) {
                 String ref = obj.get("$ref").getAsString();
-                schema.setParentType(extractRefName(ref));
+                schema.parentType(extractRefName(ref));
             }
 
             // Handle inline properties
@@ -197,7 +194,7 @@ public class JsonSchemaParser {
             if (element.getAsJsonPrimitive().isBoolean()) {
                 return element.getAsBoolean();
             } else if (element.getAsJsonPrimitive().isNumber()) {
-                return element.getAsNumber();
+                return element.getAsBigDecimal();
             } else {
                 return element.getAsString();
             }
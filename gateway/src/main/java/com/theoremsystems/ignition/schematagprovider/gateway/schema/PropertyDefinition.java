@@ -1,111 +1,99 @@
 package com.theoremsystems.ignition.schematagprovider.gateway.schema;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Represents a single property/field from a JSON Schema.
+ * <p>
+ * Instances are immutable and created with a {@link Builder}. Names, types and formats are interned, and
+ * nested properties and enum values are kept in arrays. Equality is structural, and identical subtrees are shared
+ * through {@link PropertyDefinitionPool}.
  */
-public class PropertyDefinition {
+public final class PropertyDefinition {
 
-    private String name;
-    private String type;           // string, integer, number, boolean, object, array
-    private String format;         // date-time, email, uri, etc.
-    private String description;
-    private Object defaultValue;
-    private String refType;        // For $ref references to other schemas
+    private static final PropertyDefinition[] NO_PROPERTIES = new PropertyDefinition[0];
+
+    private final String name;
+    private final String type;           // string, integer, number, boolean, object, array
+    private final String format;         // date-time, email, uri, etc.
+    private final String description;
+    private final Object defaultValue;
+    private final String refType;        // For $ref references to other schemas
 
     // For nested objects
-    private List<PropertyDefinition> nestedProperties = new ArrayList<>();
+    private final PropertyDefinition[] nestedProperties;
 
     // For arrays
-    private PropertyDefinition itemsDefinition;
-
-    // For enums
-    private List<String> enumValues;
-
-    public PropertyDefinition() {
+    private final PropertyDefinition itemsDefinition;
+
+    // For enums, null if the property has no enum
+    private final String[] enumValues;
+
+    private final int hash;
+
+    private PropertyDefinition(Builder builder) {
+        this.name = builder.name;
+        this.type = builder.type;
+        this.format = builder.format;
+        this.description = builder.description;
+        this.defaultValue = builder.defaultValue;
+        this.refType = builder.refType;
+        this.nestedProperties = builder.nestedProperties.isEmpty()
+                ? NO_PROPERTIES
+                : builder.nestedProperties.toArray(new PropertyDefinition[0]);
+        this.itemsDefinition = builder.itemsDefinition;
+        this.enumValues = builder.enumValues;
+        this.hash = computeHash();
     }
 
-    public PropertyDefinition(String name, String type) {
-        this.name = name;
-        this.type = type;
+    public static Builder builder(String name) {
+        return new Builder().name(name);
     }
 
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public String getType() {
         return type;
     }
 
-    public void setType(String type) {
-        this.type = type;
-    }
-
     public String getFormat() {
         return format;
     }
 
-    public void setFormat(String format) {
-        this.format = format;
-    }
-
     public String getDescription() {
         return description;
     }
 
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
     public Object getDefaultValue() {
         return defaultValue;
     }
 
-    public void setDefaultValue(Object defaultValue) {
-        this.defaultValue = defaultValue;
-    }
-
     public String getRefType() {
         return refType;
     }
 
-    public void setRefType(String refType) {
-        this.refType = refType;
-    }
-
+    /**
+     * Get the nested properties as an unmodifiable list.
+     */
     public List<PropertyDefinition> getNestedProperties() {
-        return nestedProperties;
-    }
-
-    public void setNestedProperties(List<PropertyDefinition> nestedProperties) {
-        this.nestedProperties = nestedProperties;
-    }
-
-    public void addNestedProperty(PropertyDefinition property) {
-        this.nestedProperties.add(property);
+        return Collections.unmodifiableList(Arrays.asList(nestedProperties));
     }
 
     public PropertyDefinition getItemsDefinition() {
         return itemsDefinition;
     }
 
-    public void setItemsDefinition(PropertyDefinition itemsDefinition) {
-        this.itemsDefinition = itemsDefinition;
-    }
-
+    /**
+     * Get the enum values as an unmodifiable list, or null if the property has no enum.
+     */
     public List<String> getEnumValues() {
-        return enumValues;
-    }
-
-    public void setEnumValues(List<String> enumValues) {
-        this.enumValues = enumValues;
+        return enumValues == null ? null : Collections.unmodifiableList(Arrays.asList(enumValues));
     }
 
     public boolean isObject() {
@@ -121,11 +109,66 @@ public class PropertyDefinition {
     }
 
     public boolean hasNestedProperties() {
-        return nestedProperties != null && !nestedProperties.isEmpty();
+        return nestedProperties.length > 0;
     }
 
     public boolean hasEnum() {
-        return enumValues != null && !enumValues.isEmpty();
+        return enumValues != null && enumValues.length > 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PropertyDefinition)) {
+            return false;
+        }
+        PropertyDefinition other = (PropertyDefinition) o;
+        // Children are canonical instances, so the array comparisons mostly come down to reference checks
+        return hash == other.hash
+                && Objects.equals(name, other.name)
+                && Objects.equals(type, other.type)
+                && Objects.equals(format, other.format)
+                && Objects.equals(refType, other.refType)
+                && Objects.equals(description, other.description)
+                && sameValue(defaultValue, other.defaultValue)
+                && Arrays.equals(nestedProperties, other.nestedProperties)
+                && Objects.equals(itemsDefinition, other.itemsDefinition)
+                && Arrays.equals(enumValues, other.enumValues);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    private int computeHash() {
+        int result = Objects.hash(name, type, format, refType, description, itemsDefinition);
+        result = 31 * result + (defaultValue != null ? valueKey(defaultValue).hashCode() : 0);
+        result = 31 * result + Arrays.hashCode(nestedProperties);
+        result = 31 * result + Arrays.hashCode(enumValues);
+        return result;
+    }
+
+    private static boolean sameValue(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return valueKey(a).equals(valueKey(b));
+    }
+
+    /**
+     * Compare default values by type and text, so numbers parsed separately (e.g. lazily parsed) are equal.
+     */
+    private static String valueKey(Object value) {
+        if (value instanceof Number) {
+            return "n:" + value;
+        }
+        if (value instanceof Boolean) {
+            return "b:" + value;
+        }
+        return "s:" + value;
     }
 
     @Override
@@ -137,4 +180,88 @@ public class PropertyDefinition {
                 ", refType='" + refType + '\'' +
                 '}';
     }
+
+    /**
+     * Collects the values of a {@link PropertyDefinition}.
+     */
+    public static final class Builder {
+
+        private String name;
+        private String type;
+        private String format;
+        private String description;
+        private Object defaultValue;
+        private String refType;
+        private final List<PropertyDefinition> nestedProperties = new ArrayList<>();
+        private PropertyDefinition itemsDefinition;
+        private String[] enumValues;
+
+        private Builder() {
+        }
+
+        public Builder name(String name) {
+            this.name = Interning.intern(name);
+            return this;
+        }
+
+        public Builder type(String type) {
+            this.type = Interning.intern(type);
+            return this;
+        }
+
+        public Builder format(String format) {
+            this.format = Interning.intern(format);
+            return this;
+        }
+
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        public Builder defaultValue(Object defaultValue) {
+            this.defaultValue = defaultValue;
+            return this;
+        }
+
+        public Builder refType(String refType) {
+            this.refType = Interning.intern(refType);
+            return this;
+        }
+
+        public Builder addNestedProperty(PropertyDefinition property) {
+            this.nestedProperties.add(property);
+            return this;
+        }
+
+        public Builder nestedProperties(List<PropertyDefinition> nestedProperties) {
+            this.nestedProperties.clear();
+            this.nestedProperties.addAll(nestedProperties);
+            return this;
+        }
+
+        public Builder itemsDefinition(PropertyDefinition itemsDefinition) {
+            this.itemsDefinition = itemsDefinition;
+            return this;
+        }
+
+        public Builder enumValues(List<String> enumValues) {
+            if (enumValues == null) {
+                this.enumValues = null;
+            } else {
+                this.enumValues = new String[enumValues.size()];
+                for (int i = 0; i < this.enumValues.length; i++) {
+                    this.enumValues[i] = Interning.intern(enumValues.get(i));
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Build the property, returning the shared instance if an identical one already exists.
+         */
+        public PropertyDefinition build() {
+            return PropertyDefinitionPool.canonicalize(new PropertyDefinition(this));
+        }
+    }
 }
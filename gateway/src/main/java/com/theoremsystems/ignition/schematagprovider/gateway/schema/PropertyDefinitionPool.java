@@ -0,0 +1,70 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Canonical instances of {@link PropertyDefinition} subtrees.
+ * <p>
+ * Every built property is looked up by structural equality; if an identical subtree already exists it is returned
+ * instead, so a nested object that appears inline in many schemas is held in memory once. Because children are
+ * canonicalized before their parent, comparing a parent only compares child references. Entries are weakly held
+ * and disappear once no schema uses them.
+ */
+public final class PropertyDefinitionPool {
+
+    private static final Map<PropertyDefinition, WeakReference<PropertyDefinition>> POOL = new WeakHashMap<>();
+
+    private static final AtomicLong lookups = new AtomicLong();
+    private static final AtomicLong hits = new AtomicLong();
+
+    private PropertyDefinitionPool() {
+    }
+
+    static PropertyDefinition canonicalize(PropertyDefinition property) {
+        lookups.incrementAndGet();
+        synchronized (POOL) {
+            WeakReference<PropertyDefinition> ref = POOL.get(property);
+            PropertyDefinition existing = ref != null ? ref.get() : null;
+            if (existing != null) {
+                hits.incrementAndGet();
+                return existing;
+            }
+            POOL.put(property, new WeakReference<>(property));
+            return property;
+        }
+    }
+
+    /**
+     * Number of distinct property subtrees currently held.
+     */
+    public static int size() {
+        synchronized (POOL) {
+            return POOL.size();
+        }
+    }
+
+    /**
+     * Total number of properties built.
+     */
+    public static long getLookupCount() {
+        return lookups.get();
+    }
+
+    /**
+     * Number of built properties that were replaced by an existing identical subtree.
+     */
+    public static long getSharedCount() {
+        return hits.get();
+    }
+
+    /**
+     * Fraction of built properties that were shared rather than newly allocated, between 0 and 1.
+     */
+    public static double getDedupeRatio() {
+        long total = lookups.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+}
@@ -4,79 +4,335 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages a local file cache of JSON Schema files.
- * Provides thread-safe access to schemas and handles persistence.
+ * Provides thread-safe access to schemas and handles persistence through a {@link SchemaStore}.
+ * <p>
+ * With a store that does not keep one file per schema, JSON files dropped into the cache directory are imported
+ * into the store and removed, so the directory still accepts schemas the same way.
  */
 public class SchemaCacheManager {
 
     private static final Logger logger = LoggerFactory.getLogger(SchemaCacheManager.class);
 
     private final Path cacheDirectory;
+    private final SchemaStore store;
     private final JsonSchemaParser parser;
-    private final Map<String, SchemaModel> schemaCache = new ConcurrentHashMap<>();
-    private final Map<String, String> rawSchemaCache = new ConcurrentHashMap<>();
+    private final int loadParallelism;
+    private final SchemaSnapshotStore snapshotStore;
+    private final SchemaMemoryCache schemaCache;
+    private final Map<String, SchemaFileInfo> fileIndex = new ConcurrentHashMap<>();
+    private final Set<String> writesInFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong totalWriteNanos = new AtomicLong();
+    private final AtomicLong maxWriteNanos = new AtomicLong();
+    private volatile boolean snapshotDirty = false;
 
     public SchemaCacheManager(Path cacheDirectory) {
+        this(cacheDirectory, 1, null);
+    }
+
+    /**
+     * @param cacheDirectory  The directory holding the schema files
+     * @param loadParallelism Number of worker threads used to read and parse files on startup
+     * @param snapshotStore   Snapshot of parsed schemas used to speed up startup, or null to always parse
+     */
+    public SchemaCacheManager(Path cacheDirectory, int loadParallelism, SchemaSnapshotStore snapshotStore) {
+        this(cacheDirectory, loadParallelism, snapshotStore, 0, false);
+    }
+
+    /**
+     * @param memoryBudgetBytes Heap budget for cached content and parsed models, or 0 to keep every parsed model
+     * @param compressContent   Whether to deflate cached raw content
+     */
+    public SchemaCacheManager(Path cacheDirectory, int loadParallelism, SchemaSnapshotStore snapshotStore,
+                              long memoryBudgetBytes, boolean compressContent) {
+        this(cacheDirectory, new DirectorySchemaStore(cacheDirectory), loadParallelism, snapshotStore,
+                memoryBudgetBytes, compressContent);
+    }
+
+    /**
+     * @param store Persistent storage for schema content
+     */
+    public SchemaCacheManager(Path cacheDirectory, SchemaStore store, int loadParallelism,
+                              SchemaSnapshotStore snapshotStore, long memoryBudgetBytes, boolean compressContent) {
         this.cacheDirectory = cacheDirectory;
+        this.store = store;
         this.parser = new JsonSchemaParser();
+        this.loadParallelism = Math.max(1, loadParallelism);
+        this.snapshotStore = snapshotStore;
+        this.schemaCache = new SchemaMemoryCache(parser, memoryBudgetBytes, compressContent);
     }
 
     /**
      * Initialize the cache manager: create directories and load existing schemas.
      */
     public void initialize() throws IOException {
-        logger.info("Initializing schema cache at: {}", cacheDirectory);
+        logger.info("Initializing schema cache at: {} ({} store)", cacheDirectory, store.getName());
 
         // Create cache directory if it doesn't exist
         Files.createDirectories(cacheDirectory);
+        store.open();
+        if (store.storesSchemaFiles()) {
+            exportSegmentStore();
+        } else {
+            importDroppedFiles(null);
+        }
+
+        // Load all existing schemas, reusing snapshot entries whose content hash still matches
+        Map<String, SchemaSnapshotStore.SnapshotEntry> snapshot =
+                snapshotStore != null ? snapshotStore.load() : new HashMap<>();
+        loadAllSchemas(snapshot);
+        saveSnapshot();
+
+        if (schemaCache.isBounded()) {
+            logger.info("Schema cache initialized with {} schemas ({} KB content, {} parsed models cached)",
+                    schemaCache.size(), schemaCache.getRawBytes() / 1024, schemaCache.getCachedModelCount());
+        } else {
+            logger.info("Schema cache initialized with {} schemas", schemaCache.size());
+        }
+    }
+
+    /**
+     * Write the snapshot of parsed schemas if anything changed since it was last written.
+     * <p>
+     * Only models held in memory are written. With a memory budget, evicted schemas are parsed on the next startup
+     * instead of being parsed again now.
+     */
+    public void saveSnapshot() {
+        if (snapshotStore == null || !snapshotDirty) {
+            return;
+        }
 
-        // Load all existing schemas
-        loadAllSchemas();
+        List<SchemaSnapshotStore.SnapshotEntry> entries = new ArrayList<>(schemaCache.size());
+        synchronized (this) {
+            Map<String, SchemaModel> cachedModels = schemaCache.getCachedModels();
+            for (String schemaName : schemaCache.getNames()) {
+                SchemaFileInfo info = fileIndex.get(schemaName);
+                SchemaModel schema = cachedModels.get(schemaName);
+                if (info != null && schema != null) {
+                    entries.add(new SchemaSnapshotStore.SnapshotEntry(info, schema));
+                }
+            }
+            snapshotDirty = false;
+        }
 
-        logger.info("Schema cache initialized with {} schemas", schemaCache.size());
+        try {
+            snapshotStore.save(entries);
+        } catch (IOException e) {
+            snapshotDirty = true;
+            logger.warn("Failed to write schema snapshot: {}", snapshotStore.getSnapshotFile(), e);
+        }
     }
 
     /**
-     * Load all JSON schema files from the cache directory.
+     * Load all schemas from the store.
+     * Schemas are read and parsed on a bounded worker pool; a failure in one schema does not affect the others.
      */
-    private void loadAllSchemas() {
-        try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheDirectory, "*.json")) {
-            for (Path file : stream) {
-                try {
-                    loadSchemaFile(file);
-                } catch (Exception e) {
-                    logger.error("Failed to load schema file: {}", file, e);
+    private void loadAllSchemas(Map<String, SchemaSnapshotStore.SnapshotEntry> snapshot) {
+        List<SchemaFileInfo> files;
+        try {
+            files = new ArrayList<>(store.list().values());
+        } catch (IOException e) {
+            logger.error("Failed to read cache directory", e);
+            return;
+        }
+
+        int threads = Math.min(loadParallelism, Math.max(1, files.size()));
+        long startNanos = System.nanoTime();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger reused = new AtomicInteger();
+        long totalBytes = 0;
+
+        if (threads == 1) {
+            for (SchemaFileInfo file : files) {
+                totalBytes += loadSchemaFileSafely(file, snapshot, reused, failed);
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "schema-cache-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+            try {
+                List<Future<Long>> results = new ArrayList<>(files.size());
+                for (SchemaFileInfo file : files) {
+                    results.add(executor.submit(() -> loadSchemaFileSafely(file, snapshot, reused, failed)));
+                }
+                for (Future<Long> result : results) {
+                    totalBytes += result.get();
                 }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.warn("Interrupted while loading schema cache");
+            } catch (ExecutionException e) {
+                logger.error("Unexpected error loading schema cache", e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // The snapshot needs rewriting if any file was parsed or any snapshot entry went unused
+        if (reused.get() != files.size() || reused.get() != snapshot.size()) {
+            snapshotDirty = true;
+        }
+
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        logger.info("Loaded {} schemas ({} from snapshot, {} failed, {} KB) in {} ms using {} threads ({} schemas/s)",
+                files.size() - failed.get(), reused.get(), failed.get(), totalBytes / 1024, elapsedMillis, threads,
+                files.size() * 1000L / elapsedMillis);
+        logger.info("Property definitions: {} distinct, {}% of built properties shared",
+                PropertyDefinitionPool.size(), Math.round(PropertyDefinitionPool.getDedupeRatio() * 100));
+    }
+
+    /**
+     * Load a single schema file, logging and counting any failure.
+     *
+     * @return The number of bytes read
+     */
+    private long loadSchemaFileSafely(SchemaFileInfo file, Map<String, SchemaSnapshotStore.SnapshotEntry> snapshot,
+                                      AtomicInteger reused, AtomicInteger failed) {
+        try {
+            return loadSchemaFile(file, snapshot, reused);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.error("Failed to load schema file: {}", file.getSchemaName(), e);
+            return 0;
+        }
+    }
+
+    private long loadSchemaFile(SchemaFileInfo file, Map<String, SchemaSnapshotStore.SnapshotEntry> snapshot,
+                                AtomicInteger reused) throws IOException, JsonSchemaParser.JsonSchemaParseException {
+        String schemaName = file.getSchemaName();
+        byte[] bytes = store.read(schemaName);
+        String contentHash = file.getContentHash() != null ? file.getContentHash() : ContentHash.sha256(bytes);
+
+        // Index the file before parsing so a broken file is not re-read until it changes again
+        fileIndex.put(schemaName, new SchemaFileInfo(schemaName, file.getLastModified(), file.getSize(), contentHash));
+
+        SchemaModel schema;
+        SchemaSnapshotStore.SnapshotEntry snapshotEntry = snapshot.get(schemaName);
+        if (snapshotEntry != null && snapshotEntry.getFileInfo().matchesContent(contentHash)) {
+            schema = snapshotEntry.getSchema();
+            reused.incrementAndGet();
+        } else {
+            schema = parser.parse(schemaName, new String(bytes, StandardCharsets.UTF_8));
+        }
+        schemaCache.put(schemaName, bytes, schema);
+
+        logger.debug("Loaded schema: {}", schemaName);
+        return bytes.length;
+    }
+
+    /**
+     * Move JSON files dropped into the cache directory into a store that does not keep schema files.
+     *
+     * @param schemaNames The files to check, or null for every JSON file in the directory
+     */
+    private void importDroppedFiles(Collection<String> schemaNames) {
+        DirectorySchemaStore droppedFiles = new DirectorySchemaStore(cacheDirectory);
+        Collection<String> candidates = schemaNames;
+        try {
+            if (candidates == null) {
+                droppedFiles.open();
+                candidates = droppedFiles.list().keySet();
             }
         } catch (IOException e) {
             logger.error("Failed to read cache directory", e);
+            return;
+        }
+
+        int imported = 0;
+        for (String schemaName : candidates) {
+            Path file = droppedFiles.resolve(schemaName);
+            try {
+                if (Files.exists(file)) {
+                    store.write(schemaName, droppedFiles.read(schemaName));
+                    Files.delete(file);
+                    imported++;
+                }
+            } catch (IOException e) {
+                logger.error("Failed to import schema file into the {} store: {}", store.getName(), file, e);
+            }
+        }
+        if (imported > 0) {
+            logger.info("Imported {} schema files into the {} store", imported, store.getName());
         }
     }
 
-    private void loadSchemaFile(Path file) throws IOException, JsonSchemaParser.JsonSchemaParseException {
-        String filename = file.getFileName().toString();
-        String schemaName = filename.substring(0, filename.lastIndexOf('.'));
-        String content = Files.readString(file);
+    /**
+     * When switching back to one file per schema, write out the schemas of a segment store left in the cache
+     * directory and set its files aside.
+     */
+    private void exportSegmentStore() throws IOException {
+        if (!SegmentSchemaStore.exists(cacheDirectory)) {
+            return;
+        }
+        try (SegmentSchemaStore segment = new SegmentSchemaStore(cacheDirectory, false)) {
+            segment.open();
+            int exported = segment.exportDirectory(cacheDirectory);
+            logger.info("Exported {} schemas from segment store {} to the cache directory", exported,
+                    segment.getSegmentFile());
+        }
+        for (String file : List.of(SegmentSchemaStore.SEGMENT_FILE, SegmentSchemaStore.INDEX_FILE)) {
+            Path source = cacheDirectory.resolve(file);
+            if (Files.exists(source)) {
+                Files.move(source, cacheDirectory.resolve(file + ".exported"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
 
-        SchemaModel schema = parser.parse(schemaName, content);
-        schemaCache.put(schemaName, schema);
-        rawSchemaCache.put(schemaName, content);
+    /**
+     * Write every cached schema to a directory as {@code <name>.json} files, whatever store is in use.
+     *
+     * @return The number of schemas exported
+     */
+    public synchronized int exportSchemas(Path directory) throws IOException {
+        DirectorySchemaStore target = new DirectorySchemaStore(directory);
+        target.open();
+        int exported = 0;
+        for (String schemaName : store.list().keySet()) {
+            target.write(schemaName, store.read(schemaName));
+            exported++;
+        }
+        return exported;
+    }
 
-        logger.debug("Loaded schema: {} from {}", schemaName, file);
+    /**
+     * Close the underlying store. The cache must not be used afterwards.
+     */
+    public void close() {
+        try {
+            store.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the {} schema store", store.getName(), e);
+        }
     }
 
     /**
      * Save a new schema to the cache and persist to disk.
+     * <p>
+     * The write does not hold the cache lock while it waits to be made durable, so concurrent saves of different
+     * schemas share a group commit. Saves of the same schema must not overlap.
      *
      * @param schemaName The name for the schema
      * @param content    The raw JSON Schema content
@@ -86,30 +342,42 @@ public class SchemaCacheManager {
         // Parse first to validate
         SchemaModel schema = parser.parse(schemaName, content);
 
-        // Save to disk
-        Path file = cacheDirectory.resolve(schemaName + ".json");
-        Files.writeString(file, content);
-
-        // Update caches
-        schemaCache.put(schemaName, schema);
-        rawSchemaCache.put(schemaName, content);
+        // Save to disk; reloads skip the schema until the index reflects this write
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        long startNanos = System.nanoTime();
+        SchemaFileInfo info;
+        writesInFlight.add(schemaName);
+        try {
+            info = store.write(schemaName, bytes);
+
+            // Update caches and index so the next reload does not treat our own write as a change
+            synchronized (this) {
+                fileIndex.put(schemaName, info);
+                schemaCache.put(schemaName, bytes, schema);
+                snapshotDirty = true;
+            }
+        } finally {
+            writesInFlight.remove(schemaName);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        writeCount.incrementAndGet();
+        totalWriteNanos.addAndGet(elapsedNanos);
+        maxWriteNanos.accumulateAndGet(elapsedNanos, Math::max);
 
-        logger.info("Saved schema: {} to {}", schemaName, file);
+        logger.info("Saved schema: {} to the {} store in {} ms", schemaName, store.getName(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
         return schema;
     }
 
     /**
      * Remove a schema from the cache and delete from disk.
      */
-    public void removeSchema(String schemaName) throws IOException {
-        Path file = cacheDirectory.resolve(schemaName + ".json");
-
-        if (Files.exists(file)) {
-            Files.delete(file);
-        }
+    public synchronized void removeSchema(String schemaName) throws IOException {
+        store.delete(schemaName);
 
         schemaCache.remove(schemaName);
-        rawSchemaCache.remove(schemaName);
+        fileIndex.remove(schemaName);
+        snapshotDirty = true;
 
         logger.info("Removed schema: {}", schemaName);
     }
@@ -118,35 +386,63 @@ public class SchemaCacheManager {
      * Get a schema by name.
      */
     public SchemaModel getSchema(String schemaName) {
-        return schemaCache.get(schemaName);
+        return schemaCache.getModel(schemaName);
+    }
+
+    /**
+     * Get the name of the schema that defines a UDT type. The type name is the schema's title if it has one, so it
+     * can differ from the schema name used by this cache.
+     *
+     * @return The schema name, or null if no cached schema defines the type
+     */
+    public String getSchemaNameForType(String typeName) {
+        return schemaCache.getSchemaNameForType(typeName);
+    }
+
+    /**
+     * Get the schema that defines a UDT type, parsing it again if it was evicted.
+     *
+     * @return The schema, or null if no cached schema defines the type
+     */
+    public SchemaModel getSchemaForType(String typeName) {
+        String schemaName = schemaCache.getSchemaNameForType(typeName);
+        return schemaName != null ? schemaCache.getModel(schemaName) : null;
+    }
+
+    /**
+     * Get the types each cached schema's UDT references, by UDT type name. Unlike {@link #getAllSchemas()}, this
+     * never parses evicted models.
+     */
+    public Map<String, Set<String>> getTypeReferences() {
+        return schemaCache.getTypeReferences();
     }
 
     /**
      * Get the raw JSON content for a schema.
      */
     public String getRawSchema(String schemaName) {
-        return rawSchemaCache.get(schemaName);
+        return schemaCache.getRaw(schemaName);
     }
 
     /**
-     * Get all cached schemas.
+     * Get all cached schemas. With a memory budget, evicted models are parsed again.
      */
     public Collection<SchemaModel> getAllSchemas() {
-        return schemaCache.values();
+        return schemaCache.getAllModels();
     }
 
     /**
      * Get all schema names.
      */
     public Collection<String> getSchemaNames() {
-        return schemaCache.keySet();
+        return schemaCache.getNames();
     }
 
     /**
      * Check if a schema exists in the cache.
      */
     public boolean hasSchema(String schemaName) {
-        return schemaCache.containsKey(schemaName);
+        return schemaCache.contains(schemaName);
     }
 
     /**
@@ -157,28 +453,186 @@ public class SchemaCacheManager {
     }
 
     /**
-     * Reload all schemas from disk. Useful if files were modified externally.
+     * Get the file index entry for a schema, or null if the schema has not been loaded from disk.
+     */
+    public SchemaFileInfo getFileInfo(String schemaName) {
+        return fileIndex.get(schemaName);
+    }
+
+    /**
+     * Incrementally reload schemas from disk. Useful if files were modified externally.
+     * <p>
+     * Files whose modification time and size match the index are skipped. Files whose metadata changed are
+     * re-read and hashed, and only re-parsed if the content hash differs.
+     *
+     * @return The schemas that were added, modified or deleted since the previous load
+     */
+    public synchronized CacheChangeSet reload() {
+        CacheChangeSet changes = new CacheChangeSet();
+        if (!store.storesSchemaFiles()) {
+            importDroppedFiles(null);
+        }
+
+        Map<String, SchemaFileInfo> listing;
+        try {
+            listing = store.list();
+        } catch (IOException e) {
+            // Without a listing we cannot tell deletions apart from read errors, so report no changes
+            logger.error("Failed to read cache directory", e);
+            return new CacheChangeSet();
+        }
+        Set<String> presentFiles = listing.keySet();
+        for (SchemaFileInfo current : listing.values()) {
+            try {
+                reloadSchemaFile(current, changes);
+            } catch (Exception e) {
+                logger.error("Failed to reload schema file: {}", current.getSchemaName(), e);
+            }
+        }
+
+        // Anything cached or indexed that no longer has a file was deleted
+        for (String schemaName : schemaCache.getNames()) {
+            if (!presentFiles.contains(schemaName)) {
+                // Read before removal, so the types of the deleted schema can still be resolved
+                SchemaModel lastModel = schemaCache.getModel(schemaName);
+                schemaCache.remove(schemaName);
+                changes.addDeleted(schemaName, lastModel);
+            }
+        }
+        fileIndex.keySet().retainAll(presentFiles);
+        if (!changes.isEmpty()) {
+            snapshotDirty = true;
+        }
+
+        if (!changes.getDeleted().isEmpty()) {
+            logger.info("Detected {} deleted schemas: {}", changes.getDeleted().size(), changes.getDeleted());
+        }
+
+        if (changes.isEmpty()) {
+            logger.debug("Reloaded schema cache: no changes ({} schemas)", schemaCache.size());
+        } else {
+            logger.info("Reloaded schema cache: {} added, {} modified, {} deleted, {} unchanged ({} schemas)",
+                    changes.getAdded().size(), changes.getModified().size(), changes.getDeleted().size(),
+                    changes.getUnchangedCount(), schemaCache.size());
+        }
+        return changes;
+    }
+
+    /**
+     * Reload only the named schemas from disk, e.g. in response to file system events.
+     * Schemas that are no longer stored are removed from the cache and reported as deleted.
      *
-     * @return Set of schema names that were deleted (present before reload but not after)
+     * @param schemaNames The schemas to re-check
+     * @return The schemas that were added, modified or deleted
      */
-    public Set<String> reload() {
-        // Capture current schema names before clearing
-        Set<String> previousSchemas = new HashSet<>(schemaCache.keySet());
+    public synchronized CacheChangeSet reload(Collection<String> schemaNames) {
+        CacheChangeSet changes = new CacheChangeSet();
+        if (!store.storesSchemaFiles()) {
+            importDroppedFiles(schemaNames);
+        }
 
-        schemaCache.clear();
-        rawSchemaCache.clear();
-        loadAllSchemas();
+        for (String schemaName : schemaNames) {
+            try {
+                SchemaFileInfo current = store.stat(schemaName);
+                if (current != null) {
+                    reloadSchemaFile(current, changes);
+                } else {
+                    fileIndex.remove(schemaName);
+                    SchemaModel lastModel = schemaCache.getModel(schemaName);
+                    if (schemaCache.remove(schemaName)) {
+                        changes.addDeleted(schemaName, lastModel);
+                    }
+                }
+            } catch (Exception e) {
+                logger.error("Failed to reload schema file: {}", schemaName, e);
+            }
+        }
 
-        // Determine which schemas were deleted
-        Set<String> deletedSchemas = new HashSet<>(previousSchemas);
-        deletedSchemas.removeAll(schemaCache.keySet());
+        if (!changes.isEmpty()) {
+            snapshotDirty = true;
+        }
 
-        if (!deletedSchemas.isEmpty()) {
-            logger.info("Detected {} deleted schemas: {}", deletedSchemas.size(), deletedSchemas);
+        logger.debug("Reloaded {} schemas: {}", schemaNames.size(), changes);
+        return changes;
+    }
+
+    private void reloadSchemaFile(SchemaFileInfo current, CacheChangeSet changes)
+            throws IOException, JsonSchemaParser.JsonSchemaParseException {
+        String schemaName = current.getSchemaName();
+        if (writesInFlight.contains(schemaName)) {
+            // Our own save is in progress and updates the index when it completes
+            changes.incrementUnchanged();
+            return;
+        }
+        SchemaFileInfo indexed = fileIndex.get(schemaName);
+        // Stores that track content hashes are compared by hash; plain files by modification time and size
+        boolean unchanged = current.getContentHash() != null
+                ? indexed != null && indexed.matchesContent(current.getContentHash())
+                : indexed != null && indexed.matchesStat(current.getLastModified(), current.getSize());
+        if (unchanged) {
+            changes.incrementUnchanged();
+            return;
         }
 
-        logger.info("Reloaded {} schemas from cache", schemaCache.size());
-        return deletedSchemas;
+        byte[] bytes = store.read(schemaName);
+        String contentHash = current.getContentHash() != null ? current.getContentHash() : ContentHash.sha256(bytes);
+        fileIndex.put(schemaName, new SchemaFileInfo(schemaName, current.getLastModified(), current.getSize(),
+                contentHash));
+
+        if (indexed != null && indexed.matchesContent(contentHash)) {
+            // Touched but not changed
+            changes.incrementUnchanged();
+            return;
+        }
+
+        // Keep the previous model if the new content does not parse; it is retried when the file changes again
+        SchemaModel schema = parser.parse(schemaName, new String(bytes, StandardCharsets.UTF_8));
+        boolean existed = schemaCache.contains(schemaName);
+        schemaCache.put(schemaName, bytes, schema);
+
+        if (existed) {
+            changes.addModified(schemaName);
+            logger.debug("Reloaded modified schema: {}", schemaName);
+        } else {
+            changes.addAdded(schemaName);
+            logger.debug("Loaded new schema: {}", schemaName);
+        }
+    }
+
+    /**
+     * Get the in-memory storage, e.g. for its memory and eviction metrics.
+     */
+    public SchemaMemoryCache getMemoryCache() {
+        return schemaCache;
+    }
+
+    /**
+     * Get the number of schemas saved since startup.
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * Get the average time to save a schema durably, in milliseconds.
+     */
+    public double getAverageWriteMillis() {
+        long count = writeCount.get();
+        return count == 0 ? 0 : totalWriteNanos.get() / 1_000_000.0 / count;
+    }
+
+    /**
+     * Get the longest time taken to save a schema durably, in milliseconds.
+     */
+    public long getMaxWriteMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWriteNanos.get());
+    }
+
+    /**
+     * Get the persistent store holding the schema content.
+     */
+    public SchemaStore getStore() {
+        return store;
     }
 
     /**
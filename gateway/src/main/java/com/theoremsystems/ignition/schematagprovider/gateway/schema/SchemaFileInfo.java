@@ -0,0 +1,60 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+/**
+ * Index entry describing a schema file on disk.
+ * Used to detect changes between cache scans without re-parsing unchanged files.
+ */
+public class SchemaFileInfo {
+
+    private final String schemaName;
+    private final long lastModified;   // Modification time in milliseconds
+    private final long size;           // File size in bytes
+    private final String contentHash;  // SHA-256 of the file content
+
+    public SchemaFileInfo(String schemaName, long lastModified, long size, String contentHash) {
+        this.schemaName = schemaName;
+        this.lastModified = lastModified;
+        this.size = size;
+        this.contentHash = contentHash;
+    }
+
+    public String getSchemaName() {
+        return schemaName;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Returns true if the file metadata matches this entry, meaning the content can be assumed unchanged.
+     */
+    public boolean matchesStat(long lastModified, long size) {
+        return this.lastModified == lastModified && this.size == size;
+    }
+
+    /**
+     * Returns true if the content hash matches this entry.
+     */
+    public boolean matchesContent(String contentHash) {
+        return this.contentHash != null && this.contentHash.equals(contentHash);
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaFileInfo{" +
+                "schemaName='" + schemaName + '\'' +
+                ", lastModified=" + lastModified +
+                ", size=" + size +
+                ", contentHash='" + contentHash + '\'' +
+                '}';
+    }
+}
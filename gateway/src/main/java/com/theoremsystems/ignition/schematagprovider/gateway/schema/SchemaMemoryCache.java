@@ -0,0 +1,403 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * In-memory storage for schema content and parsed models.
+ * <p>
+ * Raw content is always kept as UTF-8 bytes, optionally deflate-compressed. With no memory budget every parsed
+ * model is kept as well. With a budget, parsed models are held in an LRU sized so that raw content plus the
+ * estimated size of the cached models stays within the budget; evicted models are parsed again from the raw
+ * content when next requested.
+ */
+public class SchemaMemoryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMemoryCache.class);
+
+    // Rough heap cost of a parsed model relative to the size of its JSON text
+    private static final int MODEL_BYTES_PER_JSON_BYTE = 2;
+    private static final int MODEL_BASE_BYTES = 256;
+
+    private final JsonSchemaParser parser;
+    private final long budgetBytes;
+    private final boolean compress;
+
+    private final Map<String, RawContent> rawContent = new ConcurrentHashMap<>();
+    private final AtomicLong rawBytes = new AtomicLong();
+
+    // UDT type name and referenced types of every schema, kept for evicted models too so lookups and the
+    // dependency graph never re-parse; guarded by typeIndex. The type name differs from the schema name when the
+    // schema has a title.
+    private final Map<String, TypeEntry> typeIndex = new HashMap<>();
+    private final Map<String, String> schemaNamesByType = new HashMap<>();
+
+    // Unbounded mode
+    private final Map<String, SchemaModel> allModels;
+
+    // Bounded mode, guarded by itself
+    private final LinkedHashMap<String, CachedModel> lruModels;
+    private long modelBytes = 0;
+
+    private final AtomicLong reparseCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+    private volatile boolean budgetWarningLogged = false;
+
+    /**
+     * @param parser      Used to parse evicted models again
+     * @param budgetBytes Heap budget for raw content and parsed models, or 0 to keep every model
+     * @param compress    Whether to deflate raw content
+     */
+    public SchemaMemoryCache(JsonSchemaParser parser, long budgetBytes, boolean compress) {
+        this.parser = parser;
+        this.budgetBytes = Math.max(0, budgetBytes);
+        this.compress = compress;
+        if (this.budgetBytes == 0) {
+            this.allModels = new ConcurrentHashMap<>();
+            this.lruModels = null;
+        } else {
+            this.allModels = null;
+            this.lruModels = new LinkedHashMap<>(16, 0.75f, true);
+        }
+    }
+
+    /**
+     * Store a schema's content and its parsed model, replacing any previous version.
+     */
+    public void put(String schemaName, byte[] utf8Content, SchemaModel model) {
+        RawContent content = RawContent.of(utf8Content, compress);
+        RawContent previous = rawContent.put(schemaName, content);
+        rawBytes.addAndGet(content.storedSize() - (previous != null ? previous.storedSize() : 0));
+        indexType(schemaName, new TypeEntry(model.getName(), model.getReferencedTypes()));
+
+        if (allModels != null) {
+            allModels.put(schemaName, model);
+        } else {
+            cacheModel(schemaName, content, model);
+        }
+    }
+
+    /**
+     * Remove a schema.
+     *
+     * @return true if the schema was present
+     */
+    public boolean remove(String schemaName) {
+        RawContent previous = rawContent.remove(schemaName);
+        if (previous != null) {
+            rawBytes.addAndGet(-previous.storedSize());
+        }
+        indexType(schemaName, null);
+
+        if (allModels != null) {
+            allModels.remove(schemaName);
+        } else {
+            synchronized (lruModels) {
+                CachedModel removed = lruModels.remove(schemaName);
+                if (removed != null) {
+                    modelBytes -= removed.weight;
+                }
+            }
+        }
+        return previous != null;
+    }
+
+    /**
+     * Get the parsed model for a schema, parsing it again if it was evicted.
+     *
+     * @return The model, or null if the schema is not present
+     */
+    public SchemaModel getModel(String schemaName) {
+        if (allModels != null) {
+            return allModels.get(schemaName);
+        }
+
+        synchronized (lruModels) {
+            CachedModel cached = lruModels.get(schemaName);
+            if (cached != null) {
+                return cached.model;
+            }
+        }
+
+        RawContent content = rawContent.get(schemaName);
+        if (content == null) {
+            return null;
+        }
+        try {
+            SchemaModel model = parser.parse(schemaName, content.decode());
+            reparseCount.incrementAndGet();
+            cacheModel(schemaName, content, model);
+            return model;
+        } catch (JsonSchemaParser.JsonSchemaParseException e) {
+            // The content parsed when it was stored, so this only happens if the parser itself changed
+            logger.error("Failed to re-parse cached schema: {}", schemaName, e);
+            return null;
+        }
+    }
+
+    /**
+     * Get the raw JSON content for a schema, or null if the schema is not present.
+     */
+    public String getRaw(String schemaName) {
+        RawContent content = rawContent.get(schemaName);
+        return content != null ? content.decode() : null;
+    }
+
+    /**
+     * Get the parsed models of all schemas. In bounded mode, evicted models are parsed again.
+     */
+    public List<SchemaModel> getAllModels() {
+        if (allModels != null) {
+            return new ArrayList<>(allModels.values());
+        }
+        List<SchemaModel> models = new ArrayList<>(rawContent.size());
+        for (String schemaName : rawContent.keySet()) {
+            SchemaModel model = getModel(schemaName);
+            if (model != null) {
+                models.add(model);
+            }
+        }
+        return models;
+    }
+
+    /**
+     * Get the name of the schema that defines a UDT type, or null if no cached schema does.
+     */
+    public String getSchemaNameForType(String typeName) {
+        synchronized (typeIndex) {
+            return schemaNamesByType.get(typeName);
+        }
+    }
+
+    /**
+     * Get the types each cached schema's UDT references, by UDT type name, without parsing any model.
+     */
+    public Map<String, Set<String>> getTypeReferences() {
+        synchronized (typeIndex) {
+            Map<String, Set<String>> references = new HashMap<>(typeIndex.size() * 2);
+            for (TypeEntry entry : typeIndex.values()) {
+                references.put(entry.typeName, entry.referencedTypes);
+            }
+            return references;
+        }
+    }
+
+    /**
+     * Get the parsed models currently held in memory, by schema name, without parsing evicted ones or changing
+     * their recency.
+     */
+    public Map<String, SchemaModel> getCachedModels() {
+        if (allModels != null) {
+            return new HashMap<>(allModels);
+        }
+        synchronized (lruModels) {
+            Map<String, SchemaModel> models = new HashMap<>(lruModels.size() * 2);
+            for (Map.Entry<String, CachedModel> entry : lruModels.entrySet()) {
+                models.put(entry.getKey(), entry.getValue().model);
+            }
+            return models;
+        }
+    }
+
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(new HashSet<>(rawContent.keySet()));
+    }
+
+    public boolean contains(String schemaName) {
+        return rawContent.containsKey(schemaName);
+    }
+
+    public int size() {
+        return rawContent.size();
+    }
+
+    private void indexType(String schemaName, TypeEntry entry) {
+        synchronized (typeIndex) {
+            TypeEntry previous = entry != null ? typeIndex.put(schemaName, entry) : typeIndex.remove(schemaName);
+            // Only drop the reverse entry if another schema has not claimed the type name since
+            if (previous != null && (entry == null || !previous.typeName.equals(entry.typeName))) {
+                schemaNamesByType.remove(previous.typeName, schemaName);
+            }
+            if (entry != null) {
+                schemaNamesByType.put(entry.typeName, schemaName);
+            }
+        }
+    }
+
+    private void cacheModel(String schemaName, RawContent content, SchemaModel model) {
+        long weight = MODEL_BASE_BYTES + (long) content.length * MODEL_BYTES_PER_JSON_BYTE;
+        synchronized (lruModels) {
+            // A newer version may have been stored while this one was being parsed
+            if (rawContent.get(schemaName) != content) {
+                return;
+            }
+
+            CachedModel previous = lruModels.put(schemaName, new CachedModel(model, weight));
+            modelBytes += weight - (previous != null ? previous.weight : 0);
+
+            long modelBudget = budgetBytes - rawBytes.get();
+            var iterator = lruModels.entrySet().iterator();
+            while (modelBytes > modelBudget && iterator.hasNext()) {
+                Map.Entry<String, CachedModel> eldest = iterator.next();
+                if (eldest.getKey().equals(schemaName) && lruModels.size() == 1) {
+                    break;
+                }
+                modelBytes -= eldest.getValue().weight;
+                iterator.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+
+        if (rawBytes.get() > budgetBytes && !budgetWarningLogged) {
+            budgetWarningLogged = true;
+            logger.warn("Raw schema content ({} KB) exceeds the schema cache memory budget ({} KB); "
+                    + "parsed models will be re-parsed on every access", rawBytes.get() / 1024, budgetBytes / 1024);
+        }
+    }
+
+    // Metrics
+
+    /**
+     * Bytes held for raw content, after compression.
+     */
+    public long getRawBytes() {
+        return rawBytes.get();
+    }
+
+    /**
+     * Estimated bytes held by cached parsed models in bounded mode, 0 in unbounded mode.
+     */
+    public long getModelBytes() {
+        if (lruModels == null) {
+            return 0;
+        }
+        synchronized (lruModels) {
+            return modelBytes;
+        }
+    }
+
+    public int getCachedModelCount() {
+        if (allModels != null) {
+            return allModels.size();
+        }
+        synchronized (lruModels) {
+            return lruModels.size();
+        }
+    }
+
+    public long getReparseCount() {
+        return reparseCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public boolean isBounded() {
+        return lruModels != null;
+    }
+
+    private static class TypeEntry {
+        private final String typeName;
+        private final Set<String> referencedTypes;
+
+        TypeEntry(String typeName, Set<String> referencedTypes) {
+            this.typeName = typeName;
+            this.referencedTypes = referencedTypes.isEmpty() ? Set.of() : Set.copyOf(referencedTypes);
+        }
+    }
+
+    private static class CachedModel {
+        private final SchemaModel model;
+        private final long weight;
+
+        CachedModel(SchemaModel model, long weight) {
+            this.model = model;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * UTF-8 content, deflated if that makes it smaller.
+     */
+    private static class RawContent {
+        private final byte[] data;
+        private final int length;       // Uncompressed length
+        private final boolean deflated;
+
+        private RawContent(byte[] data, int length, boolean deflated) {
+            this.data = data;
+            this.length = length;
+            this.deflated = deflated;
+        }
+
+        static RawContent of(byte[] utf8, boolean compress) {
+            if (compress) {
+                byte[] deflated = deflate(utf8);
+                if (deflated.length < utf8.length) {
+                    return new RawContent(deflated, utf8.length, true);
+                }
+            }
+            return new RawContent(utf8, utf8.length, false);
+        }
+
+        int storedSize() {
+            return data.length;
+        }
+
+        String decode() {
+            return new String(deflated ? inflate(data, length) : data, StandardCharsets.UTF_8);
+        }
+
+        private static byte[] deflate(byte[] input) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(input);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, input.length / 4));
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(buffer);
+                    out.write(buffer, 0, count);
+                }
+                return out.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private static byte[] inflate(byte[] input, int length) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(input);
+                byte[] output = new byte[length];
+                int offset = 0;
+                while (offset < length && !inflater.finished()) {
+                    offset += inflater.inflate(output, offset, length - offset);
+                }
+                return output;
+            } catch (DataFormatException e) {
+                // Only data written by deflate() is ever inflated
+                throw new IllegalStateException("Corrupt compressed schema content", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+}
@@ -1,102 +1,239 @@
 package com.theoremsystems.ignition.schematagprovider.gateway.schema;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
 /**
  * Internal representation of a parsed JSON Schema.
  * This model is used to generate Ignition UDT definitions.
+ * <p>
+ * Instances are immutable and created with a {@link Builder}. Properties are kept in an array and the required set
+ * as a bit per property index, plus any required names that do not match a property.
  */
-public class SchemaModel {
-
-    private String name;              // Schema/UDT name (from title or filename)
-    private String id;                // JSON Schema $id
-    private String description;
-    private String parentType;        // For inheritance (from $ref to base type)
-
-    private List<PropertyDefinition> properties = new ArrayList<>();
-    private Set<String> required = new HashSet<>();
-
-    public SchemaModel() {
-    }
-
-    public SchemaModel(String name) {
-        this.name = name;
+public final class SchemaModel {
+
+    private static final PropertyDefinition[] NO_PROPERTIES = new PropertyDefinition[0];
+    private static final String[] NO_NAMES = new String[0];
+
+    private final String name;              // Schema/UDT name (from title or filename)
+    private final String id;                // JSON Schema $id
+    private final String description;
+    private final String parentType;        // For inheritance (from $ref to base type)
+
+    private final PropertyDefinition[] properties;
+    private final BitSet requiredProperties;    // null if no property is required
+    private final String[] otherRequired;       // Required names without a matching property
+
+    private SchemaModel(Builder builder) {
+        this.name = builder.name;
+        this.id = builder.id;
+        this.description = builder.description;
+        this.parentType = builder.parentType;
+        this.properties = builder.properties.isEmpty()
+                ? NO_PROPERTIES
+                : builder.properties.toArray(new PropertyDefinition[0]);
+
+        BitSet required = new BitSet(properties.length);
+        List<String> other = new ArrayList<>();
+        for (String requiredName : builder.required) {
+            int index = indexOf(requiredName);
+            if (index >= 0) {
+                required.set(index);
+            } else {
+                other.add(Interning.intern(requiredName));
+            }
+        }
+        this.requiredProperties = required.isEmpty() ? null : required;
+        this.otherRequired = other.isEmpty() ? NO_NAMES : other.toArray(new String[0]);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Create a builder initialized with this schema's values.
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder()
+                .name(name)
+                .id(id)
+                .description(description)
+                .parentType(parentType);
+        for (PropertyDefinition property : properties) {
+            builder.addProperty(property);
+        }
+        builder.required.addAll(getRequired());
+        return builder;
     }
 
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public String getId() {
         return id;
     }
 
-    public void setId(String id) {
-        this.id = id;
-    }
-
     public String getDescription() {
         return description;
     }
 
-    public void setDescription(String description) {
-        this.description = description;
-    }
-
     public String getParentType() {
         return parentType;
     }
 
-    public void setParentType(String parentType) {
-        this.parentType = parentType;
-    }
-
+    /**
+     * Get the properties as an unmodifiable list.
+     */
     public List<PropertyDefinition> getProperties() {
-        return properties;
+        return Collections.unmodifiableList(Arrays.asList(properties));
     }
 
-    public void setProperties(List<PropertyDefinition> properties) {
-        this.properties = properties;
+    public int getPropertyCount() {
+        return properties.length;
     }
 
-    public void addProperty(PropertyDefinition property) {
-        this.properties.add(property);
+    public PropertyDefinition getProperty(int index) {
+        return properties[index];
     }
 
+    /**
+     * Get the names of required properties.
+     */
     public Set<String> getRequired() {
-        return required;
-    }
-
-    public void setRequired(Set<String> required) {
-        this.required = required;
-    }
-
-    public void addRequired(String propertyName) {
-        this.required.add(propertyName);
+        Set<String> required = new LinkedHashSet<>();
+        if (requiredProperties != null) {
+            for (int i = requiredProperties.nextSetBit(0); i >= 0; i = requiredProperties.nextSetBit(i + 1)) {
+                required.add(properties[i].getName());
+            }
+        }
+        Collections.addAll(required, otherRequired);
+        return Collections.unmodifiableSet(required);
     }
 
     public boolean isRequired(String propertyName) {
-        return required.contains(propertyName);
+        int index = indexOf(propertyName);
+        if (index >= 0) {
+            return requiredProperties != null && requiredProperties.get(index);
+        }
+        for (String other : otherRequired) {
+            if (other.equals(propertyName)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public boolean hasParent() {
         return parentType != null && !parentType.isEmpty();
     }
 
+    /**
+     * Get the UDT types this schema depends on: its parent type and every type a member, nested member or array
+     * item references.
+     */
+    public Set<String> getReferencedTypes() {
+        Set<String> referenced = new HashSet<>();
+        if (hasParent()) {
+            referenced.add(parentType);
+        }
+        collectReferences(Arrays.asList(properties), referenced);
+        return referenced;
+    }
+
+    private static void collectReferences(List<PropertyDefinition> properties, Set<String> referenced) {
+        for (PropertyDefinition property : properties) {
+            if (property.isReference()) {
+                referenced.add(property.getRefType());
+            }
+            if (property.hasNestedProperties()) {
+                collectReferences(property.getNestedProperties(), referenced);
+            }
+            if (property.getItemsDefinition() != null) {
+                collectReferences(List.of(property.getItemsDefinition()), referenced);
+            }
+        }
+    }
+
+    private int indexOf(String propertyName) {
+        for (int i = 0; i < properties.length; i++) {
+            if (properties[i].getName().equals(propertyName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @Override
     public String toString() {
         return "SchemaModel{" +
                 "name='" + name + '\'' +
                 ", id='" + id + '\'' +
-                ", properties=" + properties.size() +
-                ", required=" + required +
+                ", properties=" + properties.length +
+                ", required=" + getRequired() +
                 '}';
     }
+
+    /**
+     * Collects the values of a {@link SchemaModel}.
+     */
+    public static final class Builder {
+
+        private String name;
+        private String id;
+        private String description;
+        private String parentType;
+        private final List<PropertyDefinition> properties = new ArrayList<>();
+        private final Set<String> required = new LinkedHashSet<>();
+
+        private Builder() {
+        }
+
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder description(String description) {
+            this.description = description;
+            return this;
+        }
+
+        public Builder parentType(String parentType) {
+            this.parentType = Interning.intern(parentType);
+            return this;
+        }
+
+        public Builder addProperty(PropertyDefinition property) {
+            this.properties.add(property);
+            return this;
+        }
+
+        public Builder properties(List<PropertyDefinition> properties) {
+            this.properties.clear();
+            this.properties.addAll(properties);
+            return this;
+        }
+
+        public Builder addRequired(String propertyName) {
+            this.required.add(propertyName);
+            return this;
+        }
+
+        public SchemaModel build() {
+            return new SchemaModel(this);
+        }
+    }
 }
@@ -0,0 +1,337 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Persists parsed SchemaModels in a compact binary snapshot so startup can skip re-parsing unchanged files.
+ * <p>
+ * Each entry records the file index (mtime, size, content hash) it was parsed from. Entries are only reused when
+ * the content hash of the file on disk still matches. The snapshot ends with a CRC32 checksum that is verified
+ * before anything is decoded; a missing, truncated or corrupt snapshot is ignored and all files are parsed as usual.
+ */
+public class SchemaSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaSnapshotStore.class);
+
+    private static final int MAGIC = 0x53545053;   // "STPS"
+    private static final int VERSION = 1;
+
+    // Default value type tags
+    private static final byte VALUE_NULL = 0;
+    private static final byte VALUE_BOOLEAN = 1;
+    private static final byte VALUE_NUMBER = 2;
+    private static final byte VALUE_STRING = 3;
+
+    private final Path snapshotFile;
+
+    public SchemaSnapshotStore(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Create a store that keeps its snapshot next to the given cache directory, e.g. {@code schemas.snapshot}.
+     */
+    public static SchemaSnapshotStore forCacheDirectory(Path cacheDirectory) {
+        Path absolute = cacheDirectory.toAbsolutePath();
+        return new SchemaSnapshotStore(absolute.resolveSibling(absolute.getFileName() + ".snapshot"));
+    }
+
+    /**
+     * Load the snapshot.
+     *
+     * @return Snapshot entries by schema name, or an empty map if the snapshot is missing or unreadable
+     */
+    public Map<String, SnapshotEntry> load() {
+        if (!Files.exists(snapshotFile)) {
+            logger.info("No schema snapshot found at: {}", snapshotFile);
+            return new HashMap<>();
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(snapshotFile);
+            if (bytes.length < Long.BYTES) {
+                logger.warn("Ignoring truncated schema snapshot: {}", snapshotFile);
+                return new HashMap<>();
+            }
+
+            // Check the whole file before decoding so no count or length from a torn write is trusted
+            int bodyLength = bytes.length - Long.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bodyLength);
+            if (crc.getValue() != ByteBuffer.wrap(bytes, bodyLength, Long.BYTES).getLong()) {
+                logger.warn("Ignoring corrupt schema snapshot (checksum mismatch): {}", snapshotFile);
+                return new HashMap<>();
+            }
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bodyLength));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                logger.warn("Ignoring schema snapshot with unknown format: {}", snapshotFile);
+                return new HashMap<>();
+            }
+
+            int count = readCount(in);
+            Map<String, SnapshotEntry> entries = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                SnapshotEntry entry = readEntry(in);
+                entries.put(entry.getFileInfo().getSchemaName(), entry);
+            }
+
+            logger.info("Loaded schema snapshot with {} entries from: {}", entries.size(), snapshotFile);
+            return entries;
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable schema snapshot: {} ({})", snapshotFile, e.toString());
+            return new HashMap<>();
+        }
+    }
+
+    /**
+     * Write the snapshot, replacing any existing one atomically.
+     */
+    public void save(Collection<SnapshotEntry> entries) throws IOException {
+        Path tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+
+        CRC32 crc = new CRC32();
+        try (OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+            CheckedOutputStream checked = new CheckedOutputStream(fileOut, crc);
+            DataOutputStream out = new DataOutputStream(checked);
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (SnapshotEntry entry : entries) {
+                writeEntry(out, entry);
+            }
+            out.flush();
+
+            new DataOutputStream(fileOut).writeLong(crc.getValue());
+        }
+
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.debug("Wrote schema snapshot with {} entries to: {}", entries.size(), snapshotFile);
+    }
+
+    public Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    // Serialization
+
+    private void writeEntry(DataOutputStream out, SnapshotEntry entry) throws IOException {
+        SchemaFileInfo info = entry.getFileInfo();
+        writeString(out, info.getSchemaName());
+        out.writeLong(info.getLastModified());
+        out.writeLong(info.getSize());
+        writeString(out, info.getContentHash());
+        writeSchema(out, entry.getSchema());
+    }
+
+    private SnapshotEntry readEntry(DataInputStream in) throws IOException {
+        String schemaName = readString(in);
+        long lastModified = in.readLong();
+        long size = in.readLong();
+        String contentHash = readString(in);
+        SchemaModel schema = readSchema(in);
+        return new SnapshotEntry(new SchemaFileInfo(schemaName, lastModified, size, contentHash), schema);
+    }
+
+    private void writeSchema(DataOutputStream out, SchemaModel schema) throws IOException {
+        writeString(out, schema.getName());
+        writeString(out, schema.getId());
+        writeString(out, schema.getDescription());
+        writeString(out, schema.getParentType());
+        writeProperties(out, schema.getProperties());
+        out.writeInt(schema.getRequired().size());
+        for (String required : schema.getRequired()) {
+            writeString(out, required);
+        }
+    }
+
+    private SchemaModel readSchema(DataInputStream in) throws IOException {
+        SchemaModel.Builder schema = SchemaModel.builder()
+                .name(readString(in))
+                .id(readString(in))
+                .description(readString(in))
+                .parentType(readString(in))
+                .properties(readProperties(in));
+        int requiredCount = readCount(in);
+        for (int i = 0; i < requiredCount; i++) {
+            schema.addRequired(readString(in));
+        }
+        return schema.build();
+    }
+
+    private void writeProperties(DataOutputStream out, List<PropertyDefinition> properties) throws IOException {
+        out.writeInt(properties.size());
+        for (PropertyDefinition property : properties) {
+            writeProperty(out, property);
+        }
+    }
+
+    private List<PropertyDefinition> readProperties(DataInputStream in) throws IOException {
+        int count = readCount(in);
+        List<PropertyDefinition> properties = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            properties.add(readProperty(in));
+        }
+        return properties;
+    }
+
+    private void writeProperty(DataOutputStream out, PropertyDefinition property) throws IOException {
+        writeString(out, property.getName());
+        writeString(out, property.getType());
+        writeString(out, property.getFormat());
+        writeString(out, property.getDescription());
+        writeString(out, property.getRefType());
+        writeValue(out, property.getDefaultValue());
+        writeProperties(out, property.getNestedProperties());
+
+        out.writeBoolean(property.getItemsDefinition() != null);
+        if (property.getItemsDefinition() != null) {
+            writeProperty(out, property.getItemsDefinition());
+        }
+
+        List<String> enumValues = property.getEnumValues();
+        out.writeInt(enumValues == null ? -1 : enumValues.size());
+        if (enumValues != null) {
+            for (String value : enumValues) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    private PropertyDefinition readProperty(DataInputStream in) throws IOException {
+        PropertyDefinition.Builder property = PropertyDefinition.builder(readString(in))
+                .type(readString(in))
+                .format(readString(in))
+                .description(readString(in))
+                .refType(readString(in))
+                .defaultValue(readValue(in))
+                .nestedProperties(readProperties(in));
+
+        if (in.readBoolean()) {
+            property.itemsDefinition(readProperty(in));
+        }
+
+        int enumCount = in.readInt();
+        if (enumCount >= 0) {
+            checkLength(in, enumCount);
+            List<String> enumValues = new ArrayList<>(enumCount);
+            for (int i = 0; i < enumCount; i++) {
+                enumValues.add(readString(in));
+            }
+            property.enumValues(enumValues);
+        }
+        return property.build();
+    }
+
+    private void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(VALUE_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(VALUE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Number) {
+            // Keep the literal text so the value serializes exactly as it was parsed
+            out.writeByte(VALUE_NUMBER);
+            writeString(out, value.toString());
+        } else {
+            out.writeByte(VALUE_STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case VALUE_NULL:
+                return null;
+            case VALUE_BOOLEAN:
+                return in.readBoolean();
+            case VALUE_NUMBER:
+                return new BigDecimal(readString(in));
+            case VALUE_STRING:
+                return readString(in);
+            default:
+                throw new IOException("Unknown value tag: " + tag);
+        }
+    }
+
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        checkLength(in, length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        checkLength(in, count);
+        return count;
+    }
+
+    /**
+     * Every counted element takes at least one byte, so a count or length can never exceed what is left.
+     */
+    private void checkLength(DataInputStream in, int length) throws IOException {
+        if (length < 0 || length > in.available()) {
+            throw new IOException("Invalid length " + length + " with " + in.available() + " bytes remaining");
+        }
+    }
+
+    /**
+     * A parsed schema together with the file index entry it was parsed from.
+     */
+    public static class SnapshotEntry {
+
+        private final SchemaFileInfo fileInfo;
+        private final SchemaModel schema;
+
+        public SnapshotEntry(SchemaFileInfo fileInfo, SchemaModel schema) {
+            this.fileInfo = fileInfo;
+            this.schema = schema;
+        }
+
+        public SchemaFileInfo getFileInfo() {
+            return fileInfo;
+        }
+
+        public SchemaModel getSchema() {
+            return schema;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Persistent storage for raw JSON Schema content, keyed by schema name.
+ * <p>
+ * The store only holds bytes; parsing, change detection and the in-memory cache are handled by
+ * {@link SchemaCacheManager}. Implementations must be safe for concurrent use.
+ */
+public interface SchemaStore extends Closeable {
+
+    /**
+     * Short name of the store, as used in the module configuration.
+     */
+    String getName();
+
+    /**
+     * Prepare the store for use, creating or recovering its files as needed.
+     */
+    void open() throws IOException;
+
+    /**
+     * List every stored schema with its current metadata.
+     * The content hash of an entry may be null if the store only knows file metadata.
+     */
+    Map<String, SchemaFileInfo> list() throws IOException;
+
+    /**
+     * Get the current metadata for one schema, or null if it is not stored.
+     */
+    SchemaFileInfo stat(String schemaName) throws IOException;
+
+    /**
+     * Read the raw content of a schema.
+     *
+     * @throws java.nio.file.NoSuchFileException if the schema is not stored
+     */
+    byte[] read(String schemaName) throws IOException;
+
+    /**
+     * Store the content of a schema, replacing any previous content.
+     *
+     * @return Metadata for the stored content, including its content hash
+     */
+    SchemaFileInfo write(String schemaName, byte[] content) throws IOException;
+
+    /**
+     * Remove a schema from the store.
+     *
+     * @return true if the schema was stored
+     */
+    boolean delete(String schemaName) throws IOException;
+
+    /**
+     * Whether schemas are kept as individual {@code <name>.json} files in the cache directory.
+     * Other stores treat JSON files found in the cache directory as new content to import.
+     */
+    boolean storesSchemaFiles();
+
+    /**
+     * Get the group committer that makes writes durable, e.g. for its batching and latency metrics.
+     */
+    GroupCommitter<?> getCommitter();
+}
@@ -0,0 +1,835 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Schema store that keeps every schema in one append-only segment file instead of one file per schema.
+ * <p>
+ * The segment holds content records, keyed by the SHA-256 of the schema content and stored deflated, and binding
+ * records that point a schema name at a content hash or remove the name. Identical content is stored once however
+ * many names or versions refer to it. Every record carries a CRC-32; a torn record at the end of the segment is
+ * truncated on open.
+ * <p>
+ * An index file checkpoints the name to hash to offset tables. It is memory-mapped when the store is opened, and
+ * only records appended after the checkpoint are replayed. Content and bindings that have been superseded stay in
+ * the segment until it is compacted: a background task rewrites the segment with only the live records once garbage
+ * outweighs live data. Writers wait while a compaction copies the live records.
+ * <p>
+ * Records are appended under the store lock, but the segment is forced outside it, so concurrent writes share one
+ * group-committed sync.
+ */
+public class SegmentSchemaStore implements SchemaStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentSchemaStore.class);
+
+    public static final String NAME = "segment";
+    public static final String SEGMENT_FILE = "schemas.seg";
+    public static final String INDEX_FILE = "schemas.idx";
+
+    private static final int SEGMENT_MAGIC = 0x53534547;   // "SSEG"
+    private static final int INDEX_MAGIC = 0x53494458;     // "SIDX"
+    private static final int FORMAT_VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 16;     // Magic, version, generation
+    private static final int INDEX_HEADER_SIZE = 32;       // Magic, version, generation, segment length, counts
+    private static final int RECORD_OVERHEAD = 9;          // Type, payload length, CRC-32
+    private static final int HASH_LENGTH = 64;             // Hex SHA-256
+    private static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private static final byte CONTENT_RECORD = 1;
+    private static final byte BIND_RECORD = 2;
+    private static final byte UNBIND_RECORD = 3;
+
+    // Compact once at least this much of the segment is garbage and garbage outweighs live data
+    private static final long COMPACTION_MIN_GARBAGE_BYTES = 1024 * 1024;
+    private static final long MAINTENANCE_INTERVAL_SECONDS = 60;
+
+    private final Path directory;
+    private final Path segmentFile;
+    private final Path indexFile;
+    private final boolean backgroundMaintenance;
+    private final GroupCommitter<Long> committer;
+    private final Map<String, Content> contents = new HashMap<>();   // Content hash -> record
+    private final Map<String, Binding> bindings = new HashMap<>();   // Schema name -> current content
+
+    private FileChannel channel;
+    private ScheduledExecutorService maintenance;
+    private long generation;
+    private long segmentLength;
+    private long liveBytes;
+    private long compactionCount;
+    private boolean indexDirty;
+
+    public SegmentSchemaStore(Path directory) {
+        this(directory, true);
+    }
+
+    /**
+     * @param directory             The directory holding the segment and index files
+     * @param backgroundMaintenance Whether to checkpoint the index and compact the segment on a background thread
+     */
+    public SegmentSchemaStore(Path directory, boolean backgroundMaintenance) {
+        this(directory, backgroundMaintenance, 0);
+    }
+
+    /**
+     * @param commitDelayMillis How long a write waits for concurrent writes to share its segment sync
+     */
+    public SegmentSchemaStore(Path directory, boolean backgroundMaintenance, long commitDelayMillis) {
+        this.directory = directory;
+        this.segmentFile = directory.resolve(SEGMENT_FILE);
+        this.indexFile = directory.resolve(INDEX_FILE);
+        this.backgroundMaintenance = backgroundMaintenance;
+        this.committer = new GroupCommitter<>(commitDelayMillis, batch -> syncSegment());
+    }
+
+    /**
+     * Whether a segment file exists in the given directory.
+     */
+    public static boolean exists(Path directory) {
+        return Files.exists(directory.resolve(SEGMENT_FILE));
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        // A compaction that did not finish never replaced the segment
+        Files.deleteIfExists(compactionFile());
+
+        long startNanos = System.nanoTime();
+        channel = FileChannel.open(segmentFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < SEGMENT_HEADER_SIZE) {
+                generation = ThreadLocalRandom.current().nextLong();
+                channel.truncate(0);
+                writeHeader(channel, generation);
+                channel.force(true);
+            } else {
+                readHeader();
+            }
+
+            contents.clear();
+            bindings.clear();
+            replay(loadIndex());
+            recomputeLiveBytes();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            channel = null;
+            throw e;
+        }
+
+        logger.info("Opened schema store {} with {} schemas, {} distinct contents ({} KB, {} KB garbage) in {} ms",
+                segmentFile, bindings.size(), contents.size(), segmentLength / 1024, getGarbageBytes() / 1024,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+
+        if (backgroundMaintenance) {
+            maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "schema-store-maintenance");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+            maintenance.scheduleWithFixedDelay(this::runMaintenance,
+                    MAINTENANCE_INTERVAL_SECONDS, MAINTENANCE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public synchronized Map<String, SchemaFileInfo> list() throws IOException {
+        ensureOpen();
+        Map<String, SchemaFileInfo> entries = new HashMap<>(bindings.size() * 2);
+        for (Map.Entry<String, Binding> entry : bindings.entrySet()) {
+            entries.put(entry.getKey(), toFileInfo(entry.getKey(), entry.getValue()));
+        }
+        return entries;
+    }
+
+    @Override
+    public synchronized SchemaFileInfo stat(String schemaName) throws IOException {
+        ensureOpen();
+        Binding binding = bindings.get(schemaName);
+        return binding != null ? toFileInfo(schemaName, binding) : null;
+    }
+
+    @Override
+    public synchronized byte[] read(String schemaName) throws IOException {
+        ensureOpen();
+        Binding binding = bindings.get(schemaName);
+        if (binding == null) {
+            throw new NoSuchFileException(schemaName);
+        }
+        return readContent(contents.get(binding.hash));
+    }
+
+    @Override
+    public SchemaFileInfo write(String schemaName, byte[] content) throws IOException {
+        String hash = ContentHash.sha256(content);
+        SchemaFileInfo info = appendBinding(schemaName, hash, content);
+        committer.commit(info.getLastModified());
+        return info;
+    }
+
+    private synchronized SchemaFileInfo appendBinding(String schemaName, String hash, byte[] content) throws IOException {
+        ensureOpen();
+        byte[] name = encodeName(schemaName);
+
+        Binding current = bindings.get(schemaName);
+        if (current != null && current.hash.equals(hash)) {
+            return toFileInfo(schemaName, current);
+        }
+
+        if (!contents.containsKey(hash)) {
+            byte[] stored = deflate(content);
+            ByteBuffer payload = ByteBuffer.allocate(HASH_LENGTH + 4 + stored.length);
+            payload.put(hash.getBytes(StandardCharsets.US_ASCII)).putInt(content.length).put(stored);
+            ByteBuffer record = toRecord(CONTENT_RECORD, payload);
+            contents.put(hash, new Content(append(record), record.capacity(), content.length));
+        }
+
+        Binding binding = new Binding(hash, System.currentTimeMillis(), RECORD_OVERHEAD + HASH_LENGTH + 8 + name.length);
+        append(bindRecord(name, binding));
+        bind(schemaName, binding);
+        return toFileInfo(schemaName, binding);
+    }
+
+    @Override
+    public boolean delete(String schemaName) throws IOException {
+        long timestamp = System.currentTimeMillis();
+        if (!appendUnbind(schemaName, timestamp)) {
+            return false;
+        }
+        committer.commit(timestamp);
+        return true;
+    }
+
+    private synchronized boolean appendUnbind(String schemaName, long timestamp) throws IOException {
+        ensureOpen();
+        if (!bindings.containsKey(schemaName)) {
+            return false;
+        }
+        byte[] name = encodeName(schemaName);
+        ByteBuffer payload = ByteBuffer.allocate(8 + name.length);
+        payload.putLong(timestamp).put(name);
+        append(toRecord(UNBIND_RECORD, payload));
+        unbind(schemaName);
+        return true;
+    }
+
+    private void syncSegment() throws IOException {
+        FileChannel current;
+        synchronized (this) {
+            current = channel;
+        }
+        if (current == null) {
+            return;
+        }
+        try {
+            current.force(false);
+        } catch (ClosedChannelException e) {
+            // Replaced by a compaction, which forced everything it copied
+        }
+    }
+
+    @Override
+    public boolean storesSchemaFiles() {
+        return false;
+    }
+
+    @Override
+    public GroupCommitter<?> getCommitter() {
+        return committer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = maintenance;
+            maintenance = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+
+        synchronized (this) {
+            if (channel == null) {
+                return;
+            }
+            writeIndex();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Rewrite the segment with only the live records, dropping superseded content and bindings.
+     * The new segment replaces the old one atomically, so a crash leaves one or the other intact.
+     */
+    public synchronized void compact() throws IOException {
+        ensureOpen();
+        long startNanos = System.nanoTime();
+        long previousLength = segmentLength;
+        long nextGeneration = generation + 1;
+        Path target = compactionFile();
+
+        Map<String, Content> compacted = new HashMap<>();
+        long position = SEGMENT_HEADER_SIZE;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(out, nextGeneration);
+            for (Map.Entry<String, Content> entry : contents.entrySet()) {
+                Content content = entry.getValue();
+                if (content.references == 0) {
+                    continue;
+                }
+                ByteBuffer record = ByteBuffer.allocate(content.recordLength);
+                readFully(channel, record, content.offset);
+                record.flip();
+                writeFully(out, record, position);
+
+                Content moved = new Content(position, content.recordLength, content.rawLength);
+                moved.references = content.references;
+                compacted.put(entry.getKey(), moved);
+                position += content.recordLength;
+            }
+            for (Map.Entry<String, Binding> entry : bindings.entrySet()) {
+                ByteBuffer record = bindRecord(encodeName(entry.getKey()), entry.getValue());
+                writeFully(out, record, position);
+                position += record.capacity();
+            }
+            out.force(true);
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+
+        channel.close();
+        try {
+            Files.move(target, segmentFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            channel = FileChannel.open(segmentFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        contents.clear();
+        contents.putAll(compacted);
+        generation = nextGeneration;
+        segmentLength = position;
+        liveBytes = position - SEGMENT_HEADER_SIZE;
+        compactionCount++;
+        indexDirty = true;
+        writeIndex();
+
+        logger.info("Compacted schema store from {} KB to {} KB in {} ms", previousLength / 1024, position / 1024,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Copy every {@code <name>.json} file in a directory into the store.
+     *
+     * @return The number of schemas imported
+     */
+    public int importDirectory(Path source) throws IOException {
+        DirectorySchemaStore files = new DirectorySchemaStore(source);
+        int imported = 0;
+        for (String schemaName : files.list().keySet()) {
+            write(schemaName, files.read(schemaName));
+            imported++;
+        }
+        return imported;
+    }
+
+    /**
+     * Write every stored schema to a directory as {@code <name>.json} files, replacing existing files.
+     *
+     * @return The number of schemas exported
+     */
+    public int exportDirectory(Path target) throws IOException {
+        DirectorySchemaStore files = new DirectorySchemaStore(target);
+        files.open();
+        int exported = 0;
+        for (String schemaName : list().keySet()) {
+            files.write(schemaName, read(schemaName));
+            exported++;
+        }
+        return exported;
+    }
+
+    /**
+     * Get the size of the segment file in bytes.
+     */
+    public synchronized long getSegmentBytes() {
+        return segmentLength;
+    }
+
+    /**
+     * Get the bytes of the segment still referenced by a schema name.
+     */
+    public synchronized long getLiveBytes() {
+        return liveBytes;
+    }
+
+    /**
+     * Get the bytes of the segment that compaction would reclaim.
+     */
+    public synchronized long getGarbageBytes() {
+        return Math.max(0, segmentLength - SEGMENT_HEADER_SIZE - liveBytes);
+    }
+
+    /**
+     * Get the number of distinct contents held in the segment, including unreferenced ones.
+     */
+    public synchronized int getContentCount() {
+        return contents.size();
+    }
+
+    public synchronized long getCompactionCount() {
+        return compactionCount;
+    }
+
+    public Path getSegmentFile() {
+        return segmentFile;
+    }
+
+    private void runMaintenance() {
+        try {
+            synchronized (this) {
+                if (channel == null) {
+                    return;
+                }
+                long garbage = getGarbageBytes();
+                if (garbage >= COMPACTION_MIN_GARBAGE_BYTES && garbage > liveBytes) {
+                    compact();
+                } else {
+                    writeIndex();
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Schema store maintenance failed", e);
+        }
+    }
+
+    private void readHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+        readFully(channel, header, 0);
+        header.flip();
+        if (header.getInt() != SEGMENT_MAGIC || header.getInt() != FORMAT_VERSION) {
+            throw new IOException("Not a schema segment file: " + segmentFile);
+        }
+        generation = header.getLong();
+    }
+
+    private static void writeHeader(FileChannel target, long generation) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+        header.putInt(SEGMENT_MAGIC).putInt(FORMAT_VERSION).putLong(generation);
+        header.flip();
+        writeFully(target, header, 0);
+    }
+
+    /**
+     * Load the index checkpoint.
+     *
+     * @return The segment offset the checkpoint covers; records after it must be replayed
+     */
+    private long loadIndex() {
+        if (!Files.exists(indexFile)) {
+            return SEGMENT_HEADER_SIZE;
+        }
+        try (FileChannel indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size());
+            long indexedLength = readIndex(buffer);
+            if (indexedLength <= channel.size()) {
+                return indexedLength;
+            }
+            logger.warn("Schema store index {} is ahead of the segment, rebuilding it", indexFile);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Schema store index {} is not usable, rebuilding it: {}", indexFile, e.getMessage());
+        }
+        contents.clear();
+        bindings.clear();
+        return SEGMENT_HEADER_SIZE;
+    }
+
+    private long readIndex(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < INDEX_HEADER_SIZE + 4) {
+            throw new IOException("index is truncated");
+        }
+        ByteBuffer body = buffer.duplicate();
+        body.limit(buffer.limit() - 4);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+            throw new IOException("index checksum mismatch");
+        }
+        if (buffer.getInt() != INDEX_MAGIC || buffer.getInt() != FORMAT_VERSION) {
+            throw new IOException("unsupported index format");
+        }
+        if (buffer.getLong() != generation) {
+            throw new IOException("index was written for a different segment");
+        }
+
+        long indexedLength = buffer.getLong();
+        int contentCount = buffer.getInt();
+        int bindingCount = buffer.getInt();
+        for (int i = 0; i < contentCount; i++) {
+            String hash = readHash(buffer);
+            long offset = buffer.getLong();
+            int recordLength = buffer.getInt();
+            int rawLength = buffer.getInt();
+            contents.put(hash, new Content(offset, recordLength, rawLength));
+        }
+        for (int i = 0; i < bindingCount; i++) {
+            String hash = readHash(buffer);
+            long timestamp = buffer.getLong();
+            int recordLength = buffer.getInt();
+            byte[] name = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(name);
+            bindings.put(new String(name, StandardCharsets.UTF_8), new Binding(hash, timestamp, recordLength));
+        }
+        return indexedLength;
+    }
+
+    /**
+     * Write the index checkpoint if anything changed since the last one. The segment is forced before every
+     * checkpoint, so an index that fails to write or is lost is simply rebuilt from the segment.
+     */
+    private void writeIndex() {
+        if (!indexDirty) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(INDEX_HEADER_SIZE + contents.size() * 80
+                    + bindings.size() * 128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(INDEX_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(generation);
+            out.writeLong(segmentLength);
+            out.writeInt(contents.size());
+            out.writeInt(bindings.size());
+            for (Map.Entry<String, Content> entry : contents.entrySet()) {
+                Content content = entry.getValue();
+                out.write(entry.getKey().getBytes(StandardCharsets.US_ASCII));
+                out.writeLong(content.offset);
+                out.writeInt(content.recordLength);
+                out.writeInt(content.rawLength);
+            }
+            for (Map.Entry<String, Binding> entry : bindings.entrySet()) {
+                Binding binding = entry.getValue();
+                byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                out.write(binding.hash.getBytes(StandardCharsets.US_ASCII));
+                out.writeLong(binding.timestamp);
+                out.writeInt(binding.recordLength);
+                out.writeShort(name.length);
+                out.write(name);
+            }
+            out.flush();
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+
+            Path tempFile = directory.resolve(INDEX_FILE + ".tmp");
+            Files.write(tempFile, bytes.toByteArray());
+            Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            indexDirty = false;
+        } catch (IOException e) {
+            // Replacing a file that is still mapped fails on some platforms; retried at the next checkpoint
+            logger.warn("Failed to write schema store index {}: {}", indexFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Apply the records from the given offset to the end of the segment, truncating a torn or corrupt tail.
+     */
+    private void replay(long position) throws IOException {
+        long size = channel.size();
+        int replayed = 0;
+        while (position < size) {
+            int recordLength = replayRecord(position, size);
+            if (recordLength < 0) {
+                logger.warn("Truncating schema store segment at offset {} of {}: incomplete or corrupt record",
+                        position, size);
+                channel.truncate(position);
+                channel.force(true);
+                break;
+            }
+            position += recordLength;
+            replayed++;
+        }
+        segmentLength = position;
+        if (replayed > 0) {
+            indexDirty = true;
+            logger.debug("Replayed {} schema store records", replayed);
+        }
+    }
+
+    /**
+     * Read and apply one record.
+     *
+     * @return The record length, or -1 if the record is incomplete or corrupt
+     */
+    private int replayRecord(long position, long size) throws IOException {
+        if (size - position < RECORD_OVERHEAD) {
+            return -1;
+        }
+        ByteBuffer header = ByteBuffer.allocate(5);
+        readFully(channel, header, position);
+        byte type = header.get(0);
+        int payloadLength = header.getInt(1);
+        if (payloadLength < 0 || size - position < (long) RECORD_OVERHEAD + payloadLength) {
+            return -1;
+        }
+
+        int recordLength = RECORD_OVERHEAD + payloadLength;
+        ByteBuffer record = ByteBuffer.allocate(recordLength);
+        readFully(channel, record, position);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, recordLength - 4);
+        if ((int) crc.getValue() != record.getInt(recordLength - 4)) {
+            return -1;
+        }
+
+        ByteBuffer payload = ByteBuffer.wrap(record.array(), 5, payloadLength).slice();
+        switch (type) {
+            case CONTENT_RECORD: {
+                String hash = readHash(payload);
+                contents.putIfAbsent(hash, new Content(position, recordLength, payload.getInt()));
+                break;
+            }
+            case BIND_RECORD: {
+                String hash = readHash(payload);
+                long timestamp = payload.getLong();
+                String name = StandardCharsets.UTF_8.decode(payload).toString();
+                if (!contents.containsKey(hash)) {
+                    logger.warn("Schema store binding for {} refers to missing content, ignoring it", name);
+                    break;
+                }
+                bindings.put(name, new Binding(hash, timestamp, recordLength));
+                break;
+            }
+            case UNBIND_RECORD: {
+                payload.getLong();
+                bindings.remove(StandardCharsets.UTF_8.decode(payload).toString());
+                break;
+            }
+            default:
+                return -1;
+        }
+        return recordLength;
+    }
+
+    private void recomputeLiveBytes() {
+        for (Content content : contents.values()) {
+            content.references = 0;
+        }
+        liveBytes = 0;
+        bindings.entrySet().removeIf(entry -> {
+            Content content = contents.get(entry.getValue().hash);
+            if (content == null) {
+                logger.warn("Schema store index entry for {} refers to missing content, ignoring it", entry.getKey());
+                return true;
+            }
+            liveBytes += entry.getValue().recordLength;
+            if (content.references++ == 0) {
+                liveBytes += content.recordLength;
+            }
+            return false;
+        });
+    }
+
+    private void bind(String schemaName, Binding binding) {
+        Binding previous = bindings.put(schemaName, binding);
+        if (previous != null) {
+            release(previous);
+        }
+        liveBytes += binding.recordLength;
+        Content content = contents.get(binding.hash);
+        if (content.references++ == 0) {
+            liveBytes += content.recordLength;
+        }
+    }
+
+    private void unbind(String schemaName) {
+        Binding previous = bindings.remove(schemaName);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    private void release(Binding binding) {
+        liveBytes -= binding.recordLength;
+        Content content = contents.get(binding.hash);
+        if (--content.references == 0) {
+            liveBytes -= content.recordLength;
+        }
+    }
+
+    private long append(ByteBuffer record) throws IOException {
+        long offset = segmentLength;
+        writeFully(channel, record, offset);
+        segmentLength += record.capacity();
+        indexDirty = true;
+        return offset;
+    }
+
+    private ByteBuffer bindRecord(byte[] name, Binding binding) {
+        ByteBuffer payload = ByteBuffer.allocate(HASH_LENGTH + 8 + name.length);
+        payload.put(binding.hash.getBytes(StandardCharsets.US_ASCII)).putLong(binding.timestamp).put(name);
+        return toRecord(BIND_RECORD, payload);
+    }
+
+    private static ByteBuffer toRecord(byte type, ByteBuffer payload) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + payload.capacity());
+        record.put(type).putInt(payload.capacity()).put(payload.array(), 0, payload.capacity());
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+        return record;
+    }
+
+    private byte[] readContent(Content content) throws IOException {
+        int storedLength = content.recordLength - RECORD_OVERHEAD - HASH_LENGTH - 4;
+        ByteBuffer stored = ByteBuffer.allocate(storedLength);
+        readFully(channel, stored, content.offset + 5 + HASH_LENGTH + 4);
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored.array());
+            byte[] raw = new byte[content.rawLength];
+            int length = 0;
+            while (length < raw.length) {
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != raw.length) {
+                throw new IOException("Truncated schema content at segment offset " + content.offset);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt schema content at segment offset " + content.offset, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] deflate(byte[] content) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, content.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] encodeName(String schemaName) throws IOException {
+        byte[] name = schemaName.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IOException("Schema name is too long for the segment store: " + schemaName);
+        }
+        return name;
+    }
+
+    private static String readHash(ByteBuffer buffer) {
+        byte[] hash = new byte[HASH_LENGTH];
+        buffer.get(hash);
+        return new String(hash, StandardCharsets.US_ASCII);
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = source.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of schema segment");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            target.write(buffer, start + buffer.position());
+        }
+    }
+
+    private SchemaFileInfo toFileInfo(String schemaName, Binding binding) {
+        return new SchemaFileInfo(schemaName, binding.timestamp, contents.get(binding.hash).rawLength, binding.hash);
+    }
+
+    private Path compactionFile() {
+        return directory.resolve(SEGMENT_FILE + ".compact");
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            throw new IOException("Schema store is not open: " + segmentFile);
+        }
+    }
+
+    private static final class Content {
+        final long offset;
+        final int recordLength;
+        final int rawLength;
+        int references;
+
+        Content(long offset, int recordLength, int rawLength) {
+            this.offset = offset;
+            this.recordLength = recordLength;
+            this.rawLength = rawLength;
+        }
+    }
+
+    private static final class Binding {
+        final String hash;
+        final long timestamp;
+        final int recordLength;
+
+        Binding(String hash, long timestamp, int recordLength) {
+            this.hash = hash;
+            this.timestamp = timestamp;
+            this.recordLength = recordLength;
+        }
+    }
+}
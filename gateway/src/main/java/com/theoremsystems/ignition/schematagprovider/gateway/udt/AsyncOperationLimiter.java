@@ -0,0 +1,130 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of asynchronous operations in flight without blocking any thread.
+ * <p>
+ * Operations beyond the limit are queued and started on the executor as earlier operations complete, never on the
+ * thread that completed the previous operation. A slot is released when the operation completes or its timeout
+ * fires, whichever comes first, so an operation that never completes cannot hold a slot forever.
+ */
+public class AsyncOperationLimiter {
+
+    private final int maxInFlight;
+    private final Executor executor;
+    private final Deque<Waiting> waiting = new ArrayDeque<>();
+    private int inFlight = 0;
+
+    /**
+     * @param executor Starts queued operations once a slot frees up
+     */
+    public AsyncOperationLimiter(int maxInFlight, Executor executor) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.executor = executor;
+    }
+
+    /**
+     * Submit an operation. It is started immediately if below the limit, otherwise when a slot frees up.
+     *
+     * @param operation Starts the operation and returns its future
+     * @param timeout   How long after starting the returned future waits before failing with a
+     *                  {@link java.util.concurrent.TimeoutException} and the slot is released
+     * @return A future completed with the operation's result
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> operation, long timeout, TimeUnit unit) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable start = () -> {
+            CompletableFuture<T> started;
+            try {
+                started = operation.get();
+            } catch (Throwable t) {
+                started = CompletableFuture.failedFuture(t);
+            }
+            // The copy completes exactly once, on the operation's outcome or on the timeout, so the slot is
+            // released once
+            started.copy().orTimeout(timeout, unit).whenComplete((value, error) -> {
+                release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        };
+
+        boolean startNow;
+        synchronized (this) {
+            startNow = inFlight < maxInFlight;
+            if (startNow) {
+                inFlight++;
+            } else {
+                waiting.add(new Waiting(start, result));
+            }
+        }
+        if (startNow) {
+            start.run();
+        }
+        return result;
+    }
+
+    private void release() {
+        while (true) {
+            Waiting next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+            }
+            // The slot passes directly to the next waiting operation
+            try {
+                executor.execute(next.start);
+                return;
+            } catch (RejectedExecutionException e) {
+                next.result.completeExceptionally(
+                        new CancellationException("Executor shut down before the operation started"));
+            }
+        }
+    }
+
+    /**
+     * Cancel all operations that have not started yet.
+     */
+    public void cancelWaiting() {
+        Waiting[] cancelled;
+        synchronized (this) {
+            cancelled = waiting.toArray(new Waiting[0]);
+            waiting.clear();
+        }
+        for (Waiting operation : cancelled) {
+            operation.result.completeExceptionally(new CancellationException("Operation cancelled before it started"));
+        }
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getWaiting() {
+        return waiting.size();
+    }
+
+    private static class Waiting {
+        private final Runnable start;
+        private final CompletableFuture<?> result;
+
+        Waiting(Runnable start, CompletableFuture<?> result) {
+            this.start = start;
+            this.result = result;
+        }
+    }
+}
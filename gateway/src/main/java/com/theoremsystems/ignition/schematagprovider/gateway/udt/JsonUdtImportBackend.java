@@ -0,0 +1,106 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.sqltags.model.types.DataType;
+import com.inductiveautomation.ignition.common.tags.config.BasicTagConfiguration;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.config.TagConfiguration;
+import com.inductiveautomation.ignition.common.tags.config.properties.WellKnownTagProps;
+import com.inductiveautomation.ignition.common.tags.config.types.TagObjectType;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.model.TagProvider;
+import com.inductiveautomation.ignition.common.tags.paths.parser.TagPathParser;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.PropertyDefinition;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Imports UDT definitions as Ignition tag JSON through {@link TagProvider#importTagsAsync}.
+ */
+public class JsonUdtImportBackend implements UdtImportBackend {
+
+    public static final String NAME = "json";
+
+    private final UdtDefinitionBuilder builder;
+
+    public JsonUdtImportBackend(UdtDefinitionBuilder builder) {
+        this.builder = builder;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<List<QualityCode>> importNestedTypes(TagProvider provider, List<SchemaModel> schemas)
+            throws Exception {
+        return importJson(provider, builder.buildNestedUdtJsonArray(schemas));
+    }
+
+    @Override
+    public CompletableFuture<List<QualityCode>> importTypes(TagProvider provider, List<SchemaModel> schemas)
+            throws Exception {
+        return importJson(provider, builder.buildUdtJsonArray(schemas));
+    }
+
+    @Override
+    public CompletableFuture<List<QualityCode>> saveMembers(TagProvider provider, String udtName,
+                                                            List<PropertyDefinition> members, CollisionPolicy policy)
+            throws Exception {
+        var udtPath = TagPathParser.parse(TYPES_PATH + "/" + udtName);
+        return provider.importTagsAsync(udtPath, builder.buildMemberJsonArray(udtName, members), "json", policy);
+    }
+
+    /**
+     * Build the definitions from the JSON this backend imports. Only the name, tag type, data type and type id of
+     * each UDT and member are carried over.
+     */
+    @Override
+    public List<TagConfiguration> buildDefinitions(SchemaModel schema) throws Exception {
+        TagPath typesPath = TagPathParser.parse(TYPES_PATH);
+        List<TagConfiguration> configs = new ArrayList<>();
+        for (JsonElement udt : JsonParser.parseString(builder.buildNestedUdtJsonArray(List.of(schema)))
+                .getAsJsonArray()) {
+            addDefinition(typesPath, udt.getAsJsonObject(), configs);
+        }
+        addDefinition(typesPath, JsonParser.parseString(builder.buildUdtJson(schema)).getAsJsonObject(), configs);
+        return configs;
+    }
+
+    private static void addDefinition(TagPath typesPath, JsonObject json, List<TagConfiguration> configs) {
+        TagPath udtPath = typesPath.getChildPath(json.get("name").getAsString());
+        configs.add(toConfiguration(udtPath, json));
+        if (json.has("tags")) {
+            for (JsonElement member : json.getAsJsonArray("tags")) {
+                JsonObject memberJson = member.getAsJsonObject();
+                configs.add(toConfiguration(udtPath.getChildPath(memberJson.get("name").getAsString()), memberJson));
+            }
+        }
+    }
+
+    private static TagConfiguration toConfiguration(TagPath path, JsonObject json) {
+        BasicTagConfiguration config = BasicTagConfiguration.createNew(path);
+        config.setType(TagObjectType.valueOf(json.get("tagType").getAsString()));
+        if (json.has("dataType")) {
+            config.set(WellKnownTagProps.DataType, DataType.valueOf(json.get("dataType").getAsString()));
+        }
+        if (json.has("typeId")) {
+            config.set(WellKnownTagProps.TypeId, json.get("typeId").getAsString());
+        }
+        return config;
+    }
+
+    private CompletableFuture<List<QualityCode>> importJson(TagProvider provider, String json) throws Exception {
+        var typesPath = TagPathParser.parse(TYPES_PATH);
+
+        // Import using Overwrite collision policy to update existing UDTs
+        return provider.importTagsAsync(typesPath, json, "json", CollisionPolicy.Overwrite);
+    }
+}
@@ -0,0 +1,186 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only journal of the UDT definitions successfully written to each tag provider.
+ * <p>
+ * Each line records the fingerprint of the UDT definition last applied for a type, or that the type was forgotten. On
+ * startup the latest entry per provider and type seeds the synchronizer, so a sync interrupted by a restart only
+ * repeats the types that were still pending or have changed since. The journal is an optimization: a lost or
+ * unreadable journal only means a full sync.
+ */
+public class SyncJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncJournal.class);
+
+    public static final String FILE_NAME = "sync-journal.log";
+
+    private static final String APPLIED = "A";
+    private static final String FORGOTTEN = "F";
+    private static final char SEPARATOR = '\t';
+
+    // Rewrite the journal on open once it holds this many lines per live entry
+    private static final int COMPACT_RATIO = 4;
+    private static final int COMPACT_MIN_LINES = 1000;
+
+    private final Path file;
+    private final Map<String, Map<String, String>> fingerprints = new HashMap<>();   // Provider -> type -> fingerprint
+    private BufferedWriter writer;
+
+    public SyncJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Load the journal and open it for appending.
+     */
+    public synchronized void open() throws IOException {
+        fingerprints.clear();
+        int lines = 0;
+        if (Files.exists(file)) {
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines++;
+                    apply(line);
+                }
+            }
+        }
+
+        int entries = size();
+        if (lines > COMPACT_MIN_LINES && lines > entries * COMPACT_RATIO) {
+            rewrite();
+            logger.info("Compacted sync journal from {} to {} lines", lines, entries);
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        logger.info("Loaded sync journal {} with {} entries", file, entries);
+    }
+
+    /**
+     * Get the fingerprints journaled for a provider, by UDT type name.
+     */
+    public synchronized Map<String, String> getFingerprints(String providerName) {
+        Map<String, String> entries = fingerprints.get(providerName);
+        return entries != null ? new HashMap<>(entries) : new HashMap<>();
+    }
+
+    /**
+     * Record that a UDT definition with the given fingerprint was applied to a provider.
+     */
+    public synchronized void recordApplied(String providerName, String typeName, String fingerprint) {
+        if (fingerprint.equals(fingerprints.getOrDefault(providerName, Map.of()).get(typeName))) {
+            return;
+        }
+        if (append(APPLIED + SEPARATOR + providerName + SEPARATOR + typeName + SEPARATOR + fingerprint,
+                providerName, typeName)) {
+            fingerprints.computeIfAbsent(providerName, key -> new HashMap<>()).put(typeName, fingerprint);
+        }
+    }
+
+    /**
+     * Record that the state of a UDT in a provider is no longer known, e.g. after it was removed or failed to sync.
+     */
+    public synchronized void recordForgotten(String providerName, String typeName) {
+        Map<String, String> entries = fingerprints.get(providerName);
+        if (entries == null || !entries.containsKey(typeName)) {
+            return;
+        }
+        if (append(FORGOTTEN + SEPARATOR + providerName + SEPARATOR + typeName, providerName, typeName)) {
+            entries.remove(typeName);
+        }
+    }
+
+    /**
+     * Get the number of journaled entries across all providers.
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (Map<String, String> entries : fingerprints.values()) {
+            size += entries.size();
+        }
+        return size;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close sync journal {}: {}", file, e.getMessage());
+        }
+        writer = null;
+    }
+
+    private boolean append(String line, String providerName, String typeName) {
+        if (writer == null || !isValidKey(providerName) || !isValidKey(typeName)) {
+            return false;
+        }
+        try {
+            writer.write(line);
+            writer.newLine();
+            // Flushed to the OS per entry; losing the tail to a power failure only repeats those imports
+            writer.flush();
+            return true;
+        } catch (IOException e) {
+            logger.warn("Failed to write sync journal {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    private void apply(String line) {
+        String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+        if (fields.length == 4 && APPLIED.equals(fields[0])) {
+            fingerprints.computeIfAbsent(fields[1], key -> new HashMap<>()).put(fields[2], fields[3]);
+        } else if (fields.length == 3 && FORGOTTEN.equals(fields[0])) {
+            Map<String, String> entries = fingerprints.get(fields[1]);
+            if (entries != null) {
+                entries.remove(fields[2]);
+            }
+        } else if (!line.isEmpty()) {
+            // Most likely a line torn by a crash; the entry is simply re-synced
+            logger.debug("Ignoring malformed sync journal line: {}", line);
+        }
+    }
+
+    private void rewrite() throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Map<String, String>> provider : fingerprints.entrySet()) {
+                for (Map.Entry<String, String> entry : provider.getValue().entrySet()) {
+                    out.write(APPLIED + SEPARATOR + provider.getKey() + SEPARATOR + entry.getKey()
+                            + SEPARATOR + entry.getValue());
+                    out.newLine();
+                }
+            }
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static boolean isValidKey(String key) {
+        return key.indexOf(SEPARATOR) < 0 && key.indexOf('\n') < 0 && key.indexOf('\r') < 0;
+    }
+}
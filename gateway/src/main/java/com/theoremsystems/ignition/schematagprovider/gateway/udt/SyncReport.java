@@ -0,0 +1,143 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Aggregate results of one UDT sync run.
+ */
+public class SyncReport {
+
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger imported = new AtomicInteger();
+    private final AtomicInteger patched = new AtomicInteger();
+    private final AtomicInteger removed = new AtomicInteger();
+    private final AtomicInteger unchanged = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final AtomicInteger timedOut = new AtomicInteger();
+    private final AtomicInteger importCalls = new AtomicInteger();
+    private volatile long durationMillis = -1;
+
+    void addTotal(int count) {
+        total.addAndGet(count);
+    }
+
+    void addImported(int count) {
+        imported.addAndGet(count);
+    }
+
+    void addPatched(int count) {
+        patched.addAndGet(count);
+    }
+
+    void addRemoved(int count) {
+        removed.addAndGet(count);
+    }
+
+    void addUnchanged(int count) {
+        unchanged.addAndGet(count);
+    }
+
+    void addFailed(int count) {
+        failed.addAndGet(count);
+    }
+
+    void addTimedOut(int count) {
+        timedOut.addAndGet(count);
+    }
+
+    void addImportCall() {
+        importCalls.incrementAndGet();
+    }
+
+    /**
+     * Add the counts of another run, e.g. the same sync against another provider.
+     */
+    void add(SyncReport other) {
+        total.addAndGet(other.getTotal());
+        imported.addAndGet(other.getImported());
+        patched.addAndGet(other.getPatched());
+        removed.addAndGet(other.getRemoved());
+        unchanged.addAndGet(other.getUnchanged());
+        failed.addAndGet(other.getFailed());
+        timedOut.addAndGet(other.getTimedOut());
+        importCalls.addAndGet(other.getImportCalls());
+    }
+
+    SyncReport finish() {
+        durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return this;
+    }
+
+    public int getTotal() {
+        return total.get();
+    }
+
+    public int getImported() {
+        return imported.get();
+    }
+
+    /**
+     * Number of schemas whose existing UDT was updated member by member instead of being imported again.
+     */
+    public int getPatched() {
+        return patched.get();
+    }
+
+    /**
+     * Number of UDTs removed by a removal run.
+     */
+    public int getRemoved() {
+        return removed.get();
+    }
+
+    public int getUnchanged() {
+        return unchanged.get();
+    }
+
+    /**
+     * Number of schemas that failed to sync, including those that timed out.
+     */
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getTimedOut() {
+        return timedOut.get();
+    }
+
+    public int getImportCalls() {
+        return importCalls.get();
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Number of schemas that are in sync after this run: imported, patched, removed or unchanged.
+     */
+    public int getSucceeded() {
+        return imported.get() + patched.get() + removed.get() + unchanged.get();
+    }
+
+    public boolean isSuccessful() {
+        return failed.get() == 0 && getSucceeded() == total.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SyncReport{" +
+                "total=" + total +
+                ", imported=" + imported +
+                ", patched=" + patched +
+                ", removed=" + removed +
+                ", unchanged=" + unchanged +
+                ", failed=" + failed +
+                ", timedOut=" + timedOut +
+                ", importCalls=" + importCalls +
+                ", durationMillis=" + durationMillis +
+                '}';
+    }
+}
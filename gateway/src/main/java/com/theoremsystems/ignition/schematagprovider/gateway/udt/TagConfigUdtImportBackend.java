@@ -0,0 +1,362 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.inductiveautomation.ignition.common.config.BasicProperty;
+import com.inductiveautomation.ignition.common.config.BasicPropertySet;
+import com.inductiveautomation.ignition.common.config.Property;
+import com.inductiveautomation.ignition.common.config.PropertySet;
+import com.inductiveautomation.ignition.common.model.values.BasicQualifiedValue;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.sqltags.model.types.DataType;
+import com.inductiveautomation.ignition.common.tags.config.BasicTagConfiguration;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.config.TagConfiguration;
+import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
+import com.inductiveautomation.ignition.common.tags.config.properties.WellKnownTagProps;
+import com.inductiveautomation.ignition.common.tags.config.types.TagObjectType;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.model.TagProvider;
+import com.inductiveautomation.ignition.common.tags.paths.parser.TagPathParser;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.DataTypeMapper;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.PropertyDefinition;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Saves UDT definitions as tag configuration objects through {@link TagProvider#saveTagConfigsAsync}, skipping
+ * the JSON text that the import path generates and Ignition parses again.
+ * <p>
+ * Each UDT is saved as a UdtType configuration followed by one configuration per member. Members the schema no
+ * longer defines are removed afterwards, since saving does not delete them. Member and removal results are folded
+ * into a single result per UDT.
+ */
+public class TagConfigUdtImportBackend implements UdtImportBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(TagConfigUdtImportBackend.class);
+
+    public static final String NAME = "config";
+
+    // Same read-only access as the JSON builder writes: readPermissions {accessRights: Read_Only}
+    private static final Property<PropertySet> READ_PERMISSIONS =
+            new BasicProperty<>(UdtDefinitionBuilder.READ_PERMISSIONS, PropertySet.class);
+    private static final Property<String> ACCESS_RIGHTS =
+            new BasicProperty<>(UdtDefinitionBuilder.ACCESS_RIGHTS, String.class);
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CompletableFuture<List<QualityCode>> importNestedTypes(TagProvider provider, List<SchemaModel> schemas)
+            throws Exception {
+        TagPath typesPath = TagPathParser.parse(TYPES_PATH);
+        List<TagConfiguration> configs = new ArrayList<>();
+        List<SavedUdt> udts = new ArrayList<>();
+        for (SchemaModel schema : schemas) {
+            addNestedTypes(typesPath, schema.getName(), schema.getProperties(), configs, udts);
+        }
+        return save(provider, configs, udts);
+    }
+
+    @Override
+    public CompletableFuture<List<QualityCode>> importTypes(TagProvider provider, List<SchemaModel> schemas)
+            throws Exception {
+        TagPath typesPath = TagPathParser.parse(TYPES_PATH);
+        List<TagConfiguration> configs = new ArrayList<>();
+        List<SavedUdt> udts = new ArrayList<>();
+        for (SchemaModel schema : schemas) {
+            String parentType = schema.hasParent() ? schema.getParentType() : null;
+            int size = addUdt(typesPath, schema.getName(), schema.getDescription(), parentType,
+                    schema.getProperties(), configs);
+            // Parsed, since a parent type id may include folders
+            TagPath parentPath = parentType != null ? TagPathParser.parse(TYPES_PATH + "/" + parentType) : null;
+            udts.add(new SavedUdt(configs, size, parentPath));
+        }
+        return save(provider, configs, udts);
+    }
+
+    @Override
+    public CompletableFuture<List<QualityCode>> saveMembers(TagProvider provider, String udtName,
+                                                            List<PropertyDefinition> members, CollisionPolicy policy)
+            throws Exception {
+        TagPath udtPath = TagPathParser.parse(TYPES_PATH + "/" + udtName);
+        List<TagConfiguration> configs = new ArrayList<>(members.size());
+        for (PropertyDefinition prop : members) {
+            TagConfiguration member = buildMember(udtPath, prop, udtName);
+            if (member != null) {
+                configs.add(member);
+            }
+        }
+        if (configs.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return provider.saveTagConfigsAsync(configs, policy);
+    }
+
+    @Override
+    public List<TagConfiguration> buildDefinitions(SchemaModel schema) throws Exception {
+        TagPath typesPath = TagPathParser.parse(TYPES_PATH);
+        List<TagConfiguration> configs = new ArrayList<>();
+        addNestedTypes(typesPath, schema.getName(), schema.getProperties(), configs, new ArrayList<>());
+        addUdt(typesPath, schema.getName(), schema.getDescription(),
+                schema.hasParent() ? schema.getParentType() : null, schema.getProperties(), configs);
+        return configs;
+    }
+
+    /**
+     * Build the configurations for a UDT and its members.
+     *
+     * @return The number of configurations added
+     */
+    public int addUdt(TagPath typesPath, String name, String description, String parentType,
+                      List<PropertyDefinition> properties, List<TagConfiguration> configs) {
+        int before = configs.size();
+        TagPath udtPath = typesPath.getChildPath(name);
+
+        BasicTagConfiguration udt = BasicTagConfiguration.createNew(udtPath);
+        udt.setType(TagObjectType.UdtType);
+        if (description != null && !description.isEmpty()) {
+            udt.set(WellKnownTagProps.Documentation, description);
+        }
+        if (parentType != null) {
+            udt.set(WellKnownTagProps.TypeId, parentType);
+        }
+        configs.add(udt);
+
+        for (PropertyDefinition prop : properties) {
+            TagConfiguration member = buildMember(udtPath, prop, name);
+            if (member != null) {
+                configs.add(member);
+            }
+        }
+        return configs.size() - before;
+    }
+
+    /**
+     * Build the configuration for a single UDT member, or null if the property cannot be mapped.
+     */
+    public TagConfiguration buildMember(TagPath udtPath, PropertyDefinition prop, String udtName) {
+        BasicTagConfiguration tag = BasicTagConfiguration.createNew(udtPath.getChildPath(prop.getName()));
+
+        if (prop.getDescription() != null && !prop.getDescription().isEmpty()) {
+            tag.set(WellKnownTagProps.Tooltip, prop.getDescription());
+        }
+
+        if (prop.isReference()) {
+            tag.setType(TagObjectType.UdtInstance);
+            tag.set(WellKnownTagProps.TypeId, prop.getRefType());
+            return tag;
+        }
+
+        if (prop.isObject() && prop.hasNestedProperties()) {
+            tag.setType(TagObjectType.UdtInstance);
+            tag.set(WellKnownTagProps.TypeId, UdtDefinitionBuilder.nestedTypeName(udtName, prop));
+            return tag;
+        }
+
+        String ignitionType = prop.isArray()
+                ? "DataSet"
+                : DataTypeMapper.mapToIgnitionType(prop.getType(), prop.getFormat());
+        if (ignitionType == null) {
+            logger.warn("Could not map type for property: {} type: {}", prop.getName(), prop.getType());
+            return null;
+        }
+
+        DataType dataType = DataType.valueOf(ignitionType);
+        tag.setType(TagObjectType.AtomicTag);
+        tag.set(WellKnownTagProps.ValueSource, WellKnownTagProps.MEMORY_TAG_TYPE);
+        tag.set(WellKnownTagProps.DataType, dataType);
+        if (!prop.isArray() && prop.getDefaultValue() != null) {
+            tag.set(WellKnownTagProps.Value, new BasicQualifiedValue(toValue(prop.getDefaultValue(), dataType)));
+        }
+        tag.set(READ_PERMISSIONS, readOnlyPermissions());
+        return tag;
+    }
+
+    private static PropertySet readOnlyPermissions() {
+        BasicPropertySet permissions = new BasicPropertySet();
+        permissions.set(ACCESS_RIGHTS, UdtDefinitionBuilder.READ_ONLY);
+        return permissions;
+    }
+
+    private void addNestedTypes(TagPath typesPath, String ownerName, List<PropertyDefinition> properties,
+                                List<TagConfiguration> configs, List<SavedUdt> udts) {
+        for (PropertyDefinition prop : properties) {
+            if (UdtDefinitionBuilder.isNestedType(prop)) {
+                String nestedTypeName = UdtDefinitionBuilder.nestedTypeName(ownerName, prop);
+                // Same order as the JSON builder: deeply nested types first
+                addNestedTypes(typesPath, nestedTypeName, prop.getNestedProperties(), configs, udts);
+                int size = addUdt(typesPath, nestedTypeName, "Nested type for " + ownerName + "." + prop.getName(),
+                        null, prop.getNestedProperties(), configs);
+                udts.add(new SavedUdt(configs, size, null));
+            }
+        }
+    }
+
+    private Object toValue(Object defaultValue, DataType dataType) {
+        if (defaultValue instanceof Number) {
+            Number number = (Number) defaultValue;
+            switch (dataType) {
+                case Int1:
+                case Int2:
+                case Int4:
+                case Int8:
+                    return number.longValue();
+                default:
+                    return number.doubleValue();
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Save the configurations, fold the per-configuration results into one result per UDT and remove the members
+     * the saved UDTs no longer define.
+     */
+    private CompletableFuture<List<QualityCode>> save(TagProvider provider, List<TagConfiguration> configs,
+                                                      List<SavedUdt> udts) {
+        if (configs.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        return provider.saveTagConfigsAsync(configs, CollisionPolicy.Overwrite).thenCompose(results -> {
+            if (results.size() != configs.size()) {
+                // Cannot be attributed to individual UDTs; the synchronizer treats a size mismatch as unmapped
+                return CompletableFuture.completedFuture(results);
+            }
+            List<QualityCode> perUdt = new ArrayList<>(udts.size());
+            int offset = 0;
+            for (SavedUdt udt : udts) {
+                QualityCode result = QualityCode.Good;
+                for (QualityCode code : results.subList(offset, offset + udt.size)) {
+                    if (!code.isGood()) {
+                        result = code;
+                        break;
+                    }
+                }
+                perUdt.add(result);
+                offset += udt.size;
+            }
+            return removeStaleMembers(provider, udts, perUdt);
+        });
+    }
+
+    /**
+     * Remove the members of the saved UDTs that are not in their configuration. Members inherited from a parent
+     * type are kept. A UDT whose members cannot be read or removed gets the failing result, so it is retried.
+     */
+    private CompletableFuture<List<QualityCode>> removeStaleMembers(TagProvider provider, List<SavedUdt> udts,
+                                                                    List<QualityCode> perUdt) {
+        List<TagPath> paths = new ArrayList<>();
+        for (SavedUdt udt : udts) {
+            paths.add(udt.path);
+        }
+        Map<TagPath, Integer> parentIndexes = new HashMap<>();
+        for (SavedUdt udt : udts) {
+            if (udt.parentPath != null && !parentIndexes.containsKey(udt.parentPath)) {
+                parentIndexes.put(udt.parentPath, paths.size());
+                paths.add(udt.parentPath);
+            }
+        }
+
+        return provider.getTagConfigsAsync(paths, true, true).handle((models, error) -> {
+            if (error != null || models == null || models.size() != paths.size()) {
+                logger.warn("Could not read saved UDTs to remove stale members: {}",
+                        error != null ? error.getMessage() : models);
+                failAll(perUdt, null);
+                return CompletableFuture.completedFuture(perUdt);
+            }
+
+            List<TagPath> stale = new ArrayList<>();
+            List<Integer> owners = new ArrayList<>();
+            for (int i = 0; i < udts.size(); i++) {
+                SavedUdt udt = udts.get(i);
+                if (!perUdt.get(i).isGood()) {
+                    continue;
+                }
+                Set<String> keep = new HashSet<>(udt.members);
+                if (udt.parentPath != null) {
+                    keep.addAll(memberNames(models.get(parentIndexes.get(udt.parentPath))));
+                }
+                for (String member : memberNames(models.get(i))) {
+                    if (!keep.contains(member)) {
+                        stale.add(udt.path.getChildPath(member));
+                        owners.add(i);
+                    }
+                }
+            }
+            if (stale.isEmpty()) {
+                return CompletableFuture.completedFuture(perUdt);
+            }
+
+            logger.debug("Removing {} members no longer defined by their schema: {}", stale.size(), stale);
+            return provider.removeTagConfigsAsync(stale).handle((results, removeError) -> {
+                if (removeError != null || results.size() != stale.size()) {
+                    logger.warn("Failed to remove stale UDT members {}: {}", stale,
+                            removeError != null ? removeError.getMessage() : results);
+                    failAll(perUdt, owners);
+                } else {
+                    for (int i = 0; i < results.size(); i++) {
+                        if (!results.get(i).isGood()) {
+                            perUdt.set(owners.get(i), results.get(i));
+                        }
+                    }
+                }
+                return perUdt;
+            });
+        }).thenCompose(next -> next);
+    }
+
+    /**
+     * Mark the given UDTs, or all of them if null, as failed unless they already are.
+     */
+    private static void failAll(List<QualityCode> perUdt, List<Integer> indexes) {
+        for (int i = 0; i < perUdt.size(); i++) {
+            if (perUdt.get(i).isGood() && (indexes == null || indexes.contains(i))) {
+                perUdt.set(i, QualityCode.Bad);
+            }
+        }
+    }
+
+    private static Set<String> memberNames(TagConfigurationModel model) {
+        Set<String> names = new HashSet<>();
+        if (model != null && model.getChildren() != null) {
+            for (TagConfigurationModel child : model.getChildren()) {
+                names.add(child.getPath() != null ? child.getPath().getItemName() : child.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * A UDT in a batch of configurations: the UdtType configuration followed by its members.
+     */
+    private static class SavedUdt {
+        private final TagPath path;
+        private final int size;
+        private final Set<String> members = new HashSet<>();
+        private final TagPath parentPath;    // null if the UDT has no parent
+
+        /**
+         * Describe the UDT whose configurations were just added to the end of the list.
+         */
+        SavedUdt(List<TagConfiguration> configs, int size, TagPath parentPath) {
+            List<TagConfiguration> own = configs.subList(configs.size() - size, configs.size());
+            this.path = own.get(0).getPath();
+            this.size = size;
+            this.parentPath = parentPath;
+            for (TagConfiguration member : own.subList(1, size)) {
+                members.add(member.getPath().getItemName());
+            }
+        }
+    }
+}
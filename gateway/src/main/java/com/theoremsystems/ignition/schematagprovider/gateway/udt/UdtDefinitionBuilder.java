@@ -1,27 +1,37 @@
 package com.theoremsystems.ignition.schematagprovider.gateway.udt;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
 import com.theoremsystems.ignition.schematagprovider.gateway.schema.DataTypeMapper;
 import com.theoremsystems.ignition.schematagprovider.gateway.schema.PropertyDefinition;
 import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Builds Ignition UDT definition JSON from SchemaModel objects.
+ * <p>
+ * JSON is streamed with a {@link JsonWriter} into a per-thread buffer that is reused between calls, so a schema
+ * and all of its nested types are written in a single pass without building an intermediate tree. Output is compact.
  */
 public class UdtDefinitionBuilder {
 
     private static final Logger logger = LoggerFactory.getLogger(UdtDefinitionBuilder.class);
 
-    private final Gson gson;
+    // Buffers that grew beyond this are not kept for reuse
+    private static final int MAX_RETAINED_BUFFER_CHARS = 1024 * 1024;
 
-    public UdtDefinitionBuilder() {
-        this.gson = new GsonBuilder().setPrettyPrinting().create();
-    }
+    private static final ThreadLocal<StringWriter> BUFFER = ThreadLocal.withInitial(() -> new StringWriter(4096));
+
+    // Read-only access of atomic members, also written by the tag configuration backend
+    static final String READ_PERMISSIONS = "readPermissions";
+    static final String ACCESS_RIGHTS = "accessRights";
+    static final String READ_ONLY = "Read_Only";
 
     /**
      * Build the UDT definition JSON for a schema.
@@ -30,159 +40,257 @@ public class UdtDefinitionBuilder {
      * @return JSON string suitable for import into Ignition
      */
     public String buildUdtJson(SchemaModel schema) {
-        JsonObject udt = new JsonObject();
+        String json = write(writer -> writeSchema(writer, schema));
+        if (logger.isDebugEnabled()) {
+            logger.debug("Built UDT JSON for {}: {}", schema.getName(), json);
+        }
+        return json;
+    }
 
-        // Set basic properties
-        udt.addProperty("name", schema.getName());
-        udt.addProperty("tagType", "UdtType");
+    /**
+     * Build a JSON array containing multiple UDT definitions.
+     * Useful for batch import.
+     */
+    public String buildUdtJsonArray(Iterable<SchemaModel> schemas) {
+        return write(writer -> {
+            writer.beginArray();
+            for (SchemaModel schema : schemas) {
+                writeSchema(writer, schema);
+            }
+            writer.endArray();
+        });
+    }
 
-        // Add description as documentation if present
-        if (schema.getDescription() != null && !schema.getDescription().isEmpty()) {
-            udt.addProperty("documentation", schema.getDescription());
+    /**
+     * Build nested UDT definitions for schemas that have nested objects.
+     * These need to be created before the parent UDT.
+     *
+     * @param schema The parent schema
+     * @return JSON array of nested UDT definitions, or null if none
+     */
+    public String buildNestedUdtDefinitions(SchemaModel schema) {
+        if (countNestedUdts(schema) == 0) {
+            return null;
         }
+        return buildNestedUdtJsonArray(List.of(schema));
+    }
 
-        // Handle inheritance (parent type)
-        if (schema.hasParent()) {
-            udt.addProperty("typeId", schema.getParentType());
-        }
+    /**
+     * Build one JSON array with the nested UDT definitions of several schemas, in schema order.
+     * Each schema contributes {@link #countNestedUdts(SchemaModel)} entries.
+     */
+    public String buildNestedUdtJsonArray(Iterable<SchemaModel> schemas) {
+        return write(writer -> {
+            writer.beginArray();
+            for (SchemaModel schema : schemas) {
+                writeNestedTypes(writer, schema.getName(), schema.getProperties());
+            }
+            writer.endArray();
+        });
+    }
 
-        // Build member tags
-        JsonArray tags = new JsonArray();
-        for (PropertyDefinition prop : schema.getProperties()) {
-            JsonObject tag = buildTagDefinition(prop, schema);
-            if (tag != null) {
-                tags.add(tag);
+    /**
+     * Build a JSON array with member definitions of a UDT, written as they are within the UDT's own definition.
+     * Properties that cannot be mapped to a member are left out.
+     */
+    public String buildMemberJsonArray(String udtName, List<PropertyDefinition> members) {
+        return write(writer -> {
+            writer.beginArray();
+            for (PropertyDefinition prop : members) {
+                writeTagDefinition(writer, prop, udtName);
             }
-        }
-        udt.add("tags", tags);
+            writer.endArray();
+        });
+    }
 
-        String json = gson.toJson(udt);
-        logger.debug("Built UDT JSON for {}: {}", schema.getName(), json);
-        return json;
+    /**
+     * Count the nested UDT definitions generated for a schema, including deeply nested ones.
+     */
+    public int countNestedUdts(SchemaModel schema) {
+        return countNestedTypes(schema.getProperties());
     }
 
     /**
-     * Build a JSON array containing multiple UDT definitions.
-     * Useful for batch import.
+     * Get the names of the UDT types generated for a schema: its own type followed by its nested types.
      */
-    public String buildUdtJsonArray(Iterable<SchemaModel> schemas) {
-        JsonArray array = new JsonArray();
-        for (SchemaModel schema : schemas) {
-            JsonObject udt = gson.fromJson(buildUdtJson(schema), JsonObject.class);
-            array.add(udt);
+    public static List<String> typeNames(SchemaModel schema) {
+        List<String> names = new ArrayList<>();
+        names.add(schema.getName());
+        addNestedTypeNames(schema.getName(), schema.getProperties(), names);
+        return names;
+    }
+
+    private static void addNestedTypeNames(String ownerName, List<PropertyDefinition> properties,
+                                           List<String> names) {
+        for (PropertyDefinition prop : properties) {
+            if (isNestedType(prop)) {
+                String nestedTypeName = nestedTypeName(ownerName, prop);
+                names.add(nestedTypeName);
+                addNestedTypeNames(nestedTypeName, prop.getNestedProperties(), names);
+            }
         }
-        return gson.toJson(array);
     }
 
-    private JsonObject buildTagDefinition(PropertyDefinition prop, SchemaModel parentSchema) {
-        JsonObject tag = new JsonObject();
-        tag.addProperty("name", prop.getName());
+    private int countNestedTypes(List<PropertyDefinition> properties) {
+        int count = 0;
+        for (PropertyDefinition prop : properties) {
+            if (isNestedType(prop)) {
+                count += 1 + countNestedTypes(prop.getNestedProperties());
+            }
+        }
+        return count;
+    }
 
-        // Add documentation/tooltip if description present
-        if (prop.getDescription() != null && !prop.getDescription().isEmpty()) {
-            tag.addProperty("tooltip", prop.getDescription());
+    private void writeSchema(JsonWriter writer, SchemaModel schema) throws IOException {
+        writeUdt(writer, schema.getName(), schema.getDescription(),
+                schema.hasParent() ? schema.getParentType() : null, schema.getProperties());
+    }
+
+    private void writeNestedTypes(JsonWriter writer, String ownerName, List<PropertyDefinition> properties)
+            throws IOException {
+        for (PropertyDefinition prop : properties) {
+            if (isNestedType(prop)) {
+                String nestedTypeName = nestedTypeName(ownerName, prop);
+                // Deeply nested types first, so they exist before the type that contains them
+                writeNestedTypes(writer, nestedTypeName, prop.getNestedProperties());
+                writeUdt(writer, nestedTypeName, "Nested type for " + ownerName + "." + prop.getName(), null,
+                        prop.getNestedProperties());
+            }
         }
+    }
 
-        // Handle reference to another UDT
-        if (prop.isReference()) {
-            tag.addProperty("tagType", "UdtInstance");
-            tag.addProperty("typeId", prop.getRefType());
-            return tag;
+    private void writeUdt(JsonWriter writer, String name, String description, String parentType,
+                          List<PropertyDefinition> properties) throws IOException {
+        writer.beginObject();
+
+        // Set basic properties
+        writer.name("name").value(name);
+        writer.name("tagType").value("UdtType");
+
+        // Add description as documentation if present
+        if (description != null && !description.isEmpty()) {
+            writer.name("documentation").value(description);
         }
 
-        // Handle nested object (becomes nested UDT instance)
-        if (prop.isObject() && prop.hasNestedProperties()) {
-            // Create a nested UDT type name based on parent and property name
-            String nestedTypeName = parentSchema.getName() + "_" + prop.getName();
-            tag.addProperty("tagType", "UdtInstance");
-            tag.addProperty("typeId", nestedTypeName);
-            // Note: The nested UDT definition would need to be created separately
-            return tag;
+        // Handle inheritance (parent type)
+        if (parentType != null) {
+            writer.name("typeId").value(parentType);
         }
 
-        // Handle array type
-        if (prop.isArray()) {
-            tag.addProperty("tagType", "AtomicTag");
-            tag.addProperty("valueSource", "memory");
-            tag.addProperty("dataType", "DataSet");
-            addReadOnlyConfig(tag);
-            return tag;
+        // Build member tags
+        writer.name("tags").beginArray();
+        for (PropertyDefinition prop : properties) {
+            writeTagDefinition(writer, prop, name);
         }
+        writer.endArray();
 
-        // Handle primitive types
-        String ignitionType = DataTypeMapper.mapToIgnitionType(prop.getType(), prop.getFormat());
-        if (ignitionType == null) {
-            logger.warn("Could not map type for property: {} type: {}", prop.getName(), prop.getType());
-            return null;
+        writer.endObject();
+    }
+
+    private void writeTagDefinition(JsonWriter writer, PropertyDefinition prop, String parentName)
+            throws IOException {
+        String ignitionType = null;
+        if (!prop.isReference() && !isNestedType(prop) && !prop.isArray()) {
+            ignitionType = DataTypeMapper.mapToIgnitionType(prop.getType(), prop.getFormat());
+            if (ignitionType == null) {
+                logger.warn("Could not map type for property: {} type: {}", prop.getName(), prop.getType());
+                return;
+            }
         }
 
-        tag.addProperty("tagType", "AtomicTag");
-        tag.addProperty("valueSource", "memory");
-        tag.addProperty("dataType", ignitionType);
+        writer.beginObject();
+        writer.name("name").value(prop.getName());
 
-        // Add default value if present
-        if (prop.getDefaultValue() != null) {
-            addDefaultValue(tag, prop);
+        // Add documentation/tooltip if description present
+        if (prop.getDescription() != null && !prop.getDescription().isEmpty()) {
+            writer.name("tooltip").value(prop.getDescription());
         }
 
-        // Configure as read-only
-        addReadOnlyConfig(tag);
+        if (prop.isReference()) {
+            // Handle reference to another UDT
+            writer.name("tagType").value("UdtInstance");
+            writer.name("typeId").value(prop.getRefType());
+        } else if (prop.isObject() && prop.hasNestedProperties()) {
+            // Handle nested object (becomes nested UDT instance, defined by writeNestedTypes)
+            writer.name("tagType").value("UdtInstance");
+            writer.name("typeId").value(nestedTypeName(parentName, prop));
+        } else if (prop.isArray()) {
+            // Handle array type
+            writer.name("tagType").value("AtomicTag");
+            writer.name("valueSource").value("memory");
+            writer.name("dataType").value("DataSet");
+            writeReadOnlyConfig(writer);
+        } else {
+            // Handle primitive types
+            writer.name("tagType").value("AtomicTag");
+            writer.name("valueSource").value("memory");
+            writer.name("dataType").value(ignitionType);
+
+            // Add default value if present
+            if (prop.getDefaultValue() != null) {
+                writeDefaultValue(writer, prop.getDefaultValue());
+            }
+
+            // Configure as read-only
+            writeReadOnlyConfig(writer);
+        }
 
-        return tag;
+        writer.endObject();
     }
 
-    private void addReadOnlyConfig(JsonObject tag) {
+    private void writeReadOnlyConfig(JsonWriter writer) throws IOException {
         // Set read-only access rights
-        JsonObject accessRights = new JsonObject();
-        accessRights.addProperty("accessRights", "Read_Only");
-        tag.add("readPermissions", accessRights);
+        writer.name(READ_PERMISSIONS).beginObject();
+        writer.name(ACCESS_RIGHTS).value(READ_ONLY);
+        writer.endObject();
     }
 
-    private void addDefaultValue(JsonObject tag, PropertyDefinition prop) {
-        Object defaultVal = prop.getDefaultValue();
+    private void writeDefaultValue(JsonWriter writer, Object defaultVal) throws IOException {
+        writer.name("value");
         if (defaultVal instanceof Boolean) {
-            tag.addProperty("value", (Boolean) defaultVal);
+            writer.value((Boolean) defaultVal);
         } else if (defaultVal instanceof Number) {
-            tag.addProperty("value", (Number) defaultVal);
+            writer.value((Number) defaultVal);
         } else {
-            tag.addProperty("value", defaultVal.toString());
+            writer.value(defaultVal.toString());
         }
     }
 
     /**
-     * Build nested UDT definitions for schemas that have nested objects.
-     * These need to be created before the parent UDT.
-     *
-     * @param schema The parent schema
-     * @return JSON array of nested UDT definitions, or null if none
+     * Whether a property is defined inline as an object and becomes its own nested UDT.
      */
-    public String buildNestedUdtDefinitions(SchemaModel schema) {
-        JsonArray nestedUdts = new JsonArray();
-
-        for (PropertyDefinition prop : schema.getProperties()) {
-            if (prop.isObject() && prop.hasNestedProperties() && !prop.isReference()) {
-                // Create a synthetic schema for the nested object
-                SchemaModel nestedSchema = new SchemaModel();
-                nestedSchema.setName(schema.getName() + "_" + prop.getName());
-                nestedSchema.setDescription("Nested type for " + schema.getName() + "." + prop.getName());
-                nestedSchema.setProperties(prop.getNestedProperties());
-
-                JsonObject nestedUdt = gson.fromJson(buildUdtJson(nestedSchema), JsonObject.class);
-                nestedUdts.add(nestedUdt);
-
-                // Recursively handle deeply nested objects
-                String deepNested = buildNestedUdtDefinitions(nestedSchema);
-                if (deepNested != null) {
-                    JsonArray deepArray = gson.fromJson(deepNested, JsonArray.class);
-                    deepArray.forEach(nestedUdts::add);
-                }
-            }
-        }
+    static boolean isNestedType(PropertyDefinition prop) {
+        return prop.isObject() && prop.hasNestedProperties() && !prop.isReference();
+    }
 
-        if (nestedUdts.size() == 0) {
-            return null;
+    /**
+     * Name of the nested UDT generated for an inline object property.
+     */
+    static String nestedTypeName(String ownerName, PropertyDefinition prop) {
+        return ownerName + "_" + prop.getName();
+    }
+
+    private String write(JsonBody body) {
+        StringWriter buffer = BUFFER.get();
+        buffer.getBuffer().setLength(0);
+        try {
+            JsonWriter writer = new JsonWriter(buffer);
+            writer.setSerializeNulls(false);
+            body.write(writer);
+            writer.flush();
+            return buffer.toString();
+        } catch (IOException e) {
+            // Cannot happen when writing to a StringWriter
+            throw new UncheckedIOException(e);
+        } finally {
+            if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER_CHARS) {
+                BUFFER.remove();
+            }
         }
+    }
 
-        return gson.toJson(nestedUdts);
+    @FunctionalInterface
+    private interface JsonBody {
+        void write(JsonWriter writer) throws IOException;
     }
 }
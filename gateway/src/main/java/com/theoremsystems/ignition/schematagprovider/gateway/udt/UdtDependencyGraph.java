@@ -0,0 +1,137 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.PropertyDefinition;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dependency graph between UDT types, built from {@code allOf} parents and {@code $ref} targets.
+ * <p>
+ * A type depends on another if it inherits from it ({@link SchemaModel#getParentType()}) or has a member that
+ * instantiates it ({@link PropertyDefinition#getRefType()}). Only dependencies on types in the graph are tracked;
+ * references to types outside it are assumed to exist already.
+ */
+public class UdtDependencyGraph {
+
+    private static final Logger logger = LoggerFactory.getLogger(UdtDependencyGraph.class);
+
+    private final Map<String, SchemaModel> schemas = new LinkedHashMap<>();
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+
+    private UdtDependencyGraph() {
+    }
+
+    /**
+     * Build the dependency graph for a set of schemas.
+     */
+    public static UdtDependencyGraph build(Iterable<SchemaModel> schemas) {
+        UdtDependencyGraph graph = new UdtDependencyGraph();
+        for (SchemaModel schema : schemas) {
+            graph.schemas.put(schema.getName(), schema);
+        }
+
+        for (SchemaModel schema : graph.schemas.values()) {
+            graph.addDependencies(schema.getName(), schema.getReferencedTypes(), graph.schemas.keySet());
+        }
+        return graph;
+    }
+
+    /**
+     * Build the dependency graph from the types each type references, without schema models. Such a graph answers
+     * {@link #getWithDependents}; it has no schemas to group into layers.
+     *
+     * @param typeReferences The referenced types of every type, by type name
+     */
+    public static UdtDependencyGraph fromReferences(Map<String, Set<String>> typeReferences) {
+        UdtDependencyGraph graph = new UdtDependencyGraph();
+        for (Map.Entry<String, Set<String>> entry : typeReferences.entrySet()) {
+            graph.addDependencies(entry.getKey(), entry.getValue(), typeReferences.keySet());
+        }
+        return graph;
+    }
+
+    private void addDependencies(String typeName, Set<String> referenced, Set<String> knownTypes) {
+        for (String dependency : referenced) {
+            if (knownTypes.contains(dependency) && !dependency.equals(typeName)) {
+                dependencies.computeIfAbsent(typeName, k -> new HashSet<>()).add(dependency);
+                dependents.computeIfAbsent(dependency, k -> new HashSet<>()).add(typeName);
+            }
+        }
+    }
+
+    /**
+     * Group the schemas into topological layers. Every schema's dependencies are in an earlier layer, so the
+     * schemas within one layer are independent of each other and can be synced concurrently.
+     * Schemas involved in a dependency cycle are placed together in a final layer.
+     */
+    public List<List<SchemaModel>> getLayers() {
+        Map<String, Integer> remainingDependencies = new HashMap<>();
+        List<SchemaModel> current = new ArrayList<>();
+        for (String name : schemas.keySet()) {
+            int count = dependencies.getOrDefault(name, Set.of()).size();
+            remainingDependencies.put(name, count);
+            if (count == 0) {
+                current.add(schemas.get(name));
+            }
+        }
+
+        List<List<SchemaModel>> layers = new ArrayList<>();
+        int placed = 0;
+        while (!current.isEmpty()) {
+            layers.add(current);
+            placed += current.size();
+
+            List<SchemaModel> next = new ArrayList<>();
+            for (SchemaModel schema : current) {
+                for (String dependent : dependents.getOrDefault(schema.getName(), Set.of())) {
+                    if (remainingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+                        next.add(schemas.get(dependent));
+                    }
+                }
+            }
+            current = next;
+        }
+
+        if (placed < schemas.size()) {
+            List<SchemaModel> cyclic = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : remainingDependencies.entrySet()) {
+                if (entry.getValue() > 0) {
+                    cyclic.add(schemas.get(entry.getKey()));
+                }
+            }
+            logger.warn("Dependency cycle between {} UDT types, syncing them last: {}",
+                    cyclic.size(), cyclic.stream().map(SchemaModel::getName).toArray());
+            layers.add(cyclic);
+        }
+
+        return layers;
+    }
+
+    /**
+     * Get the named types together with every type that transitively depends on them.
+     */
+    public Set<String> getWithDependents(Collection<String> typeNames) {
+        Set<String> result = new HashSet<>();
+        Deque<String> queue = new ArrayDeque<>(typeNames);
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            if (result.add(name)) {
+                queue.addAll(dependents.getOrDefault(name, Set.of()));
+            }
+        }
+        return result;
+    }
+}
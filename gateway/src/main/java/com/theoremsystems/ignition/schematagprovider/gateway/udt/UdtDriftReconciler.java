@@ -0,0 +1,503 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.inductiveautomation.ignition.common.browsing.BrowseFilter;
+import com.inductiveautomation.ignition.common.browsing.Results;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.browsing.NodeDescription;
+import com.inductiveautomation.ignition.common.tags.config.TagConfiguration;
+import com.inductiveautomation.ignition.common.tags.config.TagConfigurationModel;
+import com.inductiveautomation.ignition.common.tags.config.properties.WellKnownTagProps;
+import com.inductiveautomation.ignition.common.tags.config.types.TagObjectType;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
+import com.inductiveautomation.ignition.common.tags.model.TagProvider;
+import com.inductiveautomation.ignition.common.tags.paths.parser.TagPathParser;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.ContentHash;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Periodically compares the UDT definitions in the provider's {@code _types_} folder with the definitions the
+ * cached schemas produce, and repairs only the types that differ.
+ * <p>
+ * The expected definitions are the ones the synchronizer's backend writes. Each expected type is fingerprinted from
+ * its structure: member names, tag types, data types and type references,
+ * plus the parent type. Documentation, tooltips and default values are not compared. Types that are missing or
+ * whose fingerprint differs, e.g. after a manual edit in the Designer or a restored backup, have their owning schema
+ * re-imported. Members the schema does not define are removed first, since an import does not delete them. Types
+ * the module created whose schema no longer exists are removed if allowed. Types the module does not manage are
+ * left alone.
+ * <p>
+ * Runs on a single minimum-priority thread and reads definitions one batch at a time, so it never competes with
+ * regular syncs for more than one provider call. Schemas are loaded, compared and trimmed of stale members a batch
+ * at a time in their lanes, so a pass never works from an outdated schema and holds one batch of models at once.
+ */
+public class UdtDriftReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(UdtDriftReconciler.class);
+
+    private static final String TYPES_PATH = UdtImportBackend.TYPES_PATH;
+    private static final long CALL_TIMEOUT_SECONDS = 30;
+    private static final long REPAIR_TIMEOUT_SECONDS = 300;
+
+    /**
+     * Runs work in the lanes of the given schemas, after all earlier work for them.
+     */
+    @FunctionalInterface
+    public interface SchemaLanes {
+        <T> CompletableFuture<T> submit(Collection<String> schemaNames, Supplier<CompletableFuture<T>> task);
+    }
+
+    private final UdtSynchronizer synchronizer;
+    private final SchemaLanes lanes;
+    private final Supplier<Collection<String>> schemaNames;
+    private final Function<String, SchemaModel> schemaLookup;
+    private final Function<Set<String>, CompletableFuture<?>> resync;
+    private final Function<Set<String>, CompletableFuture<?>> remove;
+    private final int batchSize;
+
+    private ScheduledExecutorService scheduler;
+    private volatile DriftReport lastReport;
+
+    /**
+     * @param synchronizer Synchronizer whose provider, backend and applied state are reconciled
+     * @param lanes        Lanes keyed by schema name that updates and deletions of schemas run in
+     * @param schemaNames  Supplies the names of the schemas whose UDTs should exist
+     * @param schemaLookup Loads a schema by name, or returns null if it no longer exists
+     * @param resync       Re-imports the schemas that define the given UDT types
+     * @param remove       Removes the given UDT types of deleted schemas, or null to never remove
+     * @param batchSize    Maximum number of schemas checked per lane task, and definitions read per provider call
+     */
+    public UdtDriftReconciler(UdtSynchronizer synchronizer, SchemaLanes lanes, Supplier<Collection<String>> schemaNames,
+                              Function<String, SchemaModel> schemaLookup,
+                              Function<Set<String>, CompletableFuture<?>> resync,
+                              Function<Set<String>, CompletableFuture<?>> remove, int batchSize) {
+        this.synchronizer = synchronizer;
+        this.lanes = lanes;
+        this.schemaNames = schemaNames;
+        this.schemaLookup = schemaLookup;
+        this.resync = resync;
+        this.remove = remove;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Start reconciling at a fixed interval. The first run happens after one interval.
+     */
+    public void start(long intervalSeconds) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "udt-drift-reconciler");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runScheduled, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        logger.info("Starting UDT drift reconcile task (interval: {} seconds)", intervalSeconds);
+    }
+
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    public String getProviderName() {
+        return synchronizer.getProviderName();
+    }
+
+    /**
+     * Get the report of the last completed run, or null if none has completed.
+     */
+    public DriftReport getLastReport() {
+        return lastReport;
+    }
+
+    private void runScheduled() {
+        try {
+            reconcile();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("UDT drift reconcile failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Run one reconcile pass, blocking until any repairs it started have completed.
+     *
+     * @return The report of the pass, or null if the tag provider is not available
+     */
+    public DriftReport reconcile() throws Exception {
+        TagProvider provider = synchronizer.getTagProvider();
+        if (provider == null) {
+            return null;
+        }
+        long startNanos = System.nanoTime();
+        DriftReport report = new DriftReport();
+
+        Set<String> present = browseTypes(provider);
+        report.providerCalls++;
+        report.present = present.size();
+
+        Set<String> expected = new HashSet<>();
+        Set<String> repairOwners = new HashSet<>();
+        List<String> names = new ArrayList<>(schemaNames.get());
+        for (int start = 0; start < names.size(); start += batchSize) {
+            List<String> batch = names.subList(start, Math.min(start + batchSize, names.size()));
+            lanes.submit(batch, () -> checkSchemas(provider, batch, present, expected, repairOwners, report))
+                    .get(REPAIR_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+        report.expected = expected.size();
+
+        // Types the module created whose schema is gone; anything else in _types_ is not ours to touch
+        Set<String> stale = new HashSet<>();
+        for (String typeName : synchronizer.getRegisteredTypes()) {
+            if (!expected.contains(typeName) && present.contains(typeName)) {
+                stale.add(typeName);
+            }
+        }
+        for (String typeName : present) {
+            if (!expected.contains(typeName) && !stale.contains(typeName)) {
+                report.unmanaged++;
+            }
+        }
+
+        List<CompletableFuture<?>> repairs = new ArrayList<>();
+        if (!repairOwners.isEmpty()) {
+            for (String owner : repairOwners) {
+                synchronizer.invalidateType(owner);
+            }
+            report.repaired = repairOwners.size();
+            repairs.add(resync.apply(repairOwners));
+        }
+        if (!stale.isEmpty() && remove != null) {
+            report.removed = stale.size();
+            repairs.add(remove.apply(stale));
+        }
+        if (!repairs.isEmpty()) {
+            CompletableFuture.allOf(repairs.toArray(new CompletableFuture[0]))
+                    .get(REPAIR_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        report.durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        lastReport = report;
+        if (report.missing + report.drifted + report.removed > 0) {
+            logger.info("UDT drift reconcile for provider {}: {}", synchronizer.getProviderName(), report);
+        } else {
+            logger.debug("UDT drift reconcile for provider {}: {}", synchronizer.getProviderName(), report);
+        }
+        return report;
+    }
+
+    /**
+     * Compare the types of a batch of schemas with the provider and remove the members of drifted types that the
+     * schemas do not define. Runs in the lanes of the schemas, so they cannot change while being checked.
+     */
+    private CompletableFuture<Void> checkSchemas(TagProvider provider, List<String> batch, Set<String> present,
+                                                 Set<String> expectedTypes, Set<String> repairOwners,
+                                                 DriftReport report) {
+        try {
+            Map<String, ExpectedType> expected = new HashMap<>();
+            for (String schemaName : batch) {
+                SchemaModel schema = schemaLookup.apply(schemaName);
+                if (schema == null) {
+                    // Deleted since the names were read
+                    continue;
+                }
+                try {
+                    addExpected(schema, expected);
+                } catch (Exception e) {
+                    logger.debug("Could not build expected definition of {}: {}", schema.getName(), e.getMessage());
+                }
+            }
+            expectedTypes.addAll(expected.keySet());
+
+            List<String> existing = new ArrayList<>();
+            for (Map.Entry<String, ExpectedType> entry : expected.entrySet()) {
+                if (present.contains(entry.getKey())) {
+                    existing.add(entry.getKey());
+                } else {
+                    report.missing++;
+                    repairOwners.add(entry.getValue().owner);
+                    logger.info("UDT {} is missing from provider {}", entry.getKey(), synchronizer.getProviderName());
+                }
+            }
+
+            List<TagPath> staleMembers = new ArrayList<>();
+            for (int start = 0; start < existing.size(); start += batchSize) {
+                List<String> types = existing.subList(start, Math.min(start + batchSize, existing.size()));
+                checkTypes(provider, types, expected, repairOwners, staleMembers, report);
+            }
+            if (!staleMembers.isEmpty()) {
+                removeMembers(provider, staleMembers, report);
+            }
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Read one batch of existing types and compare them with their expected structure.
+     */
+    private void checkTypes(TagProvider provider, List<String> batch, Map<String, ExpectedType> expected,
+                            Set<String> repairOwners, List<TagPath> staleMembers, DriftReport report)
+            throws Exception {
+        List<TagPath> paths = new ArrayList<>(batch.size());
+        for (String typeName : batch) {
+            paths.add(TagPathParser.parse(TYPES_PATH + "/" + typeName));
+        }
+        List<TagConfigurationModel> models = provider.getTagConfigsAsync(paths, true, true)
+                .get(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        report.providerCalls++;
+
+        // Results come back in request order; match by name only if the sizes disagree
+        boolean mapped = models.size() == batch.size();
+        Map<String, TagConfigurationModel> byName = new HashMap<>();
+        if (!mapped) {
+            for (TagConfigurationModel model : models) {
+                if (model != null && model.getPath() != null) {
+                    byName.put(model.getPath().getItemName(), model);
+                }
+            }
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            String typeName = batch.get(i);
+            report.checked++;
+            ExpectedType expectedType = expected.get(typeName);
+            TagConfigurationModel actual = mapped ? models.get(i) : byName.get(typeName);
+            Map<String, String> actualMembers = actual != null ? expectedType.membersOf(actual) : null;
+            if (actual == null
+                    || !expectedType.fingerprint().equals(expectedType.fingerprintOf(actual, actualMembers))) {
+                report.drifted++;
+                repairOwners.add(expectedType.owner);
+                logger.info("UDT {} in provider {} differs from its schema", typeName,
+                        synchronizer.getProviderName());
+                if (actualMembers != null) {
+                    for (String member : actualMembers.keySet()) {
+                        if (!expectedType.members.containsKey(member)) {
+                            staleMembers.add(paths.get(i).getChildPath(member));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove members the schemas do not define, in batches. A failed batch is logged and left for the next pass.
+     */
+    private void removeMembers(TagProvider provider, List<TagPath> members, DriftReport report) throws Exception {
+        for (int start = 0; start < members.size(); start += batchSize) {
+            List<TagPath> batch = members.subList(start, Math.min(start + batchSize, members.size()));
+            List<QualityCode> results = provider.removeTagConfigsAsync(batch)
+                    .get(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            report.providerCalls++;
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).isGood()) {
+                    report.removedMembers++;
+                } else {
+                    logger.warn("Failed to remove member {} from provider {}: {}",
+                            i < batch.size() ? batch.get(i) : batch, synchronizer.getProviderName(), results.get(i));
+                }
+            }
+        }
+    }
+
+    private Set<String> browseTypes(TagProvider provider) throws Exception {
+        Results<NodeDescription> results = provider.browseAsync(TagPathParser.parse(TYPES_PATH), new BrowseFilter())
+                .get(CALL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Set<String> names = new HashSet<>();
+        if (results != null && results.getResults() != null) {
+            for (NodeDescription node : results.getResults()) {
+                names.add(node.getName());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Add the expected structure of a schema's UDT and its nested types.
+     */
+    private void addExpected(SchemaModel schema, Map<String, ExpectedType> expected) throws Exception {
+        ExpectedType current = null;
+        for (TagConfiguration config : synchronizer.getBackend().buildDefinitions(schema)) {
+            if (config.getType() == TagObjectType.UdtType) {
+                current = new ExpectedType(schema.getName(), config.get(WellKnownTagProps.TypeId));
+                expected.put(config.getPath().getItemName(), current);
+            } else if (current != null) {
+                current.members.put(config.getPath().getItemName(), describe(config));
+            }
+        }
+    }
+
+    private static String fingerprint(String parentType, Map<String, String> members) {
+        StringBuilder signature = new StringBuilder();
+        signature.append(parentType != null ? parentType : "").append('\n');
+        for (Map.Entry<String, String> member : members.entrySet()) {
+            signature.append(member.getKey()).append('|').append(member.getValue()).append('\n');
+        }
+        return ContentHash.sha256(signature.toString());
+    }
+
+    private static String describe(TagConfiguration config) {
+        return config.getType() + "|" + config.get(WellKnownTagProps.DataType) + "|"
+                + (config.get(WellKnownTagProps.TypeId) != null ? config.get(WellKnownTagProps.TypeId) : "");
+    }
+
+    /**
+     * Structure a UDT type should have in the provider.
+     */
+    private static class ExpectedType {
+        private final String owner;
+        private final String parentType;
+        private final Map<String, String> members = new TreeMap<>();
+
+        ExpectedType(String owner, String parentType) {
+            this.owner = owner;
+            this.parentType = parentType;
+        }
+
+        String fingerprint() {
+            return UdtDriftReconciler.fingerprint(parentType, members);
+        }
+
+        /**
+         * Get the members of an existing definition that are compared, by name.
+         */
+        Map<String, String> membersOf(TagConfigurationModel actual) {
+            Map<String, String> actualMembers = new TreeMap<>();
+            if (actual.getChildren() != null) {
+                for (TagConfigurationModel child : actual.getChildren()) {
+                    actualMembers.put(child.getPath() != null ? child.getPath().getItemName() : child.getName(),
+                            describe(child));
+                }
+            }
+            if (parentType != null) {
+                // Inherited members may be listed with the type's own and cannot be removed from this type, so
+                // only the expected ones are compared
+                actualMembers.keySet().retainAll(members.keySet());
+            }
+            return actualMembers;
+        }
+
+        String fingerprintOf(TagConfigurationModel actual, Map<String, String> actualMembers) {
+            return UdtDriftReconciler.fingerprint(actual.get(WellKnownTagProps.TypeId), actualMembers);
+        }
+    }
+
+    /**
+     * Result and cost of one reconcile pass.
+     */
+    public static class DriftReport {
+        private int expected;
+        private int present;
+        private int checked;
+        private int missing;
+        private int drifted;
+        private int unmanaged;
+        private int repaired;
+        private int removedMembers;
+        private int removed;
+        private int providerCalls;
+        private long durationMillis;
+
+        /**
+         * Number of UDT types (including nested types) the cached schemas produce.
+         */
+        public int getExpected() {
+            return expected;
+        }
+
+        /**
+         * Number of types found in the provider's {@code _types_} folder.
+         */
+        public int getPresent() {
+            return present;
+        }
+
+        /**
+         * Number of existing definitions read and fingerprinted.
+         */
+        public int getChecked() {
+            return checked;
+        }
+
+        public int getMissing() {
+            return missing;
+        }
+
+        public int getDrifted() {
+            return drifted;
+        }
+
+        /**
+         * Number of types in the provider that the module does not manage and left untouched.
+         */
+        public int getUnmanaged() {
+            return unmanaged;
+        }
+
+        /**
+         * Number of schemas re-imported to repair missing or drifted types.
+         */
+        public int getRepaired() {
+            return repaired;
+        }
+
+        /**
+         * Number of members removed from drifted types because their schema does not define them.
+         */
+        public int getRemovedMembers() {
+            return removedMembers;
+        }
+
+        /**
+         * Number of types removed because their schema no longer exists.
+         */
+        public int getRemoved() {
+            return removed;
+        }
+
+        public int getProviderCalls() {
+            return providerCalls;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "DriftReport{" +
+                    "expected=" + expected +
+                    ", present=" + present +
+                    ", checked=" + checked +
+                    ", missing=" + missing +
+                    ", drifted=" + drifted +
+                    ", unmanaged=" + unmanaged +
+                    ", repaired=" + repaired +
+                    ", removedMembers=" + removedMembers +
+                    ", removed=" + removed +
+                    ", providerCalls=" + providerCalls +
+                    ", durationMillis=" + durationMillis +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Applies every UDT sync and removal to several tag providers at once, one {@link UdtSynchronizer} per provider.
+ * <p>
+ * Schemas are parsed once by the shared cache, and the synchronizers share one {@link UdtFingerprintCache}, so
+ * each schema version is hashed once for change detection. Each provider keeps its own applied state,
+ * in-flight limit and retry queue. A provider that is unavailable or failing therefore only delays its own types.
+ * The combined report counts each schema once per provider.
+ */
+public class UdtFanOut {
+
+    private static final Logger logger = LoggerFactory.getLogger(UdtFanOut.class);
+
+    private final List<UdtSynchronizer> synchronizers;
+
+    public UdtFanOut(List<UdtSynchronizer> synchronizers) {
+        if (synchronizers.isEmpty()) {
+            throw new IllegalArgumentException("At least one UDT synchronizer is required");
+        }
+        this.synchronizers = Collections.unmodifiableList(new ArrayList<>(synchronizers));
+        if (this.synchronizers.size() > 1) {
+            UdtFingerprintCache fingerprintCache = new UdtFingerprintCache();
+            for (UdtSynchronizer synchronizer : this.synchronizers) {
+                synchronizer.setFingerprintCache(fingerprintCache);
+            }
+        }
+    }
+
+    public List<UdtSynchronizer> getSynchronizers() {
+        return synchronizers;
+    }
+
+    /**
+     * Synchronize schemas to every provider.
+     *
+     * @see UdtSynchronizer#syncAllUdtDefinitions(Iterable)
+     */
+    public CompletableFuture<SyncReport> syncAllUdtDefinitions(Collection<SchemaModel> schemas) {
+        return fanOut("sync", synchronizer -> synchronizer.syncAllUdtDefinitions(schemas));
+    }
+
+    /**
+     * Synchronize changed schemas and their dependents to every provider, finding dependents from an index of type
+     * references. Each dependent is looked up once and the same model is synced to every provider.
+     *
+     * @see UdtSynchronizer#syncChangedUdtDefinitions(Collection, Map, Function)
+     */
+    public CompletableFuture<SyncReport> syncChangedUdtDefinitions(Collection<SchemaModel> changed,
+                                                                 Map<String, Set<String>> typeReferences,
+                                                                 Function<String, SchemaModel> schemaLookup) {
+        Map<String, Optional<SchemaModel>> dependents = new ConcurrentHashMap<>();
+        Function<String, SchemaModel> sharedLookup =
+                typeName -> dependents.computeIfAbsent(typeName, name -> Optional.ofNullable(schemaLookup.apply(name)))
+                        .orElse(null);
+        return fanOut("sync",
+                synchronizer -> synchronizer.syncChangedUdtDefinitions(changed, typeReferences, sharedLookup));
+    }
+
+    /**
+     * Remove UDT definitions from every provider.
+     *
+     * @see UdtSynchronizer#removeUdtDefinitions(Collection)
+     */
+    public CompletableFuture<SyncReport> removeUdtDefinitions(Collection<String> typeNames) {
+        return fanOut("removal", synchronizer -> synchronizer.removeUdtDefinitions(typeNames));
+    }
+
+    /**
+     * Seed every synchronizer from the journal, which keeps applied fingerprints per provider.
+     *
+     * @return Future completed with the number of types restored across providers
+     */
+    public CompletableFuture<Integer> restoreFromJournal(SyncJournal journal) {
+        List<CompletableFuture<Integer>> restores = new ArrayList<>();
+        for (UdtSynchronizer synchronizer : synchronizers) {
+            restores.add(synchronizer.restoreFromJournal(journal).exceptionally(error -> 0));
+        }
+        return CompletableFuture.allOf(restores.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> restores.stream().mapToInt(CompletableFuture::join).sum());
+    }
+
+    public void shutdown() {
+        for (UdtSynchronizer synchronizer : synchronizers) {
+            synchronizer.shutdown();
+        }
+    }
+
+    /**
+     * Get the sync status of each provider, by provider name.
+     */
+    public Map<String, ProviderStatus> getStatus() {
+        Map<String, ProviderStatus> status = new LinkedHashMap<>();
+        for (UdtSynchronizer synchronizer : synchronizers) {
+            status.put(synchronizer.getProviderName(), new ProviderStatus(synchronizer));
+        }
+        return status;
+    }
+
+    public long getImportedCount() {
+        return synchronizers.stream().mapToLong(UdtSynchronizer::getImportedCount).sum();
+    }
+
+    public long getPatchedCount() {
+        return synchronizers.stream().mapToLong(UdtSynchronizer::getPatchedCount).sum();
+    }
+
+    public long getSkippedCount() {
+        return synchronizers.stream().mapToLong(UdtSynchronizer::getSkippedCount).sum();
+    }
+
+    public int getRegisteredTypeCount() {
+        return synchronizers.stream().mapToInt(synchronizer -> synchronizer.getRegisteredTypes().size()).sum();
+    }
+
+    public int getInFlightImports() {
+        return synchronizers.stream().mapToInt(UdtSynchronizer::getInFlightImports).sum();
+    }
+
+    public int getQueuedImports() {
+        return synchronizers.stream().mapToInt(UdtSynchronizer::getQueuedImports).sum();
+    }
+
+    /**
+     * Start an operation on every provider concurrently and combine the reports once all have completed.
+     */
+    private CompletableFuture<SyncReport> fanOut(String operation,
+                                                 Function<UdtSynchronizer, CompletableFuture<SyncReport>> call) {
+        if (synchronizers.size() == 1) {
+            return call.apply(synchronizers.get(0));
+        }
+
+        SyncReport combined = new SyncReport();
+        List<CompletableFuture<Void>> runs = new ArrayList<>(synchronizers.size());
+        for (UdtSynchronizer synchronizer : synchronizers) {
+            CompletableFuture<SyncReport> run;
+            try {
+                run = call.apply(synchronizer);
+            } catch (RuntimeException e) {
+                run = CompletableFuture.failedFuture(e);
+            }
+            runs.add(run.handle((report, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    logger.error("UDT {} for provider {} failed", operation, synchronizer.getProviderName(), cause);
+                    // Totals are unknown, but the combined run must not look successful
+                    combined.addFailed(1);
+                    return null;
+                }
+                combined.add(report);
+                if (!report.isSuccessful()) {
+                    logger.warn("UDT {} for provider {}: {} of {} definitions failed", operation,
+                            synchronizer.getProviderName(), report.getFailed(), report.getTotal());
+                }
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(runs.toArray(new CompletableFuture[0])).thenApply(ignored -> combined.finish());
+    }
+
+    /**
+     * Point-in-time sync status of one provider.
+     */
+    public static class ProviderStatus {
+        private final String providerName;
+        private final boolean available;
+        private final SyncReport lastReport;
+        private final long lastSyncTimeMillis;
+        private final int registeredTypes;
+        private final long importedCount;
+        private final int retryQueueSize;
+        private final long oldestRetryAgeMillis;
+
+        ProviderStatus(UdtSynchronizer synchronizer) {
+            UdtRetryQueue retryQueue = synchronizer.getRetryQueue();
+            this.providerName = synchronizer.getProviderName();
+            this.available = synchronizer.isTagProviderAvailable();
+            this.lastReport = synchronizer.getLastReport();
+            this.lastSyncTimeMillis = synchronizer.getLastSyncTimeMillis();
+            this.registeredTypes = synchronizer.getRegisteredTypes().size();
+            this.importedCount = synchronizer.getImportedCount();
+            this.retryQueueSize = retryQueue != null ? retryQueue.size() : 0;
+            this.oldestRetryAgeMillis = retryQueue != null ? retryQueue.getOldestAgeMillis() : 0;
+        }
+
+        public String getProviderName() {
+            return providerName;
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        /**
+         * Report of the provider's last completed sync run, or null if none has completed.
+         */
+        public SyncReport getLastReport() {
+            return lastReport;
+        }
+
+        public long getLastSyncTimeMillis() {
+            return lastSyncTimeMillis;
+        }
+
+        public int getRegisteredTypes() {
+            return registeredTypes;
+        }
+
+        public long getImportedCount() {
+            return importedCount;
+        }
+
+        public int getRetryQueueSize() {
+            return retryQueueSize;
+        }
+
+        public long getOldestRetryAgeMillis() {
+            return oldestRetryAgeMillis;
+        }
+
+        @Override
+        public String toString() {
+            return "ProviderStatus{" +
+                    "providerName='" + providerName + '\'' +
+                    ", available=" + available +
+                    ", registeredTypes=" + registeredTypes +
+                    ", importedCount=" + importedCount +
+                    ", retryQueueSize=" + retryQueueSize +
+                    ", oldestRetryAgeMillis=" + oldestRetryAgeMillis +
+                    ", lastReport=" + lastReport +
+                    '}';
+        }
+    }
+}
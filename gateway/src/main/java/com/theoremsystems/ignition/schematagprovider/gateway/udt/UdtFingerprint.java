@@ -0,0 +1,78 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.ContentHash;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.PropertyDefinition;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Computes the fingerprint of the UDT definitions generated for a schema.
+ * <p>
+ * The fingerprint is a SHA-256 hash of the schema fields the UDT definitions are built from, so it can be compared
+ * before any JSON is built. Fields that never reach a definition, such as the schema id, required properties, array
+ * items and enum values, are left out so changing them does not cause a re-import.
+ */
+public final class UdtFingerprint {
+
+    // Change whenever the definitions generated from the same fields change, so every type is imported again once
+    private static final int FORMAT_VERSION = 1;
+
+    private UdtFingerprint() {
+    }
+
+    /**
+     * Compute the fingerprint of the UDT, including nested types, generated for a schema.
+     */
+    public static String of(SchemaModel schema) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, schema.getName());
+            writeString(out, schema.getDescription());
+            writeString(out, schema.hasParent() ? schema.getParentType() : null);
+            writeProperties(out, schema.getProperties());
+        } catch (IOException e) {
+            // Cannot happen when writing to a byte array
+            throw new UncheckedIOException(e);
+        }
+        return ContentHash.sha256(buffer.toByteArray());
+    }
+
+    private static void writeProperties(DataOutputStream out, List<PropertyDefinition> properties) throws IOException {
+        out.writeInt(properties.size());
+        for (PropertyDefinition property : properties) {
+            writeString(out, property.getName());
+            writeString(out, property.getType());
+            writeString(out, property.getFormat());
+            writeString(out, property.getDescription());
+            writeString(out, property.getRefType());
+
+            Object defaultValue = property.getDefaultValue();
+            if (defaultValue == null) {
+                out.writeByte(0);
+            } else {
+                // Type and literal text, so the fingerprint follows the value the builder writes
+                out.writeByte(defaultValue instanceof Boolean ? 1 : defaultValue instanceof Number ? 2 : 3);
+                writeString(out, defaultValue.toString());
+            }
+
+            writeProperties(out, property.getNestedProperties());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,35 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Fingerprints of the UDTs generated for each schema model, shared by the synchronizers of several providers
+ * so each schema version is hashed once rather than once per provider.
+ * <p>
+ * Models are immutable and compared by identity, so an updated schema is a new key. Entries are dropped once the
+ * cache no longer references the model.
+ */
+public class UdtFingerprintCache {
+
+    private final Map<SchemaModel, String> fingerprints = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Get the fingerprint of the UDT, including nested types, generated for a schema.
+     */
+    public String fingerprint(SchemaModel schema) {
+        String fingerprint = fingerprints.get(schema);
+        if (fingerprint == null) {
+            fingerprint = UdtFingerprint.of(schema);
+            fingerprints.put(schema, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    public int size() {
+        return fingerprints.size();
+    }
+}
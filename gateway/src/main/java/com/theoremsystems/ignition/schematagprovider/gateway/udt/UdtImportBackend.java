@@ -0,0 +1,62 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.config.TagConfiguration;
+import com.inductiveautomation.ignition.common.tags.model.TagProvider;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.PropertyDefinition;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes UDT definitions for a batch of schemas into a tag provider's _types_ folder.
+ * <p>
+ * Results are reported per UDT in batch order, so the synchronizer can map failures back to the schema they
+ * belong to.
+ */
+public interface UdtImportBackend {
+
+    String TYPES_PATH = "_types_";
+
+    /**
+     * Short name of the backend, as used in configuration.
+     */
+    String getName();
+
+    /**
+     * Create or replace the nested UDTs of the given schemas.
+     *
+     * @return Future with one result per nested type, in the order of {@link UdtDefinitionBuilder#buildNestedUdtJsonArray}
+     */
+    CompletableFuture<List<QualityCode>> importNestedTypes(TagProvider provider, List<SchemaModel> schemas)
+            throws Exception;
+
+    /**
+     * Create or replace the UDTs of the given schemas.
+     *
+     * @return Future with one result per schema, in batch order
+     */
+    CompletableFuture<List<QualityCode>> importTypes(TagProvider provider, List<SchemaModel> schemas)
+            throws Exception;
+
+    /**
+     * Write members of an existing UDT in the same form {@link #importTypes} writes them, so a patched member looks
+     * the same as an imported one.
+     *
+     * @param policy {@link CollisionPolicy#Overwrite} to replace the members, {@link CollisionPolicy#MergeOverwrite}
+     *               to write only the properties they have
+     * @return Future with the results of the write; members that cannot be mapped are skipped
+     */
+    CompletableFuture<List<QualityCode>> saveMembers(TagProvider provider, String udtName,
+                                                     List<PropertyDefinition> members, CollisionPolicy policy)
+            throws Exception;
+
+    /**
+     * Build the definitions this backend writes for a schema's nested types and its own UDT, in the order they are
+     * written, so they can be compared with the definitions in a provider. Each UDT is a UdtType configuration
+     * followed by its members, with at least their tag type, data type and type id.
+     */
+    List<TagConfiguration> buildDefinitions(SchemaModel schema) throws Exception;
+}
@@ -0,0 +1,202 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.DataTypeMapper;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.PropertyDefinition;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Member-level differences between the last synced version of a schema and its current version.
+ * <p>
+ * Member changes can be applied to the existing UDT one member at a time. Changes to the type itself (documentation,
+ * parent type) or to an inline nested object require the whole definition to be imported again.
+ */
+public class UdtMemberDiff {
+
+    private final String typeName;
+    private final List<PropertyDefinition> added = new ArrayList<>();
+    private final List<String> removed = new ArrayList<>();
+    private final List<PropertyDefinition> retyped = new ArrayList<>();
+    private final List<PropertyDefinition> cleared = new ArrayList<>();
+    private final List<PropertyDefinition> defaultChanged = new ArrayList<>();
+    private final List<PropertyDefinition> otherChanged = new ArrayList<>();
+    private final List<String> typeLevelChanges = new ArrayList<>();
+
+    private UdtMemberDiff(String typeName) {
+        this.typeName = typeName;
+    }
+
+    /**
+     * Compare two versions of the same schema.
+     *
+     * @param previous The version last synced to the tag provider
+     * @param current  The version to sync now
+     */
+    public static UdtMemberDiff compute(SchemaModel previous, SchemaModel current) {
+        UdtMemberDiff diff = new UdtMemberDiff(current.getName());
+
+        if (!Objects.equals(emptyToNull(previous.getDescription()), emptyToNull(current.getDescription()))) {
+            diff.typeLevelChanges.add("documentation");
+        }
+        if (!Objects.equals(previous.hasParent() ? previous.getParentType() : null,
+                current.hasParent() ? current.getParentType() : null)) {
+            diff.typeLevelChanges.add("parent type");
+        }
+
+        Map<String, Member> before = members(previous);
+        Map<String, Member> after = members(current);
+
+        for (Member member : after.values()) {
+            Member old = before.get(member.property.getName());
+            if (old == null) {
+                if (member.nested) {
+                    diff.typeLevelChanges.add("nested object " + member.property.getName());
+                }
+                diff.added.add(member.property);
+            } else if (!Objects.equals(old.typeKey, member.typeKey)) {
+                if (old.nested || member.nested) {
+                    diff.typeLevelChanges.add("nested object " + member.property.getName());
+                }
+                diff.retyped.add(member.property);
+            } else if ((old.defaultValue != null && member.defaultValue == null)
+                    || (old.description != null && member.description == null)) {
+                diff.cleared.add(member.property);
+            } else if (!Objects.equals(old.defaultValue, member.defaultValue)) {
+                diff.defaultChanged.add(member.property);
+            } else if (!Objects.equals(old.description, member.description)) {
+                diff.otherChanged.add(member.property);
+            }
+        }
+        for (String name : before.keySet()) {
+            if (!after.containsKey(name)) {
+                diff.removed.add(name);
+            }
+        }
+        return diff;
+    }
+
+    private static Map<String, Member> members(SchemaModel schema) {
+        Map<String, Member> members = new LinkedHashMap<>();
+        for (PropertyDefinition prop : schema.getProperties()) {
+            Member member = Member.of(prop);
+            if (member != null) {
+                members.put(prop.getName(), member);
+            }
+        }
+        return members;
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public List<PropertyDefinition> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    public List<String> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+
+    public List<PropertyDefinition> getRetyped() {
+        return Collections.unmodifiableList(retyped);
+    }
+
+    /**
+     * Members that lost their default or tooltip. A merge only writes the properties a member has, so it cannot
+     * clear them; these members have to be overwritten.
+     */
+    public List<PropertyDefinition> getCleared() {
+        return Collections.unmodifiableList(cleared);
+    }
+
+    public List<PropertyDefinition> getDefaultChanged() {
+        return Collections.unmodifiableList(defaultChanged);
+    }
+
+    /**
+     * Members whose only change is their documentation.
+     */
+    public List<PropertyDefinition> getOtherChanged() {
+        return Collections.unmodifiableList(otherChanged);
+    }
+
+    /**
+     * True if the change cannot be expressed as member edits and the whole definition must be imported.
+     */
+    public boolean requiresFullImport() {
+        return !typeLevelChanges.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return typeLevelChanges.isEmpty() && added.isEmpty() && removed.isEmpty() && retyped.isEmpty()
+                && cleared.isEmpty() && defaultChanged.isEmpty() && otherChanged.isEmpty();
+    }
+
+    public String getSummary() {
+        if (requiresFullImport()) {
+            return "type-level change (" + String.join(", ", typeLevelChanges) + ")";
+        }
+        return added.size() + " added, " + removed.size() + " removed, " + retyped.size() + " retyped, "
+                + cleared.size() + " defaults or tooltips cleared, " + defaultChanged.size() + " defaults changed, "
+                + otherChanged.size() + " tooltips changed";
+    }
+
+    @Override
+    public String toString() {
+        return "UdtMemberDiff{" + typeName + ": " + getSummary() + '}';
+    }
+
+    /**
+     * The parts of a property that end up in the generated member definition.
+     */
+    private static class Member {
+        private final PropertyDefinition property;
+        private final Object typeKey;       // Nested properties for an inline object, compared structurally
+        private final String defaultValue;
+        private final String description;
+        private final boolean nested;
+
+        private Member(PropertyDefinition property, Object typeKey, String defaultValue, boolean nested) {
+            this.property = property;
+            this.typeKey = typeKey;
+            this.defaultValue = defaultValue;
+            this.description = emptyToNull(property.getDescription());
+            this.nested = nested;
+        }
+
+        /**
+         * @return The member, or null if the property does not produce a UDT member
+         */
+        static Member of(PropertyDefinition prop) {
+            if (prop.isReference()) {
+                return new Member(prop, "ref:" + prop.getRefType(), null, false);
+            }
+            if (prop.isObject() && prop.hasNestedProperties()) {
+                // A change anywhere in the nested definition changes the member's type
+                return new Member(prop, prop.getNestedProperties(), null, true);
+            }
+            if (prop.isArray()) {
+                return new Member(prop, "atomic:DataSet", null, false);
+            }
+
+            String ignitionType = DataTypeMapper.mapToIgnitionType(prop.getType(), prop.getFormat());
+            if (ignitionType == null) {
+                return null;
+            }
+            Object defaultValue = prop.getDefaultValue();
+            return new Member(prop, "atomic:" + ignitionType, defaultValue != null ? defaultValue.toString() : null,
+                    false);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Schedules retries of UDT definitions that failed to sync.
+ * <p>
+ * Each failed type is retried with exponential backoff and jitter until a sync of it succeeds. While the tag
+ * provider is unavailable no attempts are spent; once it becomes available every queued type is retried at once.
+ * The queue is saved to a file so pending retries survive a restart.
+ */
+public class UdtRetryQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(UdtRetryQueue.class);
+
+    private static final long TICK_MILLIS = 1000;
+    private static final char SEPARATOR = '\t';
+
+    private final Path file;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final BooleanSupplier providerAvailable;
+    private final Function<Set<String>, CompletableFuture<?>> dispatcher;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final AtomicLong retriedCount = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+    private boolean dirty = false;
+    private boolean providerWasAvailable = true;
+    private volatile boolean retrying = false;
+
+    /**
+     * @param file                 File the queue is saved to, or null to keep it in memory only
+     * @param initialBackoffMillis Delay before the first retry
+     * @param maxBackoffMillis     Upper bound on the delay between retries
+     * @param providerAvailable    Reports whether the tag provider can currently be reached
+     * @param dispatcher           Re-syncs the given UDT types; failures are reported back to this queue
+     */
+    public UdtRetryQueue(Path file, long initialBackoffMillis, long maxBackoffMillis,
+                         BooleanSupplier providerAvailable, Function<Set<String>, CompletableFuture<?>> dispatcher) {
+        this.file = file;
+        this.initialBackoffMillis = Math.max(1, initialBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.initialBackoffMillis, maxBackoffMillis);
+        this.providerAvailable = providerAvailable;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Get the name of the file that holds the retry queue of a tag provider.
+     */
+    public static String fileName(String providerName) {
+        return "sync-retry-" + providerName.replaceAll("[^A-Za-z0-9._-]", "_") + ".queue";
+    }
+
+    /**
+     * Load retries saved by a previous run and start the retry scheduler.
+     */
+    public void start() {
+        load();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "udt-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the scheduler and save the queue.
+     */
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+        save();
+    }
+
+    /**
+     * Queue a UDT type whose sync failed. A type that is already queued keeps its schedule.
+     */
+    public synchronized void recordFailure(String typeName) {
+        if (!entries.containsKey(typeName)) {
+            long now = System.currentTimeMillis();
+            Entry entry = new Entry(now, 1);
+            entry.nextAttemptMillis = now + backoffMillis(1);
+            entries.put(typeName, entry);
+            dirty = true;
+            logger.debug("Queued UDT {} for retry", typeName);
+        }
+    }
+
+    /**
+     * Remove a UDT type from the queue, e.g. because it synced or its schema was deleted.
+     */
+    public synchronized void remove(String typeName) {
+        if (entries.remove(typeName) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Get the number of UDT types waiting to be retried.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get how long the longest-waiting type has been failing, in milliseconds, or 0 if the queue is empty.
+     */
+    public synchronized long getOldestAgeMillis() {
+        long oldest = Long.MAX_VALUE;
+        for (Entry entry : entries.values()) {
+            oldest = Math.min(oldest, entry.firstFailureMillis);
+        }
+        return oldest == Long.MAX_VALUE ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+
+    /**
+     * Get the total number of retry attempts made.
+     */
+    public long getRetriedCount() {
+        return retriedCount.get();
+    }
+
+    void tick() {
+        try {
+            save();
+            if (retrying || size() == 0) {
+                return;
+            }
+
+            boolean available = providerAvailable.getAsBoolean();
+            Set<String> due = new HashSet<>();
+            synchronized (this) {
+                if (!available) {
+                    providerWasAvailable = false;
+                    return;
+                }
+                long now = System.currentTimeMillis();
+                boolean drain = !providerWasAvailable;
+                providerWasAvailable = true;
+                for (Map.Entry<String, Entry> queued : entries.entrySet()) {
+                    Entry entry = queued.getValue();
+                    if (drain || entry.nextAttemptMillis <= now) {
+                        // Count the attempt now, so a retry that neither succeeds nor fails is not repeated at once
+                        entry.attempts++;
+                        entry.nextAttemptMillis = now + backoffMillis(entry.attempts);
+                        due.add(queued.getKey());
+                    }
+                }
+                if (drain) {
+                    logger.info("Tag provider is available, retrying {} failed UDT definitions", due.size());
+                }
+                if (!due.isEmpty()) {
+                    dirty = true;
+                }
+            }
+            if (due.isEmpty()) {
+                return;
+            }
+
+            retrying = true;
+            retriedCount.addAndGet(due.size());
+            logger.info("Retrying {} failed UDT definitions ({} queued)", due.size(), size());
+            CompletableFuture<?> run;
+            try {
+                run = dispatcher.apply(due);
+            } catch (RuntimeException e) {
+                run = CompletableFuture.failedFuture(e);
+            }
+            run.whenComplete((ignored, error) -> {
+                retrying = false;
+                if (error != null) {
+                    logger.warn("UDT retry run failed: {}", error.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            retrying = false;
+            logger.warn("Error scheduling UDT retries", e);
+        }
+    }
+
+    /**
+     * Exponential backoff with equal jitter: half the delay is fixed, the other half random.
+     */
+    private long backoffMillis(int attempts) {
+        int exponent = Math.min(Math.max(0, attempts - 1), 30);
+        long delay = Math.min(maxBackoffMillis, initialBackoffMillis << exponent);
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    private synchronized void load() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+                if (fields.length != 3) {
+                    continue;
+                }
+                try {
+                    Entry entry = new Entry(Long.parseLong(fields[2]), Integer.parseInt(fields[1]));
+                    entry.nextAttemptMillis = now + backoffMillis(entry.attempts);
+                    entries.put(fields[0], entry);
+                } catch (NumberFormatException e) {
+                    logger.debug("Ignoring malformed retry queue line: {}", line);
+                }
+            }
+            if (!entries.isEmpty()) {
+                logger.info("Loaded {} pending UDT retries from {}", entries.size(), file);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read UDT retry queue {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void save() {
+        if (file == null) {
+            return;
+        }
+        StringBuilder content = new StringBuilder();
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            for (Map.Entry<String, Entry> queued : entries.entrySet()) {
+                content.append(queued.getKey()).append(SEPARATOR)
+                        .append(queued.getValue().attempts).append(SEPARATOR)
+                        .append(queued.getValue().firstFailureMillis).append('\n');
+            }
+            dirty = false;
+        }
+
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                writer.write(content.toString());
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            synchronized (this) {
+                dirty = true;
+            }
+            logger.warn("Failed to write UDT retry queue {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class Entry {
+        final long firstFailureMillis;
+        int attempts;
+        long nextAttemptMillis;
+
+        Entry(long firstFailureMillis, int attempts) {
+            this.firstFailureMillis = firstFailureMillis;
+            this.attempts = attempts;
+        }
+    }
+}
@@ -1,173 +1,712 @@
 package com.theoremsystems.ignition.schematagprovider.gateway.udt;
 
+import com.inductiveautomation.ignition.common.browsing.BrowseFilter;
 import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.browsing.NodeDescription;
+import com.inductiveautomation.ignition.common.tags.config.CollisionPolicy;
+import com.inductiveautomation.ignition.common.tags.model.TagPath;
 import com.inductiveautomation.ignition.common.tags.model.TagProvider;
 import com.inductiveautomation.ignition.common.tags.paths.parser.TagPathParser;
 import com.inductiveautomation.ignition.gateway.model.GatewayContext;
 import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.PropertyDefinition;
 import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * Synchronizes UDT definitions with Ignition's TagProvider.
  * Handles importing UDT definitions to the _types_ folder.
+ * <p>
+ * All operations are asynchronous: imports are composed as {@link CompletableFuture}s, the number of imports
+ * in flight is bounded, and timeouts complete the operation without blocking a thread.
  */
 public class UdtSynchronizer {
 
     private static final Logger logger = LoggerFactory.getLogger(UdtSynchronizer.class);
 
-    private static final String TYPES_PATH = "_types_";
+    private static final String TYPES_PATH = UdtImportBackend.TYPES_PATH;
     private static final long IMPORT_TIMEOUT_SECONDS = 30;
+    private static final int SYNC_THREADS = 2;
 
     private final GatewayContext context;
     private final UdtDefinitionBuilder builder;
+    private final UdtImportBackend backend;
     private final String providerName;
-    private final Set<String> registeredTypes = new HashSet<>();
+    // Journal entries are kept per provider and backend, since the backends write definitions differently
+    private final String journalKey;
+    private final int importBatchSize;
+    private final AsyncOperationLimiter importLimiter;
+    private final ExecutorService syncExecutor;
+    private final Set<String> registeredTypes = ConcurrentHashMap.newKeySet();
+
+    // Fingerprint of the schema last successfully imported per type, used to skip unchanged imports
+    private final Map<String, String> importedFingerprints = new ConcurrentHashMap<>();
+    // Last model successfully synced per type, used to patch members instead of re-importing the whole type
+    private final Map<String, SchemaModel> syncedModels = new ConcurrentHashMap<>();
+    // Persists fingerprints across restarts, or null
+    private volatile SyncJournal journal;
+    // Schedules failed types for another attempt, or null
+    private volatile UdtRetryQueue retryQueue;
+    // Shares schema fingerprints with the synchronizers of other providers, or null
+    private volatile UdtFingerprintCache fingerprintCache;
+    private volatile SyncReport lastReport;
+    private volatile long lastSyncMillis;
+    private volatile boolean memberPatchEnabled = false;
+    private final AtomicLong importedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong patchedCount = new AtomicLong();
 
     public UdtSynchronizer(GatewayContext context, String providerName) {
+        this(context, providerName, 1, 1);
+    }
+
+    /**
+     * @param importBatchSize    Maximum number of UDTs combined into a single import call
+     * @param maxInFlightImports Maximum number of import and remove calls outstanding at the same time
+     */
+    public UdtSynchronizer(GatewayContext context, String providerName, int importBatchSize, int maxInFlightImports) {
+        this(context, providerName, importBatchSize, maxInFlightImports, JsonUdtImportBackend.NAME);
+    }
+
+    /**
+     * @param backendName Name of the {@link UdtImportBackend} used to write definitions: "json" or "config"
+     */
+    public UdtSynchronizer(GatewayContext context, String providerName, int importBatchSize, int maxInFlightImports,
+                           String backendName) {
         this.context = context;
         this.providerName = providerName;
+        this.importBatchSize = Math.max(1, importBatchSize);
         this.builder = new UdtDefinitionBuilder();
+        this.backend = createBackend(backendName, builder);
+        this.journalKey = providerName + "/" + backend.getName();
+        // Builds UDT JSON between import stages and starts queued calls, keeping that work off the tag system's
+        // completion threads
+        this.syncExecutor = Executors.newFixedThreadPool(SYNC_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "udt-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.importLimiter = new AsyncOperationLimiter(maxInFlightImports, syncExecutor);
+    }
+
+    private static UdtImportBackend createBackend(String name, UdtDefinitionBuilder builder) {
+        if (TagConfigUdtImportBackend.NAME.equalsIgnoreCase(name)) {
+            return new TagConfigUdtImportBackend();
+        }
+        if (name != null && !JsonUdtImportBackend.NAME.equalsIgnoreCase(name)) {
+            logger.warn("Unknown UDT sync backend '{}', using {}", name, JsonUdtImportBackend.NAME);
+        }
+        return new JsonUdtImportBackend(builder);
     }
 
     /**
-     * Synchronize a schema to an Ignition UDT definition.
+     * Enable or disable member-level patching. When enabled, a changed schema whose UDT was synced earlier
+     * has only its added, removed and changed members written, instead of overwriting the whole type.
+     */
+    public void setMemberPatchEnabled(boolean memberPatchEnabled) {
+        this.memberPatchEnabled = memberPatchEnabled;
+    }
+
+    /**
+     * Set the queue that failed syncs are scheduled on for retry. Types leave the queue once a sync of them
+     * succeeds, finds them unchanged, or removes them.
+     */
+    public void setRetryQueue(UdtRetryQueue retryQueue) {
+        this.retryQueue = retryQueue;
+    }
+
+    public UdtRetryQueue getRetryQueue() {
+        return retryQueue;
+    }
+
+    /**
+     * Share schema fingerprints with other synchronizers, so each schema version is hashed once.
+     */
+    public void setFingerprintCache(UdtFingerprintCache fingerprintCache) {
+        this.fingerprintCache = fingerprintCache;
+    }
+
+    /**
+     * Seed the fingerprints of previously applied UDTs from a journal, so the next full sync only imports types
+     * that were still pending or have changed. Only types that still exist in the provider are trusted; later
+     * syncs and removals are recorded in the journal.
      *
-     * @param schema The schema to sync
-     * @return true if successful, false otherwise
+     * @return Future completed with the number of types restored
      */
-    public boolean syncUdtDefinition(SchemaModel schema) {
-        logger.info("Syncing UDT definition: {}", schema.getName());
+    public CompletableFuture<Integer> restoreFromJournal(SyncJournal journal) {
+        this.journal = journal;
+        Map<String, String> journaled = journal.getFingerprints(journalKey);
+        if (journaled.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+
+        TagProvider provider = getTagProvider();
+        if (provider == null) {
+            return CompletableFuture.completedFuture(0);
+        }
 
+        CompletableFuture<Set<String>> existingTypes;
         try {
-            TagProvider provider = getTagProvider();
-            if (provider == null) {
-                logger.error("Tag provider not found: {}", providerName);
-                return false;
+            existingTypes = provider.browseAsync(TagPathParser.parse(TYPES_PATH), new BrowseFilter())
+                    .copy()
+                    .orTimeout(IMPORT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                    .thenApply(results -> {
+                        Set<String> names = new HashSet<>();
+                        if (results != null && results.getResults() != null) {
+                            for (NodeDescription node : results.getResults()) {
+                                names.add(node.getName());
+                            }
+                        }
+                        return names;
+                    });
+        } catch (Exception e) {
+            existingTypes = CompletableFuture.failedFuture(e);
+        }
+
+        return existingTypes.handle((names, error) -> {
+            if (error != null) {
+                logger.warn("Could not browse UDT types of provider {}, ignoring sync journal: {}",
+                        providerName, unwrap(error).getMessage());
+                return 0;
+            }
+            int restored = 0;
+            for (Map.Entry<String, String> entry : journaled.entrySet()) {
+                if (names.contains(entry.getKey())) {
+                    importedFingerprints.put(entry.getKey(), entry.getValue());
+                    registeredTypes.add(entry.getKey());
+                    restored++;
+                } else {
+                    // Removed from the provider since it was journaled
+                    journal.recordForgotten(journalKey, entry.getKey());
+                }
             }
+            logger.info("Restored {} of {} journaled UDT definitions for provider {}",
+                    restored, journaled.size(), providerName);
+            return restored;
+        });
+    }
+
+    /**
+     * Cancel queued imports and stop the sync worker threads.
+     */
+    public void shutdown() {
+        importLimiter.cancelWaiting();
+        syncExecutor.shutdownNow();
+    }
+
+    /**
+     * Synchronize a schema to an Ignition UDT definition.
+     * The import is skipped if the schema's fingerprint matches the last successful import.
+     *
+     * @param schema The schema to sync
+     * @return Future completed with true if successful or unchanged, false otherwise
+     */
+    public CompletableFuture<Boolean> syncUdtDefinition(SchemaModel schema) {
+        return syncInLayers(List.of(List.of(schema))).thenApply(SyncReport::isSuccessful);
+    }
+
+    /**
+     * Synchronize multiple schemas.
+     * <p>
+     * Schemas are synced in topological layers of their dependency graph so parent and referenced types exist
+     * before the types that use them. Within a layer, changed schemas are imported in batches of up to
+     * {@code importBatchSize} UDTs per import call, and the batches run concurrently.
+     *
+     * @param schemas The schemas to sync
+     * @return Future completed with the aggregate results of the run
+     */
+    public CompletableFuture<SyncReport> syncAllUdtDefinitions(Iterable<SchemaModel> schemas) {
+        return syncInLayers(UdtDependencyGraph.build(schemas).getLayers());
+    }
+
+    /**
+     * Synchronize changed schemas together with every schema that transitively depends on them.
+     * Dependents are found from an index of type references, so only the affected schemas have to be loaded. They
+     * are synced after the types they use, and like any other schema are only imported if their own definition
+     * changed: Ignition resolves parent and nested types by name, so an unchanged dependent picks up a changed
+     * parent without being overwritten.
+     *
+     * @param changed        The schemas that changed
+     * @param typeReferences The types each known type references, by type name
+     * @param schemaLookup   Gets the current schema of a dependent type, or null if it no longer exists
+     * @return Future completed with the aggregate results of the run
+     */
+    public CompletableFuture<SyncReport> syncChangedUdtDefinitions(Collection<SchemaModel> changed,
+                                                                 Map<String, Set<String>> typeReferences,
+                                                                 Function<String, SchemaModel> schemaLookup) {
+        UdtDependencyGraph graph = UdtDependencyGraph.fromReferences(typeReferences);
+        Set<String> changedNames = new HashSet<>();
+        for (SchemaModel schema : changed) {
+            changedNames.add(schema.getName());
+        }
 
-            // First, import any nested UDT definitions
-            String nestedJson = builder.buildNestedUdtDefinitions(schema);
-            if (nestedJson != null) {
-                logger.debug("Importing nested UDT definitions for: {}", schema.getName());
-                boolean nestedSuccess = importUdtJson(provider, nestedJson);
-                if (!nestedSuccess) {
-                    logger.warn("Failed to import nested UDTs for: {}", schema.getName());
+        List<SchemaModel> affected = new ArrayList<>(changed);
+        for (String name : graph.getWithDependents(changedNames)) {
+            if (!changedNames.contains(name)) {
+                SchemaModel dependent = schemaLookup.apply(name);
+                if (dependent != null) {
+                    affected.add(dependent);
                 }
             }
+        }
 
-            // Build and import the main UDT definition
-            String udtJson = builder.buildUdtJson(schema);
-            boolean success = importUdtJson(provider, udtJson);
+        if (affected.size() > changed.size()) {
+            logger.debug("Checking {} dependent UDT definitions of {}", affected.size() - changed.size(), changedNames);
+        }
 
-            if (success) {
-                registeredTypes.add(schema.getName());
-                logger.info("Successfully synced UDT: {}", schema.getName());
+        return syncInLayers(UdtDependencyGraph.build(affected).getLayers());
+    }
+
+    private CompletableFuture<SyncReport> syncInLayers(List<List<SchemaModel>> layers) {
+        SyncReport report = new SyncReport();
+
+        // Each layer starts once the previous layer's imports have all completed
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (List<SchemaModel> layer : layers) {
+            chain = chain.thenComposeAsync(ignored -> syncLayer(layer, report), syncExecutor);
+        }
+
+        return chain.handle((ignored, error) -> {
+            if (error != null) {
+                logger.error("UDT sync run aborted", unwrap(error));
+            }
+            report.finish();
+            lastReport = report;
+            lastSyncMillis = System.currentTimeMillis();
+            if (report.getImported() > 0 || report.getPatched() > 0 || report.getFailed() > 0) {
+                logger.info("Synced {}/{} UDT definitions to {} in {} layers ({} imported, {} patched, {} unchanged, "
+                                + "{} failed, {} timed out, {} import calls, {} ms)",
+                        report.getSucceeded(), report.getTotal(), providerName, layers.size(), report.getImported(),
+                        report.getPatched(), report.getUnchanged(), report.getFailed(), report.getTimedOut(), report.getImportCalls(),
+                        report.getDurationMillis());
             } else {
-                logger.error("Failed to sync UDT: {}", schema.getName());
+                logger.debug("All {} UDT definitions unchanged", report.getTotal());
             }
+            return report;
+        });
+    }
 
-            return success;
+    private CompletableFuture<Void> syncLayer(List<SchemaModel> layer, SyncReport report) {
+        report.addTotal(layer.size());
+
+        // Collect the schemas whose definitions changed
+        List<PendingUdt> pending = new ArrayList<>();
+        for (SchemaModel schema : layer) {
+            try {
+                UdtFingerprintCache shared = fingerprintCache;
+                // The backend name is part of the fingerprint, so switching backends writes every type again
+                String fingerprint = backend.getName() + ":"
+                        + (shared != null ? shared.fingerprint(schema) : UdtFingerprint.of(schema));
+                if (fingerprint.equals(importedFingerprints.get(schema.getName())) && registeredTypes.contains(schema.getName())) {
+                    skippedCount.incrementAndGet();
+                    report.addUnchanged(1);
+                    clearRetry(schema.getName());
+                    logger.debug("UDT definition unchanged, skipping import: {}", schema.getName());
+                } else {
+                    pending.add(new PendingUdt(schema, builder.countNestedUdts(schema), fingerprint));
+                }
+            } catch (Exception e) {
+                // Not queued for retry: building is deterministic and would fail again until the schema changes
+                report.addFailed(1);
+                logger.error("Error building UDT definition: " + schema.getName(), e);
+            }
+        }
 
-        } catch (Exception e) {
-            logger.error("Error syncing UDT definition: " + schema.getName(), e);
-            return false;
+        if (pending.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        TagProvider provider = getTagProvider();
+        if (provider == null) {
+            logger.error("Tag provider not found: {}", providerName);
+            report.addFailed(pending.size());
+            for (PendingUdt udt : pending) {
+                queueRetry(udt.schema.getName());
+            }
+            return CompletableFuture.completedFuture(null);
         }
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        if (memberPatchEnabled) {
+            pending = patchOrCollect(provider, pending, batches, report);
+        }
+        for (int start = 0; start < pending.size(); start += importBatchSize) {
+            List<PendingUdt> batch = pending.subList(start, Math.min(start + importBatchSize, pending.size()));
+            batches.add(importBatch(provider, batch, report));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]));
     }
 
     /**
-     * Synchronize multiple schemas.
-     *
-     * @param schemas The schemas to sync
-     * @return Number of successfully synced schemas
+     * Import a batch of UDTs with one import call for all nested types and one for all main types.
+     * Per-index results are mapped back to the schema they belong to.
      */
-    public int syncAllUdtDefinitions(Iterable<SchemaModel> schemas) {
-        int successCount = 0;
-        for (SchemaModel schema : schemas) {
-            if (syncUdtDefinition(schema)) {
-                successCount++;
+    private CompletableFuture<Void> importBatch(TagProvider provider, List<PendingUdt> batch, SyncReport report) {
+        if (batch.size() == 1) {
+            logger.info("Syncing UDT definition: {}", batch.get(0).schema.getName());
+        } else {
+            logger.info("Importing batch of {} UDT definitions", batch.size());
+        }
+
+        // Nested types go first, remembering which entries belong to which schema
+        List<SchemaModel> batchSchemas = new ArrayList<>(batch.size());
+        int nestedCount = 0;
+        for (PendingUdt udt : batch) {
+            batchSchemas.add(udt.schema);
+            udt.nestedStart = nestedCount;
+            nestedCount += udt.nestedCount;
+        }
+
+        CompletableFuture<List<QualityCode>> nestedImport = nestedCount > 0
+                ? importCall(report, () -> backend.importNestedTypes(provider, batchSchemas))
+                : CompletableFuture.completedFuture(List.of());
+        int totalNested = nestedCount;
+
+        return nestedImport
+                .thenComposeAsync(nestedResults -> importCall(report, () -> backend.importTypes(provider, batchSchemas))
+                        .thenApply(mainResults -> new BatchResults(nestedResults, mainResults)), syncExecutor)
+                .handleAsync((results, error) -> {
+                    if (error != null) {
+                        Throwable cause = unwrap(error);
+                        if (cause instanceof TimeoutException) {
+                            report.addTimedOut(batch.size());
+                            logger.error("Timed out importing UDT batch of {} definitions", batch.size());
+                        } else {
+                            logger.error("Error importing UDT batch of {} definitions", batch.size(), cause);
+                        }
+                        report.addFailed(batch.size());
+                        for (PendingUdt udt : batch) {
+                            forgetSynced(udt.schema.getName());
+                            queueRetry(udt.schema.getName());
+                        }
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    return applyBatchResults(provider, batch, totalNested, results, report);
+                }, syncExecutor)
+                .thenCompose(next -> next);
+    }
+
+    private CompletableFuture<Void> applyBatchResults(TagProvider provider, List<PendingUdt> batch, int nestedCount,
+                                                      BatchResults results, SyncReport report) {
+        List<QualityCode> nestedResults = results.nested;
+        List<QualityCode> mainResults = results.main;
+
+        // If results cannot be matched to entries and something failed, isolate failures one schema at a time
+        boolean nestedMapped = nestedResults.size() == nestedCount;
+        boolean mainMapped = mainResults.size() == batch.size();
+        if (batch.size() > 1
+                && ((!nestedMapped && !allGood(nestedResults)) || (!mainMapped && !allGood(mainResults)))) {
+            logger.warn("Batch import returned {} results for {} definitions, retrying individually",
+                    nestedResults.size() + mainResults.size(), nestedCount + batch.size());
+            List<CompletableFuture<Void>> retries = new ArrayList<>();
+            for (PendingUdt udt : batch) {
+                retries.add(importBatch(provider, List.of(udt), report));
             }
+            return CompletableFuture.allOf(retries.toArray(new CompletableFuture[0]));
         }
-        logger.info("Synced {}/{} UDT definitions", successCount, registeredTypes.size());
-        return successCount;
+
+        for (int i = 0; i < batch.size(); i++) {
+            PendingUdt udt = batch.get(i);
+            String name = udt.schema.getName();
+
+            boolean nestedSuccess = nestedMapped
+                    ? allGood(nestedResults.subList(udt.nestedStart, udt.nestedStart + udt.nestedCount))
+                    : allGood(nestedResults);
+            boolean success = mainMapped ? mainResults.get(i).isGood() : allGood(mainResults);
+
+            if (success) {
+                registeredTypes.add(name);
+            }
+            if (success && nestedSuccess) {
+                markSynced(udt);
+                importedCount.incrementAndGet();
+                report.addImported(1);
+                logger.debug("Successfully synced UDT: {}", name);
+            } else if (success) {
+                // The type exists but its nested types do not match it, so it is a failure to be retried
+                forgetSynced(name);
+                queueRetry(name);
+                report.addFailed(1);
+                logger.warn("Failed to import nested UDTs for: {}", name);
+            } else {
+                forgetSynced(name);
+                queueRetry(name);
+                report.addFailed(1);
+                logger.error("Failed to sync UDT: {} - {}", name, mainMapped ? mainResults.get(i) : mainResults);
+            }
+        }
+        return CompletableFuture.completedFuture(null);
     }
 
     /**
-     * Remove a UDT definition from Ignition.
+     * Start member patches for pending schemas that allow it.
      *
-     * @param schemaName The name of the UDT to remove
-     * @return true if successful
+     * @return The pending schemas that still need a full import
      */
-    public boolean removeUdtDefinition(String schemaName) {
-        logger.info("Removing UDT definition: {}", schemaName);
+    private List<PendingUdt> patchOrCollect(TagProvider provider, List<PendingUdt> pending,
+                                            List<CompletableFuture<Void>> patches, SyncReport report) {
+        List<PendingUdt> fullImports = new ArrayList<>();
+        for (PendingUdt udt : pending) {
+            String name = udt.schema.getName();
+            SchemaModel previous = syncedModels.get(name);
+            if (previous == null || !registeredTypes.contains(name)) {
+                fullImports.add(udt);
+                continue;
+            }
+
+            UdtMemberDiff diff = UdtMemberDiff.compute(previous, udt.schema);
+            if (diff.requiresFullImport()) {
+                logger.info("UDT {} has a {}, importing whole definition", name, diff.getSummary());
+                fullImports.add(udt);
+            } else if (diff.isEmpty()) {
+                // Nothing in the generated members changed, e.g. only the schema's $id or required list differs
+                markSynced(udt);
+                skippedCount.incrementAndGet();
+                report.addUnchanged(1);
+                logger.debug("No member changes for UDT {}, skipping import", name);
+            } else {
+                patches.add(patchUdt(provider, udt, diff, report));
+            }
+        }
+        return fullImports;
+    }
 
+    /**
+     * Apply a member diff to an existing UDT: remove deleted members, overwrite added, retyped and cleared members,
+     * and merge changed defaults and tooltips. Falls back to a full import if any edit fails.
+     */
+    private CompletableFuture<Void> patchUdt(TagProvider provider, PendingUdt udt, UdtMemberDiff diff,
+                                             SyncReport report) {
+        String name = udt.schema.getName();
+        logger.info("Patching UDT {}: {}", name, diff.getSummary());
+
+        CompletableFuture<List<QualityCode>> edits;
         try {
-            TagProvider provider = getTagProvider();
-            if (provider == null) {
-                return false;
+            TagPath udtPath = TagPathParser.parse(TYPES_PATH + "/" + name);
+
+            List<TagPath> removals = new ArrayList<>();
+            for (String member : diff.getRemoved()) {
+                removals.add(udtPath.getChildPath(member));
             }
+            // Members are written by the active backend, so they take the same form as a full import
+            List<PropertyDefinition> replacements = concat(diff.getAdded(), diff.getRetyped(), diff.getCleared());
+            List<PropertyDefinition> merges = concat(diff.getDefaultChanged(), diff.getOtherChanged());
 
-            // Remove the tag at _types_/schemaName
-            var tagPath = TagPathParser.parse(TYPES_PATH + "/" + schemaName);
-            CompletableFuture<List<QualityCode>> future = provider.removeTagConfigsAsync(List.of(tagPath));
+            edits = CompletableFuture.completedFuture(new ArrayList<>());
+            if (!removals.isEmpty()) {
+                edits = appendResults(edits, report, () -> provider.removeTagConfigsAsync(removals));
+            }
+            if (!replacements.isEmpty()) {
+                edits = appendResults(edits, report,
+                        () -> backend.saveMembers(provider, name, replacements, CollisionPolicy.Overwrite));
+            }
+            if (!merges.isEmpty()) {
+                edits = appendResults(edits, report,
+                        () -> backend.saveMembers(provider, name, merges, CollisionPolicy.MergeOverwrite));
+            }
+        } catch (Exception e) {
+            edits = CompletableFuture.failedFuture(e);
+        }
 
-            List<QualityCode> results = future.get(IMPORT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return edits.handleAsync((results, error) -> {
+            if (error == null && allGood(results)) {
+                registeredTypes.add(name);
+                markSynced(udt);
+                patchedCount.incrementAndGet();
+                report.addPatched(1);
+                return CompletableFuture.<Void>completedFuture(null);
+            }
 
-            boolean success = results.stream().allMatch(QualityCode::isGood);
-            if (success) {
-                registeredTypes.remove(schemaName);
-                logger.info("Removed UDT: {}", schemaName);
+            if (error != null) {
+                logger.warn("Error patching UDT {}, importing whole definition", name, unwrap(error));
             } else {
-                logger.error("Failed to remove UDT: {} - {}", schemaName, results);
+                logger.warn("Failed to patch UDT {} ({}), importing whole definition", name, results);
             }
+            syncedModels.remove(name);
+            return importBatch(provider, List.of(udt), report);
+        }, syncExecutor).thenCompose(next -> next);
+    }
 
-            return success;
+    @SafeVarargs
+    private static List<PropertyDefinition> concat(List<PropertyDefinition>... groups) {
+        List<PropertyDefinition> members = new ArrayList<>();
+        for (List<PropertyDefinition> group : groups) {
+            members.addAll(group);
+        }
+        return members;
+    }
 
-        } catch (Exception e) {
-            logger.error("Error removing UDT: " + schemaName, e);
-            return false;
+    /**
+     * Run another edit after the previous ones, collecting all results in one list.
+     */
+    private CompletableFuture<List<QualityCode>> appendResults(CompletableFuture<List<QualityCode>> previous,
+                                                               SyncReport report, ImportCall call) {
+        return previous.thenComposeAsync(results -> importCall(report, call).thenApply(more -> {
+            results.addAll(more);
+            return results;
+        }), syncExecutor);
+    }
+
+    private boolean allGood(List<QualityCode> results) {
+        return results.stream().allMatch(QualityCode::isGood);
+    }
+
+    /**
+     * Remove a UDT definition from Ignition.
+     *
+     * @param schemaName The name of the UDT to remove
+     * @return Future completed with true if successful
+     */
+    public CompletableFuture<Boolean> removeUdtDefinition(String schemaName) {
+        logger.info("Removing UDT definition: {}", schemaName);
+        return removeUdtDefinitions(List.of(schemaName)).thenApply(SyncReport::isSuccessful);
+    }
+
+    /**
+     * Remove multiple UDT definitions from Ignition. Paths are removed with one call per batch of up to the import
+     * batch size, and each path's result is applied to its own type. Retries queued for the types are dropped, even
+     * if their removal fails.
+     *
+     * @param typeNames The names of the UDT types to remove, including nested types
+     * @return Future completed with a report of the removal run
+     */
+    public CompletableFuture<SyncReport> removeUdtDefinitions(Collection<String> typeNames) {
+        SyncReport report = new SyncReport();
+        List<String> names = new ArrayList<>(typeNames);
+        report.addTotal(names.size());
+        for (String name : names) {
+            // A retry would sync the type again after it was removed
+            clearRetry(name);
         }
+        if (names.isEmpty()) {
+            return CompletableFuture.completedFuture(report.finish());
+        }
+
+        TagProvider provider = getTagProvider();
+        if (provider == null) {
+            report.addFailed(names.size());
+            return CompletableFuture.completedFuture(report.finish());
+        }
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        for (int start = 0; start < names.size(); start += importBatchSize) {
+            batches.add(removeBatch(provider, names.subList(start, Math.min(start + importBatchSize, names.size())),
+                    report));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    report.finish();
+                    if (names.size() > 1) {
+                        logger.info("Removed {}/{} UDT definitions ({} failed, {} timed out, {} remove calls, {} ms)",
+                                report.getRemoved(), report.getTotal(), report.getFailed(), report.getTimedOut(),
+                                report.getImportCalls(), report.getDurationMillis());
+                    }
+                    return report;
+                });
     }
 
-    private boolean importUdtJson(TagProvider provider, String json) {
-        try {
-            var typesPath = TagPathParser.parse(TYPES_PATH);
-
-            // Import using Overwrite collision policy to update existing UDTs
-            CompletableFuture<List<QualityCode>> future = provider.importTagsAsync(
-                    typesPath,
-                    json,
-                    "json",
-                    com.inductiveautomation.ignition.common.tags.config.CollisionPolicy.Overwrite
-            );
-
-            List<QualityCode> results = future.get(IMPORT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-
-            boolean success = results.stream().allMatch(QualityCode::isGood);
-            if (!success) {
-                for (int i = 0; i < results.size(); i++) {
-                    if (!results.get(i).isGood()) {
-                        logger.error("Import error at index {}: {}", i, results.get(i));
+    private CompletableFuture<Void> removeBatch(TagProvider provider, List<String> batch, SyncReport report) {
+        return importCall(report, () -> {
+                    // Each UDT lives at _types_/typeName
+                    List<TagPath> paths = new ArrayList<>(batch.size());
+                    for (String schemaName : batch) {
+                        paths.add(TagPathParser.parse(TYPES_PATH + "/" + schemaName));
                     }
-                }
+                    return provider.removeTagConfigsAsync(paths);
+                })
+                .handleAsync((results, error) -> {
+                    if (error != null) {
+                        Throwable cause = unwrap(error);
+                        if (cause instanceof TimeoutException) {
+                            report.addTimedOut(batch.size());
+                            logger.error("Timed out removing {} UDT definitions", batch.size());
+                        } else {
+                            logger.error("Error removing UDT definitions: " + batch, cause);
+                        }
+                        report.addFailed(batch.size());
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+
+                    // If results cannot be matched to paths and something failed, isolate failures one path at a time
+                    boolean mapped = results.size() == batch.size();
+                    if (!mapped && batch.size() > 1 && !allGood(results)) {
+                        logger.warn("Removal returned {} results for {} definitions, retrying individually",
+                                results.size(), batch.size());
+                        List<CompletableFuture<Void>> retries = new ArrayList<>();
+                        for (String schemaName : batch) {
+                            retries.add(removeBatch(provider, List.of(schemaName), report));
+                        }
+                        return CompletableFuture.allOf(retries.toArray(new CompletableFuture[0]));
+                    }
+
+                    for (int i = 0; i < batch.size(); i++) {
+                        String schemaName = batch.get(i);
+                        boolean success = mapped ? results.get(i).isGood() : allGood(results);
+                        if (success) {
+                            registeredTypes.remove(schemaName);
+                            forgetSynced(schemaName);
+                            clearRetry(schemaName);
+                            report.addRemoved(1);
+                            logger.info("Removed UDT: {}", schemaName);
+                        } else {
+                            report.addFailed(1);
+                            logger.error("Failed to remove UDT: {} - {}", schemaName, mapped ? results.get(i) : results);
+                        }
+                    }
+                    return CompletableFuture.<Void>completedFuture(null);
+                }, syncExecutor)
+                .thenCompose(next -> next);
+    }
+
+    private CompletableFuture<List<QualityCode>> importCall(SyncReport report, ImportCall call) {
+        return importLimiter.submit(() -> {
+            try {
+                report.addImportCall();
+                return call.start();
+            } catch (Exception e) {
+                return CompletableFuture.<List<QualityCode>>failedFuture(e);
             }
+        }, IMPORT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
 
-            return success;
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
 
+    /**
+     * Check whether the target tag provider can currently be reached, without logging if it cannot.
+     */
+    public boolean isTagProviderAvailable() {
+        try {
+            GatewayTagManager tagManager = context.getTagManager();
+            return tagManager != null && tagManager.getTagProvider(providerName) != null;
         } catch (Exception e) {
-            logger.error("Error importing UDT JSON", e);
             return false;
         }
     }
 
-    private TagProvider getTagProvider() {
+    TagProvider getTagProvider() {
         try {
             GatewayTagManager tagManager = context.getTagManager();
             if (tagManager == null) {
@@ -206,4 +745,162 @@ public class UdtSynchronizer {
     public boolean isTypeRegistered(String typeName) {
         return registeredTypes.contains(typeName);
     }
+
+    /**
+     * Forget the fingerprint of a UDT type so that its next sync re-imports it even if unchanged.
+     */
+    public void invalidateFingerprint(String typeName) {
+        importedFingerprints.remove(typeName);
+        SyncJournal current = journal;
+        if (current != null) {
+            current.recordForgotten(journalKey, typeName);
+        }
+    }
+
+    /**
+     * Forget everything known about a UDT type, so its next sync imports the whole definition even if unchanged.
+     * Used when the type in the provider no longer matches what was applied.
+     */
+    public void invalidateType(String typeName) {
+        registeredTypes.remove(typeName);
+        forgetSynced(typeName);
+    }
+
+    /**
+     * Remember a UDT as applied, in memory and in the journal.
+     */
+    private void markSynced(PendingUdt udt) {
+        String name = udt.schema.getName();
+        importedFingerprints.put(name, udt.fingerprint);
+        syncedModels.put(name, udt.schema);
+        SyncJournal current = journal;
+        if (current != null) {
+            current.recordApplied(journalKey, name, udt.fingerprint);
+        }
+        clearRetry(name);
+    }
+
+    /**
+     * Forget what was applied for a UDT, so its next sync imports it again.
+     */
+    private void forgetSynced(String name) {
+        importedFingerprints.remove(name);
+        syncedModels.remove(name);
+        SyncJournal current = journal;
+        if (current != null) {
+            current.recordForgotten(journalKey, name);
+        }
+    }
+
+    private void queueRetry(String name) {
+        UdtRetryQueue queue = retryQueue;
+        if (queue != null) {
+            queue.recordFailure(name);
+        }
+    }
+
+    private void clearRetry(String name) {
+        UdtRetryQueue queue = retryQueue;
+        if (queue != null) {
+            queue.remove(name);
+        }
+    }
+
+    /**
+     * Get the total number of UDT imports performed.
+     */
+    public long getImportedCount() {
+        return importedCount.get();
+    }
+
+    /**
+     * Get the total number of UDTs updated by member-level patches.
+     */
+    public long getPatchedCount() {
+        return patchedCount.get();
+    }
+
+    /**
+     * Get the total number of UDT imports skipped because the definition was unchanged.
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    /**
+     * Get the number of import and remove calls currently outstanding.
+     */
+    public int getInFlightImports() {
+        return importLimiter.getInFlight();
+    }
+
+    /**
+     * Get the number of import and remove calls waiting for a free slot.
+     */
+    public int getQueuedImports() {
+        return importLimiter.getWaiting();
+    }
+
+    public String getProviderName() {
+        return providerName;
+    }
+
+    /**
+     * Get the report of the last completed sync run, or null if none has completed.
+     */
+    public SyncReport getLastReport() {
+        return lastReport;
+    }
+
+    /**
+     * Get when the last sync run completed, in epoch milliseconds, or 0 if none has completed.
+     */
+    public long getLastSyncTimeMillis() {
+        return lastSyncMillis;
+    }
+
+    /**
+     * Get the backend used to write UDT definitions.
+     */
+    UdtImportBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Get the name of the backend used to write UDT definitions.
+     */
+    public String getBackendName() {
+        return backend.getName();
+    }
+
+    @FunctionalInterface
+    private interface ImportCall {
+        CompletableFuture<List<QualityCode>> start() throws Exception;
+    }
+
+    /**
+     * A changed schema waiting to be imported as part of a batch.
+     */
+    private static class PendingUdt {
+        private final SchemaModel schema;
+        private final int nestedCount;
+        private final String fingerprint;
+        private int nestedStart;    // Offset of this schema's entries in the batch's nested import
+
+        PendingUdt(SchemaModel schema, int nestedCount, String fingerprint) {
+            this.schema = schema;
+            this.nestedCount = nestedCount;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static class BatchResults {
+        private final List<QualityCode> nested;
+        private final List<QualityCode> main;
+
+        BatchResults(List<QualityCode> nested, List<QualityCode> main) {
+            this.nested = nested;
+            this.main = main;
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package com.theoremsystems.ignition.schematagprovider.gateway;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SchemaUpdateCoalescerTest {
+
+    private static final long WINDOW_MILLIS = 100;
+
+    private final BlockingQueue<String> delivered = new LinkedBlockingQueue<>();
+    private SchemaUpdateCoalescer coalescer;
+
+    @AfterEach
+    void shutdown() {
+        if (coalescer != null) {
+            coalescer.shutdown();
+        }
+    }
+
+    @Test
+    void burstOfUpdatesDeliversOnlyTheNewest() throws Exception {
+        coalescer = new SchemaUpdateCoalescer(WINDOW_MILLIS, new RecordingListener());
+
+        coalescer.submitUpdate("motor", "v1");
+        coalescer.submitUpdate("motor", "v2");
+        coalescer.submitUpdate("motor", "v3");
+
+        assertEquals("update motor v3", next());
+        assertNull(delivered.poll(WINDOW_MILLIS * 2, TimeUnit.MILLISECONDS));
+        assertEquals(2, coalescer.getSupersededCount());
+        assertEquals(1, coalescer.getDeliveredCount());
+        assertEquals(0, coalescer.getPendingCount());
+    }
+
+    @Test
+    void deleteSupersedesPendingUpdate() throws Exception {
+        coalescer = new SchemaUpdateCoalescer(WINDOW_MILLIS, new RecordingListener());
+
+        coalescer.submitUpdate("motor", "v1");
+        coalescer.submitDelete("motor");
+
+        assertEquals("delete motor", next());
+    }
+
+    @Test
+    void schemasAreCoalescedIndependently() throws Exception {
+        coalescer = new SchemaUpdateCoalescer(WINDOW_MILLIS, new RecordingListener());
+
+        coalescer.submitUpdate("motor", "v1");
+        coalescer.submitUpdate("pump", "v1");
+        coalescer.submitUpdate("motor", "v2");
+
+        List<String> operations = List.of(next(), next()).stream().sorted().collect(Collectors.toList());
+        assertEquals(List.of("update motor v2", "update pump v1"), operations);
+    }
+
+    @Test
+    void updateAfterWindowClosedIsDeliveredSeparately() throws Exception {
+        coalescer = new SchemaUpdateCoalescer(WINDOW_MILLIS, new RecordingListener());
+
+        coalescer.submitUpdate("motor", "v1");
+        assertEquals("update motor v1", next());
+        coalescer.submitUpdate("motor", "v2");
+        assertEquals("update motor v2", next());
+        assertEquals(0, coalescer.getSupersededCount());
+    }
+
+    @Test
+    void zeroWindowDeliversImmediately() {
+        coalescer = new SchemaUpdateCoalescer(0, new RecordingListener());
+
+        coalescer.submitUpdate("motor", "v1");
+        coalescer.submitUpdate("motor", "v2");
+
+        assertEquals(List.of("update motor v1", "update motor v2"), List.copyOf(delivered));
+    }
+
+    @Test
+    void shutdownPassesOnPendingOperations() {
+        coalescer = new SchemaUpdateCoalescer(60_000, new RecordingListener());
+
+        coalescer.submitUpdate("motor", "v1");
+        coalescer.submitUpdate("motor", "v2");
+        coalescer.submitDelete("pump");
+        coalescer.shutdown();
+
+        List<String> operations = delivered.stream().sorted().collect(Collectors.toList());
+        assertEquals(List.of("delete pump", "update motor v2"), operations);
+        assertEquals(0, coalescer.getPendingCount());
+
+        coalescer.submitUpdate("motor", "v3");
+        assertEquals(3, delivered.size());
+    }
+
+    @Test
+    void submittingBlocksWhileTooManyOperationsAreOutstanding() throws Exception {
+        CompletableFuture<Void> processing = new CompletableFuture<>();
+        coalescer = new SchemaUpdateCoalescer(0, 1, new RecordingListener() {
+            @Override
+            public CompletableFuture<?> onCoalescedUpdate(String schemaName, String jsonSchemaContent) {
+                super.onCoalescedUpdate(schemaName, jsonSchemaContent);
+                return processing;
+            }
+        });
+
+        coalescer.submitUpdate("motor", "v1");
+        Thread second = new Thread(() -> coalescer.submitUpdate("pump", "v1"));
+        second.start();
+
+        assertEquals("update motor v1", next());
+        assertNull(delivered.poll(WINDOW_MILLIS, TimeUnit.MILLISECONDS));
+        processing.complete(null);
+        assertEquals("update pump v1", next());
+        second.join();
+    }
+
+    private String next() throws InterruptedException {
+        return delivered.poll(WINDOW_MILLIS * 20, TimeUnit.MILLISECONDS);
+    }
+
+    private class RecordingListener implements SchemaUpdateCoalescer.Listener {
+        @Override
+        public CompletableFuture<?> onCoalescedUpdate(String schemaName, String jsonSchemaContent) {
+            delivered.add("update " + schemaName + " " + jsonSchemaContent);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<?> onCoalescedDelete(String schemaName) {
+            delivered.add("delete " + schemaName);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.mqtt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchemaIngestQueueTest {
+
+    @Test
+    void stopHandsQueuedMessagesToTheHandler() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> handled = new CopyOnWriteArrayList<>();
+        SchemaIngestQueue queue = new SchemaIngestQueue(new SchemaMessageHandler() {
+            @Override
+            public void onSchemaReceived(String schemaName, String jsonSchemaContent) {
+                awaitQuietly(release);
+                handled.add("update " + schemaName + " " + jsonSchemaContent);
+            }
+
+            @Override
+            public void onSchemaDeleted(String schemaName) {
+                handled.add("delete " + schemaName);
+            }
+        }, 10, 1, SchemaIngestQueue.OverflowPolicy.BLOCK);
+        queue.start();
+
+        queue.onSchemaReceived("motor", "v1");
+        queue.onSchemaReceived("pump", "v1");
+        queue.onSchemaDeleted("valve");
+        release.countDown();
+        queue.stop();
+
+        assertEquals(List.of("update motor v1", "update pump v1", "delete valve"), handled);
+        assertEquals(0, queue.getQueueDepth());
+        assertEquals(0, queue.getDroppedCount());
+    }
+
+    @Test
+    void messagesAfterStopAreDropped() {
+        List<String> handled = new CopyOnWriteArrayList<>();
+        SchemaIngestQueue queue = new SchemaIngestQueue(new SchemaMessageHandler() {
+            @Override
+            public void onSchemaReceived(String schemaName, String jsonSchemaContent) {
+                handled.add(schemaName);
+            }
+
+            @Override
+            public void onSchemaDeleted(String schemaName) {
+                handled.add(schemaName);
+            }
+        }, 10, 2, SchemaIngestQueue.OverflowPolicy.BLOCK);
+        queue.start();
+        queue.stop();
+
+        queue.onSchemaReceived("motor", "v1");
+
+        assertTrue(handled.isEmpty());
+        assertEquals(1, queue.getDroppedCount());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.schema;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PropertyDefinitionPoolTest {
+
+    private static final String ADDRESS = "{\"type\": \"object\", \"properties\": {"
+            + "\"street\": {\"type\": \"string\"},"
+            + "\"geo\": {\"type\": \"object\", \"properties\": {\"lat\": {\"type\": \"number\"}}}}}";
+
+    private final JsonSchemaParser parser = new JsonSchemaParser();
+
+    @Test
+    void identicalInlineSubtreesAreShared() throws Exception {
+        long shared = PropertyDefinitionPool.getSharedCount();
+
+        SchemaModel first = parser.parse("Site", schema("{\"address\": " + ADDRESS + "}"));
+        SchemaModel second = parser.parse("Plant",
+                schema("{\"address\": " + ADDRESS + ", \"id\": {\"type\": \"string\"}}"));
+
+        assertSame(first.getProperty(0), second.getProperty(0));
+        assertTrue(PropertyDefinitionPool.getSharedCount() > shared);
+    }
+
+    @Test
+    void subtreesUnderAnotherNameShareTheirChildren() throws Exception {
+        SchemaModel first = parser.parse("Site", schema("{\"billing\": " + ADDRESS + "}"));
+        SchemaModel second = parser.parse("Plant", schema("{\"shipping\": " + ADDRESS + "}"));
+
+        assertNotSame(first.getProperty(0), second.getProperty(0));
+        assertSame(first.getProperty(0).getNestedProperties().get(1),
+                second.getProperty(0).getNestedProperties().get(1));
+    }
+
+    @Test
+    void differentSubtreesAreNotShared() throws Exception {
+        SchemaModel first = parser.parse("Site", schema("{\"address\": " + ADDRESS + "}"));
+        SchemaModel second = parser.parse("Plant", schema("{\"address\": "
+                + ADDRESS.replace("\"lat\"", "\"lon\"") + "}"));
+
+        assertNotSame(first.getProperty(0), second.getProperty(0));
+        assertSame(first.getProperty(0).getNestedProperties().get(0),
+                second.getProperty(0).getNestedProperties().get(0));
+    }
+
+    private static String schema(String properties) {
+        return "{\"type\": \"object\", \"properties\": " + properties + "}";
+    }
+}
@@ -0,0 +1,105 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncOperationLimiterTest {
+
+    private static final String EXECUTOR_THREAD = "limiter-test";
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, EXECUTOR_THREAD));
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void queuedOperationsStartOnTheExecutorAsSlotsFreeUp() throws Exception {
+        AsyncOperationLimiter limiter = new AsyncOperationLimiter(2, executor);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        List<CompletableFuture<String>> startThreads = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            CompletableFuture<String> call = new CompletableFuture<>();
+            CompletableFuture<String> startThread = new CompletableFuture<>();
+            calls.add(call);
+            startThreads.add(startThread);
+            limiter.submit(() -> {
+                startThread.complete(Thread.currentThread().getName());
+                return call;
+            }, 10, TimeUnit.SECONDS);
+        }
+        assertEquals(2, limiter.getInFlight());
+        assertEquals(1, limiter.getWaiting());
+        assertFalse(startThreads.get(2).isDone());
+
+        calls.get(0).complete("done");
+
+        assertEquals(EXECUTOR_THREAD, startThreads.get(2).get(5, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getWaiting());
+        assertEquals(2, limiter.getInFlight());
+    }
+
+    @Test
+    void timeoutReleasesTheSlotOnlyOnce() throws Exception {
+        AsyncOperationLimiter limiter = new AsyncOperationLimiter(1, executor);
+        CompletableFuture<String> call = new CompletableFuture<>();
+
+        CompletableFuture<String> result = limiter.submit(() -> call, 50, TimeUnit.MILLISECONDS);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof TimeoutException);
+        assertEquals(0, limiter.getInFlight());
+
+        // Completing after the timeout must not release the slot a second time
+        call.complete("done");
+        limiter.submit(() -> new CompletableFuture<String>(), 10, TimeUnit.SECONDS);
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    void operationThatNeverCompletesLetsTheNextOneStartAfterItsTimeout() throws Exception {
+        AsyncOperationLimiter limiter = new AsyncOperationLimiter(1, executor);
+        limiter.submit(() -> new CompletableFuture<String>(), 50, TimeUnit.MILLISECONDS);
+
+        CompletableFuture<String> next = limiter.submit(
+                () -> CompletableFuture.completedFuture("done"), 10, TimeUnit.SECONDS);
+
+        assertEquals("done", next.get(5, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(0, limiter.getWaiting());
+    }
+
+    @Test
+    void cancelledWaitingOperationsNeverStart() {
+        AsyncOperationLimiter limiter = new AsyncOperationLimiter(1, executor);
+        CompletableFuture<String> running = new CompletableFuture<>();
+        limiter.submit(() -> running, 10, TimeUnit.SECONDS);
+        boolean[] started = {false};
+
+        CompletableFuture<String> waiting = limiter.submit(() -> {
+            started[0] = true;
+            return CompletableFuture.completedFuture("done");
+        }, 10, TimeUnit.SECONDS);
+        limiter.cancelWaiting();
+        running.complete("done");
+
+        assertTrue(waiting.isCancelled() || waiting.isCompletedExceptionally());
+        assertFalse(started[0]);
+        assertEquals(0, limiter.getInFlight());
+    }
+}
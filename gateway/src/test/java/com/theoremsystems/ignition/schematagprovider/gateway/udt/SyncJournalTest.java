@@ -0,0 +1,91 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void latestEntryPerProviderAndTypeSurvivesReopen() throws Exception {
+        Path file = directory.resolve(SyncJournal.FILE_NAME);
+        try (SyncJournal journal = new SyncJournal(file)) {
+            journal.open();
+            journal.recordApplied("default", "Motor", "f1");
+            journal.recordApplied("default", "Motor", "f2");
+            journal.recordApplied("default", "Pump", "f3");
+            journal.recordApplied("edge", "Motor", "f4");
+            journal.recordForgotten("default", "Pump");
+        }
+
+        try (SyncJournal journal = new SyncJournal(file)) {
+            journal.open();
+            assertEquals(Map.of("Motor", "f2"), journal.getFingerprints("default"));
+            assertEquals(Map.of("Motor", "f4"), journal.getFingerprints("edge"));
+            assertTrue(journal.getFingerprints("unknown").isEmpty());
+            assertEquals(2, journal.size());
+        }
+    }
+
+    @Test
+    void unchangedFingerprintIsNotAppendedAgain() throws Exception {
+        Path file = directory.resolve(SyncJournal.FILE_NAME);
+        try (SyncJournal journal = new SyncJournal(file)) {
+            journal.open();
+            journal.recordApplied("default", "Motor", "f1");
+            journal.recordApplied("default", "Motor", "f1");
+            journal.recordForgotten("default", "Unknown");
+        }
+
+        assertEquals(1, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+    }
+
+    @Test
+    void malformedLinesAreIgnored() throws Exception {
+        Path file = directory.resolve(SyncJournal.FILE_NAME);
+        Files.writeString(file, "A\tdefault\tMotor\tf1\nA\tdefault\tPu\n\nX\tgarbage\n", StandardCharsets.UTF_8);
+
+        try (SyncJournal journal = new SyncJournal(file)) {
+            journal.open();
+            assertEquals(Map.of("Motor", "f1"), journal.getFingerprints("default"));
+        }
+    }
+
+    @Test
+    void keysThatWouldBreakTheLineFormatAreNotJournaled() throws Exception {
+        try (SyncJournal journal = new SyncJournal(directory.resolve(SyncJournal.FILE_NAME))) {
+            journal.open();
+            journal.recordApplied("default", "Bad\tName", "f1");
+            journal.recordApplied("default", "Bad\nName", "f1");
+
+            assertEquals(0, journal.size());
+        }
+    }
+
+    @Test
+    void journalIsCompactedOnOpenOnceMostLinesAreStale() throws Exception {
+        Path file = directory.resolve(SyncJournal.FILE_NAME);
+        try (SyncJournal journal = new SyncJournal(file)) {
+            journal.open();
+            for (int i = 0; i < 2000; i++) {
+                journal.recordApplied("default", "Motor", "f" + i);
+            }
+        }
+
+        try (SyncJournal journal = new SyncJournal(file)) {
+            journal.open();
+            assertEquals(Map.of("Motor", "f1999"), journal.getFingerprints("default"));
+        }
+        assertEquals(1, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+    }
+}
@@ -0,0 +1,76 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.JsonSchemaParser;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the builder output with golden files. The files hold compact JSON, so they are compared as exact text.
+ */
+class UdtDefinitionBuilderTest {
+
+    private static final String PLANT = "{\"title\": \"Plant\", \"description\": \"A plant\","
+            + " \"allOf\": [{\"$ref\": \"#/definitions/Site\"}],"
+            + " \"properties\": {"
+            + "\"name\": {\"type\": \"string\", \"description\": \"Plant name\", \"default\": \"North\"},"
+            + "\"capacity\": {\"type\": \"number\", \"default\": 12.5},"
+            + "\"tags\": {\"type\": \"array\", \"items\": {\"type\": \"string\"}},"
+            + "\"owner\": {\"$ref\": \"#/definitions/Company\"},"
+            + "\"address\": {\"type\": \"object\", \"properties\": {"
+            + "  \"street\": {\"type\": \"string\"},"
+            + "  \"geo\": {\"type\": \"object\", \"properties\": {\"lat\": {\"type\": \"number\"}}}}},"
+            + "\"contact\": {\"type\": \"object\", \"properties\": {\"phone\": {\"type\": \"string\"}}}}}";
+
+    private final UdtDefinitionBuilder builder = new UdtDefinitionBuilder();
+
+    @Test
+    void udtJsonIsCompact() throws Exception {
+        SchemaModel schema = parse(PLANT);
+
+        assertEquals(golden("plant-udt.json"), builder.buildUdtJson(schema));
+    }
+
+    @Test
+    void nestedTypesAreListedDeepestFirst() throws Exception {
+        SchemaModel schema = parse(PLANT);
+
+        String nested = builder.buildNestedUdtDefinitions(schema);
+
+        assertEquals(golden("plant-nested-udts.json"), nested);
+        assertEquals(List.of("Plant_address_geo", "Plant_address", "Plant_contact"), names(nested));
+        assertEquals(3, builder.countNestedUdts(schema));
+    }
+
+    @Test
+    void typeNamesIncludeNestedTypes() throws Exception {
+        assertEquals(List.of("Plant", "Plant_address", "Plant_address_geo", "Plant_contact"),
+                UdtDefinitionBuilder.typeNames(parse(PLANT)));
+    }
+
+    private static SchemaModel parse(String json) throws Exception {
+        return new JsonSchemaParser().parse("plant", json);
+    }
+
+    private static String golden(String name) throws Exception {
+        try (InputStream in = UdtDefinitionBuilderTest.class.getResourceAsStream(name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+        }
+    }
+
+    private static List<String> names(String udtArray) {
+        List<String> names = new ArrayList<>();
+        for (JsonElement udt : JsonParser.parseString(udtArray).getAsJsonArray()) {
+            names.add(udt.getAsJsonObject().get("name").getAsString());
+        }
+        return names;
+    }
+}
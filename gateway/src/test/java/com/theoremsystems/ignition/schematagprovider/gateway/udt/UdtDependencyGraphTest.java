@@ -0,0 +1,85 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.JsonSchemaParser;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UdtDependencyGraphTest {
+
+    private final JsonSchemaParser parser = new JsonSchemaParser();
+
+    @Test
+    void layersPlaceDependenciesFirst() throws Exception {
+        SchemaModel pump = schema("Pump", "\"allOf\": [{\"$ref\": \"Motor\"}],");
+        SchemaModel motor = schema("Motor", "");
+        SchemaModel line = schema("Line", "", "\"pump\": {\"$ref\": \"#/definitions/Pump\"}");
+        SchemaModel valve = schema("Valve", "");
+
+        UdtDependencyGraph graph = UdtDependencyGraph.build(List.of(line, pump, motor, valve));
+
+        assertEquals(List.of(Set.of("Motor", "Valve"), Set.of("Pump"), Set.of("Line")), layerNames(graph));
+    }
+
+    @Test
+    void referencesOutsideTheGraphAreIgnored() throws Exception {
+        SchemaModel pump = schema("Pump", "\"allOf\": [{\"$ref\": \"Missing\"}],");
+
+        UdtDependencyGraph graph = UdtDependencyGraph.build(List.of(pump));
+
+        assertEquals(List.of(Set.of("Pump")), layerNames(graph));
+    }
+
+    @Test
+    void cyclicTypesAreSyncedInFinalLayer() throws Exception {
+        SchemaModel a = schema("A", "", "\"b\": {\"$ref\": \"B\"}");
+        SchemaModel b = schema("B", "", "\"a\": {\"$ref\": \"A\"}");
+        SchemaModel c = schema("C", "");
+
+        UdtDependencyGraph graph = UdtDependencyGraph.build(List.of(a, b, c));
+
+        assertEquals(List.of(Set.of("C"), Set.of("A", "B")), layerNames(graph));
+    }
+
+    @Test
+    void dependentsAreFoundTransitively() throws Exception {
+        SchemaModel motor = schema("Motor", "");
+        SchemaModel pump = schema("Pump", "\"allOf\": [{\"$ref\": \"Motor\"}],");
+        SchemaModel line = schema("Line", "", "\"pumps\": {\"type\": \"array\", \"items\": {\"$ref\": \"Pump\"}}");
+        SchemaModel valve = schema("Valve", "");
+
+        UdtDependencyGraph graph = UdtDependencyGraph.build(List.of(motor, pump, line, valve));
+
+        assertEquals(Set.of("Motor", "Pump", "Line"), graph.getWithDependents(List.of("Motor")));
+        assertEquals(Set.of("Valve"), graph.getWithDependents(List.of("Valve")));
+    }
+
+    @Test
+    void graphFromReferencesMatchesGraphFromSchemas() {
+        UdtDependencyGraph graph = UdtDependencyGraph.fromReferences(Map.of(
+                "Motor", Set.of(),
+                "Pump", Set.of("Motor", "Missing"),
+                "Line", Set.of("Pump"),
+                "Valve", Set.of("Valve")));
+
+        assertEquals(Set.of("Motor", "Pump", "Line"), graph.getWithDependents(List.of("Motor")));
+        assertEquals(Set.of("Valve"), graph.getWithDependents(List.of("Valve")));
+    }
+
+    private SchemaModel schema(String name, String extra, String... properties) throws Exception {
+        return parser.parse(name, "{\"title\": \"" + name + "\", " + extra + " \"type\": \"object\", "
+                + "\"properties\": {" + String.join(", ", properties) + "}}");
+    }
+
+    private static List<Set<String>> layerNames(UdtDependencyGraph graph) {
+        return graph.getLayers().stream()
+                .map(layer -> layer.stream().map(SchemaModel::getName).collect(Collectors.toSet()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,21 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.JsonSchemaParser;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UdtFingerprintCacheTest {
+
+    @Test
+    void cachesByModelInstance() throws Exception {
+        UdtFingerprintCache cache = new UdtFingerprintCache();
+        SchemaModel schema = new JsonSchemaParser().parse("Motor",
+                "{\"type\": \"object\", \"properties\": {\"speed\": {\"type\": \"number\"}}}");
+
+        assertEquals(UdtFingerprint.of(schema), cache.fingerprint(schema));
+        assertEquals(cache.fingerprint(schema), cache.fingerprint(schema));
+        assertEquals(1, cache.size());
+    }
+}
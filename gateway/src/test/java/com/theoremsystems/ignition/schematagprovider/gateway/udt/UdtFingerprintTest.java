@@ -0,0 +1,48 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.JsonSchemaParser;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class UdtFingerprintTest {
+
+    private final JsonSchemaParser parser = new JsonSchemaParser();
+
+    @Test
+    void separatelyParsedIdenticalSchemasHaveTheSameFingerprint() throws Exception {
+        String json = schema("{\"speed\": {\"type\": \"number\", \"default\": 1.5},"
+                + " \"settings\": {\"type\": \"object\", \"properties\": {\"mode\": {\"type\": \"string\"}}}}");
+
+        assertEquals(UdtFingerprint.of(parse(json)), UdtFingerprint.of(parse(json)));
+    }
+
+    @Test
+    void changesThatReachTheDefinitionChangeTheFingerprint() throws Exception {
+        String base = UdtFingerprint.of(parse(schema("{\"speed\": {\"type\": \"number\", \"default\": 1}}")));
+
+        assertNotEquals(base, UdtFingerprint.of(parse(schema("{\"speed\": {\"type\": \"number\", \"default\": 2}}"))));
+        assertNotEquals(base, UdtFingerprint.of(parse(schema("{\"speed\": {\"type\": \"integer\", \"default\": 1}}"))));
+        assertNotEquals(base, UdtFingerprint.of(parse(schema("{\"speed\": {\"type\": \"number\", \"default\": \"1\"}}"))));
+        assertNotEquals(base, UdtFingerprint.of(
+                parse(schema("{\"speed\": {\"type\": \"number\", \"default\": 1, \"description\": \"Speed\"}}"))));
+    }
+
+    @Test
+    void changesThatNeverReachTheDefinitionKeepTheFingerprint() throws Exception {
+        String base = UdtFingerprint.of(parse(schema("{\"speed\": {\"type\": \"number\"}}")));
+
+        assertEquals(base, UdtFingerprint.of(parse("{\"$id\": \"urn:motor\", \"type\": \"object\","
+                + " \"required\": [\"speed\"], \"properties\": {\"speed\": {\"type\": \"number\"}}}")));
+    }
+
+    private SchemaModel parse(String json) throws Exception {
+        return parser.parse("Motor", json);
+    }
+
+    private static String schema(String properties) {
+        return "{\"type\": \"object\", \"properties\": " + properties + "}";
+    }
+}
@@ -0,0 +1,122 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.google.gson.JsonParser;
+import com.inductiveautomation.ignition.common.model.values.QualityCode;
+import com.inductiveautomation.ignition.common.tags.model.TagProvider;
+import com.inductiveautomation.ignition.gateway.model.GatewayContext;
+import com.inductiveautomation.ignition.gateway.tags.model.GatewayTagManager;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.JsonSchemaParser;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Compares the JSON import and tag configuration backends against an in-memory tag provider.
+ * <p>
+ * The fake provider parses imported JSON, like Ignition does, and accepts saved configurations as-is, so the
+ * numbers cover the module's side of each path plus JSON parsing. Run with:
+ * {@code ./gradlew :gateway:benchmarkUdtBackends --args="<schemas> <iterations>"}
+ */
+public class UdtImportBackendBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int schemaCount = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        List<SchemaModel> schemas = generateSchemas(schemaCount);
+        GatewayContext context = fakeContext(fakeProvider());
+
+        for (String backend : List.of(JsonUdtImportBackend.NAME, TagConfigUdtImportBackend.NAME)) {
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                run(context, backend, schemas);
+            }
+
+            List<Long> timings = new ArrayList<>();
+            for (int i = 0; i < iterations; i++) {
+                timings.add(run(context, backend, schemas));
+            }
+            Collections.sort(timings);
+
+            long median = timings.get(timings.size() / 2);
+            System.out.printf("%-6s %d schemas: median %.1f ms, min %.1f ms, max %.1f ms (%.0f schemas/s)%n",
+                    backend, schemaCount, median / 1e6, timings.get(0) / 1e6, timings.get(timings.size() - 1) / 1e6,
+                    schemaCount / (median / 1e9));
+        }
+    }
+
+    private static long run(GatewayContext context, String backend, List<SchemaModel> schemas) {
+        // A new synchronizer has no fingerprints, so every schema is written
+        UdtSynchronizer synchronizer = new UdtSynchronizer(context, "default", 100, 4, backend);
+        try {
+            long start = System.nanoTime();
+            SyncReport report = synchronizer.syncAllUdtDefinitions(schemas).join();
+            long elapsed = System.nanoTime() - start;
+            if (!report.isSuccessful()) {
+                throw new IllegalStateException("Sync failed: " + report);
+            }
+            return elapsed;
+        } finally {
+            synchronizer.shutdown();
+        }
+    }
+
+    private static List<SchemaModel> generateSchemas(int count) throws Exception {
+        JsonSchemaParser parser = new JsonSchemaParser();
+        List<SchemaModel> schemas = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder json = new StringBuilder("{\"title\":\"Type").append(i)
+                    .append("\",\"description\":\"Generated type ").append(i).append("\",\"properties\":{");
+            for (int p = 0; p < 20; p++) {
+                String type = p % 4 == 0 ? "string" : p % 4 == 1 ? "integer" : p % 4 == 2 ? "number" : "boolean";
+                json.append("\"p").append(p).append("\":{\"type\":\"").append(type)
+                        .append("\",\"description\":\"Property ").append(p).append("\"},");
+            }
+            json.append("\"settings\":{\"type\":\"object\",\"properties\":{")
+                    .append("\"mode\":{\"type\":\"string\",\"default\":\"auto\"},")
+                    .append("\"limit\":{\"type\":\"number\",\"default\":10.5}}}}}");
+            schemas.add(parser.parse("Type" + i, json.toString()));
+        }
+        return schemas;
+    }
+
+    private static TagProvider fakeProvider() {
+        return (TagProvider) Proxy.newProxyInstance(TagProvider.class.getClassLoader(),
+                new Class<?>[]{TagProvider.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "importTagsAsync": {
+                            int count = JsonParser.parseString((String) args[1]).getAsJsonArray().size();
+                            return CompletableFuture.completedFuture(good(count));
+                        }
+                        case "saveTagConfigsAsync":
+                            return CompletableFuture.completedFuture(good(((List<?>) args[0]).size()));
+                        case "getTagConfigsAsync":
+                            // Saved types have no members beyond the saved ones, so nothing is removed
+                            return CompletableFuture.completedFuture(
+                                    new ArrayList<>(Collections.nCopies(((List<?>) args[0]).size(), null)));
+                        case "getName":
+                            return "default";
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private static GatewayContext fakeContext(TagProvider provider) {
+        GatewayTagManager tagManager = (GatewayTagManager) Proxy.newProxyInstance(
+                GatewayTagManager.class.getClassLoader(), new Class<?>[]{GatewayTagManager.class},
+                (proxy, method, args) -> "getTagProvider".equals(method.getName()) ? provider : null);
+        return (GatewayContext) Proxy.newProxyInstance(GatewayContext.class.getClassLoader(),
+                new Class<?>[]{GatewayContext.class},
+                (proxy, method, args) -> "getTagManager".equals(method.getName()) ? tagManager : null);
+    }
+
+    private static List<QualityCode> good(int count) {
+        return new ArrayList<>(Collections.nCopies(count, QualityCode.Good));
+    }
+}
@@ -0,0 +1,100 @@
+package com.theoremsystems.ignition.schematagprovider.gateway.udt;
+
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.JsonSchemaParser;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.PropertyDefinition;
+import com.theoremsystems.ignition.schematagprovider.gateway.schema.SchemaModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UdtMemberDiffTest {
+
+    private final JsonSchemaParser parser = new JsonSchemaParser();
+
+    @Test
+    void identicalSchemasHaveNoDifferences() throws Exception {
+        String json = schema("{\"speed\": {\"type\": \"number\", \"default\": 5, \"description\": \"Speed\"}}");
+
+        UdtMemberDiff diff = UdtMemberDiff.compute(parse(json), parse(json));
+
+        assertTrue(diff.isEmpty());
+        assertFalse(diff.requiresFullImport());
+    }
+
+    @Test
+    void detectsAddedRemovedAndRetypedMembers() throws Exception {
+        SchemaModel previous = parse(schema("{\"speed\": {\"type\": \"number\"}, \"name\": {\"type\": \"string\"}}"));
+        SchemaModel current = parse(schema("{\"speed\": {\"type\": \"boolean\"}, \"state\": {\"type\": \"string\"}}"));
+
+        UdtMemberDiff diff = UdtMemberDiff.compute(previous, current);
+
+        assertEquals(List.of("state"), names(diff.getAdded()));
+        assertEquals(List.of("name"), diff.getRemoved());
+        assertEquals(List.of("speed"), names(diff.getRetyped()));
+        assertFalse(diff.requiresFullImport());
+    }
+
+    @Test
+    void separatesChangedAndClearedDefaultsAndTooltips() throws Exception {
+        SchemaModel previous = parse(schema("{"
+                + "\"a\": {\"type\": \"number\", \"default\": 1},"
+                + "\"b\": {\"type\": \"number\", \"default\": 1},"
+                + "\"c\": {\"type\": \"number\", \"description\": \"Old\"},"
+                + "\"d\": {\"type\": \"number\", \"description\": \"Old\"}}"));
+        SchemaModel current = parse(schema("{"
+                + "\"a\": {\"type\": \"number\", \"default\": 2},"
+                + "\"b\": {\"type\": \"number\"},"
+                + "\"c\": {\"type\": \"number\", \"description\": \"New\"},"
+                + "\"d\": {\"type\": \"number\"}}"));
+
+        UdtMemberDiff diff = UdtMemberDiff.compute(previous, current);
+
+        assertEquals(List.of("a"), names(diff.getDefaultChanged()));
+        assertEquals(List.of("b", "d"), names(diff.getCleared()));
+        assertEquals(List.of("c"), names(diff.getOtherChanged()));
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    void typeLevelChangesRequireFullImport() throws Exception {
+        String properties = "{\"speed\": {\"type\": \"number\"}}";
+        SchemaModel previous = parse(schema(properties));
+        SchemaModel documented = parse("{\"type\": \"object\", \"description\": \"A motor\", \"properties\": "
+                + properties + "}");
+        SchemaModel inherited = parse("{\"type\": \"object\", \"allOf\": [{\"$ref\": \"Base\"}], \"properties\": "
+                + properties + "}");
+
+        assertTrue(UdtMemberDiff.compute(previous, documented).requiresFullImport());
+        assertTrue(UdtMemberDiff.compute(previous, inherited).requiresFullImport());
+    }
+
+    @Test
+    void changeInsideNestedObjectRequiresFullImport() throws Exception {
+        SchemaModel previous = parse(schema(
+                "{\"status\": {\"type\": \"object\", \"properties\": {\"code\": {\"type\": \"number\"}}}}"));
+        SchemaModel current = parse(schema(
+                "{\"status\": {\"type\": \"object\", \"properties\": {\"code\": {\"type\": \"string\"}}}}"));
+
+        UdtMemberDiff diff = UdtMemberDiff.compute(previous, current);
+
+        assertTrue(diff.requiresFullImport());
+        assertEquals(List.of("status"), names(diff.getRetyped()));
+    }
+
+    private SchemaModel parse(String json) throws Exception {
+        return parser.parse("Motor", json);
+    }
+
+    private static String schema(String properties) {
+        return "{\"type\": \"object\", \"properties\": " + properties + "}";
+    }
+
+    private static List<String> names(List<PropertyDefinition> properties) {
+        return properties.stream().map(PropertyDefinition::getName).collect(Collectors.toList());
+    }
+}